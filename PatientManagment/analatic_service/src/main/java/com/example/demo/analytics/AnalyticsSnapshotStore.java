@@ -0,0 +1,235 @@
+package com.example.demo.analytics;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Persists {@link PatientAnalytics} together with the next Kafka offset of every partition it
+ * has consumed, so a restart restores the aggregates and resumes from those offsets instead of
+ * replaying the topic from the beginning.
+ *
+ * <p>Batches are ingested under a shared lock; taking a snapshot holds the exclusive lock only
+ * while the state is copied, so state and offsets always describe the same set of events. The
+ * copy is written to a temporary file, fsynced and atomically renamed over the previous
+ * snapshot, and a CRC guards against reading a torn or corrupt file.
+ */
+@Component
+public class AnalyticsSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsSnapshotStore.class);
+    private static final int MAGIC = 0x504D4153;
+    private static final int VERSION = 1;
+
+    private final PatientAnalytics patientAnalytics;
+    private final Path path;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<TopicPartition, Long> nextOffsets = new ConcurrentHashMap<>();
+    private final AtomicLong ingestedBatches = new AtomicLong();
+    private long snapshottedBatches;
+
+    public AnalyticsSnapshotStore(PatientAnalytics patientAnalytics,
+                                  @Value("${analytics.snapshot.path:data/analytics.snapshot}") String path) {
+        this.patientAnalytics = patientAnalytics;
+        this.path = Path.of(path);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!Files.exists(path)) {
+            log.info("No analytics snapshot at {}, starting from the committed offsets", path);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - Long.BYTES);
+            if (crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - Long.BYTES, Long.BYTES).getLong()) {
+                throw new IOException("checksum mismatch");
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - Long.BYTES));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("unrecognised snapshot format");
+            }
+            Map<TopicPartition, Long> offsets = readOffsets(in);
+            patientAnalytics.restore(readState(in));
+            nextOffsets.putAll(offsets);
+            log.info("Restored analytics snapshot covering {} partitions in {} ms", offsets.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable analytics snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    /** Runs one batch's processing and records its offsets as a unit with respect to snapshots. */
+    public void ingest(List<ConsumerRecord<String, byte[]>> records, Runnable processing) {
+        lock.readLock().lock();
+        try {
+            processing.run();
+            for (ConsumerRecord<String, byte[]> record : records) {
+                nextOffsets.merge(new TopicPartition(record.topic(), record.partition()), record.offset() + 1, Math::max);
+            }
+            ingestedBatches.incrementAndGet();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Offset the state already covers for this partition, or null if it has never been seen. */
+    public Long nextOffset(TopicPartition partition) {
+        return nextOffsets.get(partition);
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${analytics.snapshot.interval-ms:30000}", initialDelayString = "${analytics.snapshot.interval-ms:30000}")
+    public synchronized void snapshot() {
+        AnalyticsState state;
+        Map<TopicPartition, Long> offsets;
+        long batches;
+        lock.writeLock().lock();
+        try {
+            batches = ingestedBatches.get();
+            if (batches == snapshottedBatches) {
+                return;
+            }
+            state = patientAnalytics.snapshot();
+            offsets = new HashMap<>(nextOffsets);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            write(state, offsets);
+            snapshottedBatches = batches;
+        } catch (IOException e) {
+            log.error("Failed to write analytics snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void write(AnalyticsState state, Map<TopicPartition, Long> offsets) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 64 * 1024), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeOffsets(out, offsets);
+            writeState(out, state);
+            out.flush();
+            out.writeLong(checked.getChecksum().getValue());
+            out.flush();
+            file.getChannel().force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Wrote analytics snapshot covering {} partitions to {}", offsets.size(), path);
+    }
+
+    private static void writeOffsets(DataOutputStream out, Map<TopicPartition, Long> offsets) throws IOException {
+        out.writeInt(offsets.size());
+        for (Map.Entry<TopicPartition, Long> entry : offsets.entrySet()) {
+            out.writeUTF(entry.getKey().topic());
+            out.writeInt(entry.getKey().partition());
+            out.writeLong(entry.getValue());
+        }
+    }
+
+    private static Map<TopicPartition, Long> readOffsets(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            offsets.put(new TopicPartition(in.readUTF(), in.readInt()), in.readLong());
+        }
+        return offsets;
+    }
+
+    private static void writeState(DataOutputStream out, AnalyticsState state) throws IOException {
+        out.writeInt(state.eventCounts().size());
+        for (Map.Entry<String, Long> entry : state.eventCounts().entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+        out.writeInt(state.priorityByPatient().size());
+        for (Map.Entry<String, Integer> entry : state.priorityByPatient().entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+        out.writeInt(state.registrationsPerDay().size());
+        for (Map.Entry<LocalDate, Long> entry : state.registrationsPerDay().entrySet()) {
+            out.writeLong(entry.getKey().toEpochDay());
+            out.writeLong(entry.getValue());
+        }
+        out.writeInt(state.windows().size());
+        for (Map.Entry<String, Map<String, long[][]>> type : state.windows().entrySet()) {
+            out.writeUTF(type.getKey());
+            out.writeInt(type.getValue().size());
+            for (Map.Entry<String, long[][]> window : type.getValue().entrySet()) {
+                out.writeUTF(window.getKey());
+                out.writeInt(window.getValue().length);
+                for (long[] bucket : window.getValue()) {
+                    out.writeLong(bucket[0]);
+                    out.writeLong(bucket[1]);
+                }
+            }
+        }
+    }
+
+    private static AnalyticsState readState(DataInputStream in) throws IOException {
+        Map<String, Long> eventCounts = new HashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            eventCounts.put(in.readUTF(), in.readLong());
+        }
+        Map<String, Integer> priorityByPatient = new HashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            priorityByPatient.put(in.readUTF(), in.readInt());
+        }
+        Map<LocalDate, Long> registrationsPerDay = new HashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            registrationsPerDay.put(LocalDate.ofEpochDay(in.readLong()), in.readLong());
+        }
+        Map<String, Map<String, long[][]>> windows = new HashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            String type = in.readUTF();
+            Map<String, long[][]> rings = new HashMap<>();
+            for (int j = in.readInt(); j > 0; j--) {
+                String window = in.readUTF();
+                long[][] ring = new long[in.readInt()][];
+                for (int k = 0; k < ring.length; k++) {
+                    ring[k] = new long[] {in.readLong(), in.readLong()};
+                }
+                rings.put(window, ring);
+            }
+            windows.put(type, rings);
+        }
+        return new AnalyticsState(eventCounts, priorityByPatient, registrationsPerDay, windows);
+    }
+}
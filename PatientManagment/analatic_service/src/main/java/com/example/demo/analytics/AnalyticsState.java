@@ -0,0 +1,12 @@
+package com.example.demo.analytics;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/** Point-in-time copy of {@link PatientAnalytics}, as written to and read from snapshots. */
+public record AnalyticsState(
+        Map<String, Long> eventCounts,
+        Map<String, Integer> priorityByPatient,
+        Map<LocalDate, Long> registrationsPerDay,
+        Map<String, Map<String, long[][]>> windows) {
+}
@@ -0,0 +1,42 @@
+package com.example.demo.analytics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Minute, hour and day windows for one event type, each backed by a fixed bucket ring. */
+public class EventWindows {
+
+    public static final String MINUTE = "1m";
+    public static final String HOUR = "1h";
+    public static final String DAY = "1d";
+
+    private final Map<String, WindowedCounter> counters = new LinkedHashMap<>();
+
+    public EventWindows() {
+        counters.put(MINUTE, new WindowedCounter(1_000L, 60));
+        counters.put(HOUR, new WindowedCounter(60_000L, 60));
+        counters.put(DAY, new WindowedCounter(3_600_000L, 24));
+    }
+
+    public void record(long eventMillis, long nowMillis) {
+        for (WindowedCounter counter : counters.values()) {
+            counter.increment(eventMillis, nowMillis);
+        }
+    }
+
+    public Map<String, WindowedCounter> counters() {
+        return counters;
+    }
+
+    public Map<String, Long> tumbling(long nowMillis) {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        counters.forEach((window, counter) -> totals.put(window, counter.tumbling(nowMillis)));
+        return totals;
+    }
+
+    public Map<String, Long> sliding(long nowMillis) {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        counters.forEach((window, counter) -> totals.put(window, counter.sliding(nowMillis)));
+        return totals;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.demo.analytics;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import patient.events.PatientEvent;
+
+/**
+ * Live aggregates over the patient-events stream. Ingestion only touches concurrent maps and
+ * striped counters and readers take no locks, so queries never stall consumers.
+ *
+ * <p>Events are keyed by patient id, so all events for one patient arrive on the same
+ * partition and consumer thread; per-patient state therefore needs no extra coordination.
+ */
+@Component
+public class PatientAnalytics {
+
+    static final Set<String> EVENT_TYPES = Set.of("CREATE", "UPDATE", "DELETE", "TRIAGED");
+    static final String OTHER = "OTHER";
+
+    private final Map<String, LongAdder> eventCounts = new ConcurrentHashMap<>();
+    private final Map<String, EventWindows> eventWindows = new ConcurrentHashMap<>();
+    private final Map<String, Integer> priorityByPatient = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> priorityCounts = new ConcurrentHashMap<>();
+    private final Map<LocalDate, LongAdder> registrationsPerDay = new ConcurrentHashMap<>();
+    private final int retentionDays;
+
+    public PatientAnalytics(@Value("${analytics.registrations.retention-days:90}") int retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+
+    public void record(PatientEvent event, long eventMillis) {
+        long now = System.currentTimeMillis();
+        // Unknown types share one bucket so a bad producer cannot grow the maps without bound
+        String eventType = EVENT_TYPES.contains(event.getEventType()) ? event.getEventType() : OTHER;
+        eventCounts.computeIfAbsent(eventType, type -> new LongAdder()).increment();
+        eventWindows.computeIfAbsent(eventType, type -> new EventWindows()).record(eventMillis, now);
+
+        switch (eventType) {
+            case "CREATE" -> {
+                trackPriority(event);
+                LocalDate registered = registerDate(event, eventMillis);
+                if (!registered.isBefore(oldestRetainedDay())) {
+                    registrationsPerDay.computeIfAbsent(registered, day -> new LongAdder()).increment();
+                }
+            }
+            case "UPDATE" -> trackPriority(event);
+            case "DELETE" -> {
+                Integer previous = priorityByPatient.remove(event.getPatientid());
+                if (previous != null) {
+                    priorityCounts.get(previous).decrement();
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void trackPriority(PatientEvent event) {
+        Integer previous = priorityByPatient.put(event.getPatientid(), event.getPriority());
+        if (previous != null) {
+            priorityCounts.get(previous).decrement();
+        }
+        priorityCounts.computeIfAbsent(event.getPriority(), priority -> new LongAdder()).increment();
+    }
+
+    private static LocalDate registerDate(PatientEvent event, long eventMillis) {
+        try {
+            if (!event.getRegisterDate().isEmpty()) {
+                return LocalDate.parse(event.getRegisterDate());
+            }
+        } catch (DateTimeParseException e) {
+            // fall back to the event time
+        }
+        return LocalDate.ofInstant(Instant.ofEpochMilli(eventMillis), ZoneOffset.UTC);
+    }
+
+    private LocalDate oldestRetainedDay() {
+        return LocalDate.now(ZoneOffset.UTC).minusDays(retentionDays);
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        LocalDate oldest = oldestRetainedDay();
+        registrationsPerDay.keySet().removeIf(day -> day.isBefore(oldest));
+    }
+
+    public Map<String, Long> eventCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        eventCounts.forEach((type, count) -> counts.put(type, count.sum()));
+        return counts;
+    }
+
+    public long activePatients() {
+        return priorityByPatient.size();
+    }
+
+    public Map<Integer, Long> priorityDistribution() {
+        Map<Integer, Long> distribution = new TreeMap<>();
+        priorityCounts.forEach((priority, count) -> {
+            long patients = count.sum();
+            if (patients > 0) {
+                distribution.put(priority, patients);
+            }
+        });
+        return distribution;
+    }
+
+    public Map<LocalDate, Long> registrationsPerDay() {
+        Map<LocalDate, Long> perDay = new TreeMap<>();
+        registrationsPerDay.forEach((day, count) -> perDay.put(day, count.sum()));
+        return perDay;
+    }
+
+    public Map<String, Map<String, Long>> tumblingWindows(long nowMillis) {
+        Map<String, Map<String, Long>> windows = new TreeMap<>();
+        eventWindows.forEach((type, typeWindows) -> windows.put(type, typeWindows.tumbling(nowMillis)));
+        return windows;
+    }
+
+    public Map<String, Map<String, Long>> slidingWindows(long nowMillis) {
+        Map<String, Map<String, Long>> windows = new TreeMap<>();
+        eventWindows.forEach((type, typeWindows) -> windows.put(type, typeWindows.sliding(nowMillis)));
+        return windows;
+    }
+
+    /** Copies the aggregates; callers must stop ingestion meanwhile for the copy to be consistent. */
+    public AnalyticsState snapshot() {
+        Map<String, Map<String, long[][]>> windows = new HashMap<>();
+        eventWindows.forEach((type, typeWindows) -> {
+            Map<String, long[][]> rings = new HashMap<>();
+            typeWindows.counters().forEach((window, counter) -> rings.put(window, counter.buckets()));
+            windows.put(type, rings);
+        });
+        Map<LocalDate, Long> perDay = new HashMap<>();
+        registrationsPerDay.forEach((day, count) -> perDay.put(day, count.sum()));
+        Map<String, Long> counts = new HashMap<>();
+        eventCounts.forEach((type, count) -> counts.put(type, count.sum()));
+        return new AnalyticsState(counts, new HashMap<>(priorityByPatient), perDay, windows);
+    }
+
+    public void restore(AnalyticsState state) {
+        state.eventCounts().forEach((type, count) -> eventCounts.computeIfAbsent(type, t -> new LongAdder()).add(count));
+        state.priorityByPatient().forEach((patientId, priority) -> {
+            priorityByPatient.put(patientId, priority);
+            priorityCounts.computeIfAbsent(priority, p -> new LongAdder()).increment();
+        });
+        state.registrationsPerDay().forEach((day, count) -> registrationsPerDay.computeIfAbsent(day, d -> new LongAdder()).add(count));
+        state.windows().forEach((type, rings) -> {
+            EventWindows typeWindows = eventWindows.computeIfAbsent(type, t -> new EventWindows());
+            rings.forEach((window, ring) -> {
+                WindowedCounter counter = typeWindows.counters().get(window);
+                if (counter != null) {
+                    counter.restore(ring);
+                }
+            });
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.analytics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free event counter over a fixed ring of time buckets. A bucket is recycled by swapping
+ * in a fresh one with a CAS when its slot comes round again, so memory never grows and
+ * increments only ever touch a striped {@link LongAdder}. Events older than the ring are dropped.
+ */
+public class WindowedCounter {
+
+    private record Bucket(long epoch, LongAdder count) {
+    }
+
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    public WindowedCounter(long bucketMillis, int bucketCount) {
+        this.bucketMillis = bucketMillis;
+        this.bucketCount = bucketCount;
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    public long windowMillis() {
+        return bucketMillis * bucketCount;
+    }
+
+    public void increment(long eventMillis, long nowMillis) {
+        long epoch = eventMillis / bucketMillis;
+        if (epoch <= nowMillis / bucketMillis - bucketCount) {
+            return;
+        }
+        int slot = (int) Math.floorMod(epoch, (long) bucketCount);
+        while (true) {
+            Bucket bucket = buckets.get(slot);
+            if (bucket != null && bucket.epoch() == epoch) {
+                bucket.count().increment();
+                return;
+            }
+            if (bucket != null && bucket.epoch() > epoch) {
+                return;
+            }
+            buckets.compareAndSet(slot, bucket, new Bucket(epoch, new LongAdder()));
+        }
+    }
+
+    /** Events in the trailing window ending now. */
+    public long sliding(long nowMillis) {
+        long current = nowMillis / bucketMillis;
+        return sumSince(current - bucketCount + 1, current);
+    }
+
+    /** Events since the start of the current window-aligned period (e.g. this UTC minute). */
+    public long tumbling(long nowMillis) {
+        long current = nowMillis / bucketMillis;
+        long periodStart = (nowMillis / windowMillis()) * windowMillis() / bucketMillis;
+        return sumSince(periodStart, current);
+    }
+
+    /** Copies the ring as [epoch, count] pairs; empty slots have epoch -1. */
+    public long[][] buckets() {
+        long[][] copy = new long[bucketCount][];
+        for (int i = 0; i < bucketCount; i++) {
+            Bucket bucket = buckets.get(i);
+            copy[i] = bucket == null ? new long[] {-1, 0} : new long[] {bucket.epoch(), bucket.count().sum()};
+        }
+        return copy;
+    }
+
+    public void restore(long[][] ring) {
+        for (int i = 0; i < bucketCount && i < ring.length; i++) {
+            if (ring[i][0] >= 0) {
+                LongAdder count = new LongAdder();
+                count.add(ring[i][1]);
+                buckets.set(i, new Bucket(ring[i][0], count));
+            }
+        }
+    }
+
+    private long sumSince(long fromEpoch, long toEpoch) {
+        long total = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.epoch() >= fromEpoch && bucket.epoch() <= toEpoch) {
+                total += bucket.count().sum();
+            }
+        }
+        return total;
+    }
+}
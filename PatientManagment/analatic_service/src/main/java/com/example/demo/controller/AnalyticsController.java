@@ -0,0 +1,46 @@
+package com.example.demo.controller;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.analytics.PatientAnalytics;
+
+@RestController
+@RequestMapping("/analytics")
+public class AnalyticsController {
+
+    private final PatientAnalytics patientAnalytics;
+
+    public AnalyticsController(PatientAnalytics patientAnalytics) {
+        this.patientAnalytics = patientAnalytics;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("eventCounts", patientAnalytics.eventCounts());
+        summary.put("activePatients", patientAnalytics.activePatients());
+        summary.put("priorityDistribution", patientAnalytics.priorityDistribution());
+        return ResponseEntity.ok().body(summary);
+    }
+
+    @GetMapping("/registrations")
+    public ResponseEntity<Map<LocalDate, Long>> getRegistrationsPerDay() {
+        return ResponseEntity.ok().body(patientAnalytics.registrationsPerDay());
+    }
+
+    @GetMapping("/windows")
+    public ResponseEntity<Map<String, Object>> getWindows() {
+        long now = System.currentTimeMillis();
+        Map<String, Object> windows = new LinkedHashMap<>();
+        windows.put("tumbling", patientAnalytics.tumblingWindows(now));
+        windows.put("sliding", patientAnalytics.slidingWindows(now));
+        return ResponseEntity.ok().body(windows);
+    }
+}
@@ -1,43 +1,124 @@
 package com.example.demo.kafka;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.micrometer.KafkaListenerObservation;
+import org.springframework.kafka.support.micrometer.KafkaRecordReceiverContext;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.demo.analytics.AnalyticsSnapshotStore;
+import com.example.demo.analytics.PatientAnalytics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import patient.events.PatientEvent;
 
 @Service
-public class KafkaConsumer {
+public class KafkaConsumer implements ConsumerSeekAware {
     
     private static final Logger log = LoggerFactory.getLogger(KafkaConsumer.class);
+    private static final String CONTENT_TYPE_HEADER = "content-type";
+    private static final String PROTOBUF = "application/x-protobuf";
+    private static final String GROUP_ID = "analytics-service";
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PatientAnalytics patientAnalytics;
+    private final AnalyticsSnapshotStore snapshotStore;
+    private final ObservationRegistry observationRegistry;
+    private final Timer eventLag;
+
+    public KafkaConsumer(PatientAnalytics patientAnalytics, AnalyticsSnapshotStore snapshotStore,
+                         ObservationRegistry observationRegistry, MeterRegistry meterRegistry) {
+        this.patientAnalytics = patientAnalytics;
+        this.snapshotStore = snapshotStore;
+        this.observationRegistry = observationRegistry;
+        this.eventLag = Timer.builder("analytics.events.lag")
+                .description("Time from a patient-event being produced to analytics processing it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
     
-    @KafkaListener(topics = "patient-events", groupId = "analytics-service")
-    public void consumeEvent(byte[] event) {
-        try {
-            String jsonString = new String(event);
-            JsonNode patientEvent = objectMapper.readTree(jsonString);
-            
-            String patientId = patientEvent.has("patientId") ? patientEvent.get("patientId").asText() : "unknown";
-            String name = patientEvent.has("name") ? patientEvent.get("name").asText() : "unknown";
-            String email = patientEvent.has("email") ? patientEvent.get("email").asText() : "unknown";
-            String eventType = patientEvent.has("eventType") ? patientEvent.get("eventType").asText() : "unknown";
-            
-            log.info("Received patient event: id={}, name={}, email={}, eventType={}",
-                    patientId, name, email, eventType);
-            
-            // Process the event - in a real app, you'd store this in a database
-            processPatientEvent(patientId, name, email, eventType);
-            
-        } catch (Exception e) {
-            log.error("Error processing event: {}", e.getMessage());
+    // Offsets are committed only once the whole poll has been processed.
+    @KafkaListener(topics = "patient-events", groupId = GROUP_ID)
+    public void consumeEvents(List<ConsumerRecord<String, byte[]>> records, Acknowledgment acknowledgment) {
+        snapshotStore.ingest(records, () -> processBatch(records));
+        acknowledgment.acknowledge();
+    }
+
+    // Resume each partition where the in-memory state ends, which after a restart is the restored snapshot.
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        assignments.keySet().forEach(partition -> {
+            Long next = snapshotStore.nextOffset(partition);
+            if (next != null) {
+                callback.seek(partition.topic(), partition.partition(), next);
+            }
+        });
+    }
+
+    // Batch listeners are not observed by the container, so each record is observed here as a
+    // spring.kafka.listener span continuing the producer's trace from its traceparent header.
+    public int processBatch(List<ConsumerRecord<String, byte[]>> records) {
+        int processed = 0;
+        for (ConsumerRecord<String, byte[]> record : records) {
+            Observation observation = KafkaListenerObservation.LISTENER_OBSERVATION.observation(null,
+                    KafkaListenerObservation.DefaultKafkaListenerObservationConvention.INSTANCE,
+                    () -> new KafkaRecordReceiverContext(record, GROUP_ID, GROUP_ID, GROUP_ID, () -> null),
+                    observationRegistry).start();
+            try (Observation.Scope scope = observation.openScope()) {
+                PatientEvent patientEvent = decode(record);
+                log.debug("Received patient event: id={}, eventType={}", patientEvent.getPatientid(), patientEvent.getEventType());
+
+                processPatientEvent(patientEvent, record.timestamp());
+                eventLag.record(Math.max(0, System.currentTimeMillis() - record.timestamp()), TimeUnit.MILLISECONDS);
+                processed++;
+            } catch (Exception e) {
+                observation.error(e);
+                log.error("Error processing event at {}-{}@{}: {}", record.topic(), record.partition(), record.offset(), e.getMessage());
+            } finally {
+                observation.stop();
+            }
+        }
+        log.debug("Processed {} of {} patient events", processed, records.size());
+        return processed;
+    }
+
+    // Protobuf is parsed straight from the record bytes; records without the header are legacy JSON.
+    private PatientEvent decode(ConsumerRecord<String, byte[]> record) throws Exception {
+        Header contentType = record.headers().lastHeader(CONTENT_TYPE_HEADER);
+        if (contentType != null && PROTOBUF.equals(new String(contentType.value(), StandardCharsets.UTF_8))) {
+            return PatientEvent.parseFrom(record.value());
         }
+
+        JsonNode patientEvent = objectMapper.readTree(record.value());
+        return PatientEvent.newBuilder()
+                .setPatientid(patientEvent.has("patientId") ? patientEvent.get("patientId").asText() : "unknown")
+                .setName(patientEvent.has("name") ? patientEvent.get("name").asText() : "unknown")
+                .setEmail(patientEvent.has("email") ? patientEvent.get("email").asText() : "unknown")
+                .setEventType(patientEvent.has("eventType") ? patientEvent.get("eventType").asText() : "unknown")
+                .setPriority(patientEvent.path("priority").asInt())
+                .setRegisterDate(patientEvent.path("registerDate").asText(""))
+                .setOccurredAt(patientEvent.path("occurredAt").asLong())
+                .build();
     }
     
-    private void processPatientEvent(String patientId, String name, String email, String eventType) {
-        // Add your analytics processing logic here
-        log.info("Processing patient event for analytics: {} - {} ({})", eventType, name, patientId);
+    // Legacy events carry no occurrence time, so the record timestamp stands in for it.
+    private void processPatientEvent(PatientEvent patientEvent, long recordTimestamp) {
+        long eventMillis = patientEvent.getOccurredAt() > 0 ? patientEvent.getOccurredAt() : recordTimestamp;
+        patientAnalytics.record(patientEvent, eventMillis);
     }
 }
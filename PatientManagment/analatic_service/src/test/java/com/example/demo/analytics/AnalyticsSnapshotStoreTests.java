@@ -0,0 +1,59 @@
+package com.example.demo.analytics;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import patient.events.PatientEvent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AnalyticsSnapshotStoreTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void restartRestoresStateAndOffsets() {
+        String path = dir.resolve("analytics.snapshot").toString();
+        PatientAnalytics analytics = new PatientAnalytics(36500);
+        AnalyticsSnapshotStore store = new AnalyticsSnapshotStore(analytics, path);
+        long now = System.currentTimeMillis();
+
+        List<ConsumerRecord<String, byte[]>> batch = List.of(
+                new ConsumerRecord<>("patient-events", 2, 41, "1", new byte[0]),
+                new ConsumerRecord<>("patient-events", 2, 42, "2", new byte[0]));
+        store.ingest(batch, () -> {
+            analytics.record(event("1", "CREATE", 1), now);
+            analytics.record(event("2", "CREATE", 3), now);
+            analytics.record(event("2", "UPDATE", 2), now);
+        });
+        store.snapshot();
+
+        PatientAnalytics restored = new PatientAnalytics(36500);
+        AnalyticsSnapshotStore restarted = new AnalyticsSnapshotStore(restored, path);
+        restarted.load();
+
+        assertEquals(analytics.eventCounts(), restored.eventCounts());
+        assertEquals(analytics.priorityDistribution(), restored.priorityDistribution());
+        assertEquals(analytics.registrationsPerDay(), restored.registrationsPerDay());
+        assertEquals(analytics.slidingWindows(now), restored.slidingWindows(now));
+        assertEquals(2, restored.activePatients());
+        assertEquals(43L, restarted.nextOffset(new TopicPartition("patient-events", 2)));
+        assertNull(restarted.nextOffset(new TopicPartition("patient-events", 0)));
+    }
+
+    private static PatientEvent event(String patientId, String eventType, int priority) {
+        return PatientEvent.newBuilder()
+                .setPatientid(patientId)
+                .setEventType(eventType)
+                .setPriority(priority)
+                .setRegisterDate("2026-02-15")
+                .build();
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.demo.analytics;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import patient.events.PatientEvent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PatientAnalyticsTests {
+
+    private static final LocalDate TODAY = LocalDate.now(ZoneOffset.UTC);
+
+    @Test
+    void updateMovesAPatientBetweenPriorityBuckets() {
+        PatientAnalytics analytics = new PatientAnalytics(90);
+        long now = System.currentTimeMillis();
+
+        analytics.record(event("1", "CREATE", 3), now);
+        analytics.record(event("2", "CREATE", 3), now);
+        analytics.record(event("1", "UPDATE", 1), now);
+
+        assertEquals(Map.of(1, 1L, 3, 1L), analytics.priorityDistribution());
+        assertEquals(2, analytics.activePatients());
+
+        analytics.record(event("2", "UPDATE", 1), now);
+
+        assertEquals(Map.of(1, 2L), analytics.priorityDistribution());
+        assertEquals(Map.of("CREATE", 2L, "UPDATE", 2L), analytics.eventCounts());
+    }
+
+    @Test
+    void deleteDecrementsTheBucketAndActivePatients() {
+        PatientAnalytics analytics = new PatientAnalytics(90);
+        long now = System.currentTimeMillis();
+        analytics.record(event("1", "CREATE", 2), now);
+        analytics.record(event("2", "CREATE", 2), now);
+
+        analytics.record(event("1", "DELETE", 0), now);
+        // A patient this instance never saw created leaves the state alone
+        analytics.record(event("9", "DELETE", 0), now);
+
+        assertEquals(Map.of(2, 1L), analytics.priorityDistribution());
+        assertEquals(1, analytics.activePatients());
+
+        analytics.record(event("2", "DELETE", 0), now);
+
+        assertEquals(Map.of(), analytics.priorityDistribution());
+        assertEquals(0, analytics.activePatients());
+        assertEquals(Map.of("CREATE", 2L, "DELETE", 3L), analytics.eventCounts());
+    }
+
+    @Test
+    void triagedAndUnknownEventsAreCountedButLeavePriorityStateAlone() {
+        PatientAnalytics analytics = new PatientAnalytics(90);
+        long now = System.currentTimeMillis();
+        analytics.record(event("1", "CREATE", 2), now);
+
+        analytics.record(event("1", "TRIAGED", 1), now);
+        analytics.record(event("2", "TRIAGED", 1), now);
+        analytics.record(event("3", "RENAMED", 1), now);
+        analytics.record(event("4", "", 1), now);
+
+        assertEquals(Map.of(2, 1L), analytics.priorityDistribution());
+        assertEquals(1, analytics.activePatients());
+        assertEquals(Map.of(TODAY.minusDays(1), 1L), analytics.registrationsPerDay());
+        assertEquals(Map.of("CREATE", 1L, "TRIAGED", 2L, PatientAnalytics.OTHER, 2L), analytics.eventCounts());
+        assertEquals(analytics.eventCounts().keySet(), analytics.slidingWindows(now).keySet());
+    }
+
+    @Test
+    void registrationsOlderThanTheRetentionAreDropped() {
+        PatientAnalytics analytics = new PatientAnalytics(30);
+        long now = System.currentTimeMillis();
+
+        analytics.record(create("1", TODAY.minusDays(30)), now);
+        analytics.record(create("2", TODAY.minusDays(31)), now);
+        analytics.record(create("3", TODAY.minusDays(31)), now);
+        // An unreadable register date counts on the day of the event
+        analytics.record(event("4", "CREATE", 1).toBuilder().setRegisterDate("not-a-date").build(), now);
+
+        assertEquals(Map.of(TODAY.minusDays(30), 1L, TODAY, 1L), analytics.registrationsPerDay());
+        // Too old to count per day, but still active patients
+        assertEquals(4, analytics.activePatients());
+    }
+
+    @Test
+    void evictionDropsDaysThatAgedOutOfTheRetention() {
+        PatientAnalytics analytics = new PatientAnalytics(30);
+        analytics.restore(new AnalyticsState(Map.of(), Map.of(),
+                Map.of(TODAY.minusDays(45), 4L, TODAY.minusDays(31), 3L, TODAY.minusDays(30), 2L, TODAY, 1L),
+                Map.of()));
+
+        analytics.evictExpired();
+
+        assertEquals(Map.of(TODAY.minusDays(30), 2L, TODAY, 1L), analytics.registrationsPerDay());
+    }
+
+    @Test
+    void restoreRebuildsPriorityBucketsAndLaterEventsApplyOnTop() {
+        PatientAnalytics analytics = new PatientAnalytics(90);
+        long now = System.currentTimeMillis();
+        analytics.restore(new AnalyticsState(
+                Map.of("CREATE", 3L, "DELETE", 1L),
+                Map.of("1", 1, "2", 3, "3", 3),
+                Map.of(TODAY.minusDays(1), 3L),
+                Map.of()));
+
+        assertEquals(Map.of(1, 1L, 3, 2L), analytics.priorityDistribution());
+        assertEquals(3, analytics.activePatients());
+
+        analytics.record(event("2", "UPDATE", 1), now);
+        analytics.record(event("3", "DELETE", 0), now);
+        analytics.record(event("4", "CREATE", 2), now);
+
+        assertEquals(Map.of(1, 2L, 2, 1L), analytics.priorityDistribution());
+        assertEquals(3, analytics.activePatients());
+        assertEquals(Map.of(TODAY.minusDays(1), 4L), analytics.registrationsPerDay());
+        assertEquals(Map.of("CREATE", 4L, "DELETE", 2L, "UPDATE", 1L), analytics.eventCounts());
+    }
+
+    private static PatientEvent create(String patientId, LocalDate registered) {
+        return event(patientId, "CREATE", 1).toBuilder().setRegisterDate(registered.toString()).build();
+    }
+
+    private static PatientEvent event(String patientId, String eventType, int priority) {
+        return PatientEvent.newBuilder()
+                .setPatientid(patientId)
+                .setEventType(eventType)
+                .setPriority(priority)
+                .setRegisterDate(TODAY.minusDays(1).toString())
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WindowedCounterTests {
+
+    @Test
+    void slidingWindowDropsExpiredBuckets() {
+        WindowedCounter minute = new WindowedCounter(1_000L, 60);
+        long start = 1_000_000_000L;
+        minute.increment(start, start);
+        minute.increment(start + 30_000, start + 30_000);
+
+        assertEquals(2, minute.sliding(start + 30_000));
+        assertEquals(1, minute.sliding(start + 61_000));
+        assertEquals(0, minute.sliding(start + 91_000));
+    }
+
+    @Test
+    void tumblingWindowResetsAtPeriodBoundary() {
+        WindowedCounter minute = new WindowedCounter(1_000L, 60);
+        long periodStart = 1_000_020_000L;
+        minute.increment(periodStart - 1_000, periodStart - 1_000);
+        minute.increment(periodStart + 5_000, periodStart + 5_000);
+
+        assertEquals(1, minute.tumbling(periodStart + 5_000));
+        assertEquals(2, minute.sliding(periodStart + 5_000));
+    }
+
+    @Test
+    void recycledSlotDoesNotCarryOldCounts() {
+        WindowedCounter minute = new WindowedCounter(1_000L, 60);
+        long start = 1_000_000_000L;
+        minute.increment(start, start);
+        minute.increment(start + 60_000, start + 60_000);
+
+        assertEquals(1, minute.sliding(start + 60_000));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.BatchAcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import com.example.demo.analytics.AnalyticsSnapshotStore;
+import com.example.demo.analytics.PatientAnalytics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import patient.events.PatientEvent;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Events/sec through the batch listener path at 1, 4 and 8 partitions, with container
+ * concurrency equal to the partition count, against an embedded KRaft broker.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class KafkaConsumerThroughputBenchmarkTests {
+
+    private static final int EVENTS = 200_000;
+
+    private static EmbeddedKafkaBroker broker;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, 1).kafkaPorts(0);
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @ParameterizedTest(name = "{0} partitions")
+    @ValueSource(ints = {1, 4, 8})
+    void consumeThroughput(int partitions) throws Exception {
+        String topic = "patient-events-bench-" + partitions;
+        broker.addTopics(new NewTopic(topic, partitions, (short) 1));
+        produce(topic);
+
+        PatientAnalytics analytics = new PatientAnalytics(90);
+        KafkaConsumer consumer = new KafkaConsumer(analytics, new AnalyticsSnapshotStore(analytics, "target/bench.snapshot"),
+                ObservationRegistry.NOOP, new SimpleMeterRegistry());
+        CountDownLatch remaining = new CountDownLatch(EVENTS);
+        ContainerProperties containerProperties = new ContainerProperties(topic);
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        containerProperties.setMessageListener((BatchAcknowledgingMessageListener<String, byte[]>) (records, ack) -> {
+            consumer.processBatch(records);
+            ack.acknowledge();
+            records.forEach(r -> remaining.countDown());
+        });
+
+        Map<String, Object> consumerProps = Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ConsumerConfig.GROUP_ID_CONFIG, "bench-" + partitions,
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false,
+                ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500,
+                ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
+                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        ConcurrentMessageListenerContainer<String, byte[]> container = new ConcurrentMessageListenerContainer<>(
+                new DefaultKafkaConsumerFactory<>(consumerProps), containerProperties);
+        container.setConcurrency(partitions);
+
+        long start = System.nanoTime();
+        container.start();
+        try {
+            assertTrue(remaining.await(2, TimeUnit.MINUTES), "timed out waiting for events");
+        } finally {
+            container.stop();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("patient-events consume: partitions=%d events=%d seconds=%.2f events/sec=%.0f%n",
+                partitions, EVENTS, seconds, EVENTS / seconds);
+    }
+
+    private static void produce(String topic) {
+        Map<String, Object> producerProps = Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ProducerConfig.LINGER_MS_CONFIG, 20,
+                ProducerConfig.BATCH_SIZE_CONFIG, 65536,
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        try (KafkaProducer<String, byte[]> producer = new KafkaProducer<>(producerProps)) {
+            for (int i = 0; i < EVENTS; i++) {
+                String patientId = Integer.toString(i);
+                ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, patientId, PatientEvent.newBuilder()
+                        .setPatientid(patientId)
+                        .setName("Patient " + i)
+                        .setEmail("patient" + i + "@example.com")
+                        .setEventType(i % 10 == 0 ? "UPDATE" : "CREATE")
+                        .setPriority(i % 3 + 1)
+                        .setRegisterDate("2026-02-15")
+                        .setOccurredAt(System.currentTimeMillis())
+                        .build()
+                        .toByteArray());
+                record.headers().add("content-type", "application/x-protobuf".getBytes(StandardCharsets.UTF_8));
+                producer.send(record);
+            }
+            producer.flush();
+        }
+    }
+}
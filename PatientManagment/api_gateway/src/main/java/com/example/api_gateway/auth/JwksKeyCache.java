@@ -0,0 +1,128 @@
+package com.example.api_gateway.auth;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * auth-service's token signing keys, fetched from its JWKS endpoint and kept in memory so
+ * verifying a token needs no call to auth-service.
+ * <ul>
+ * <li>Keys older than {@code gateway.auth.jwks-refresh-ms} are still used while a background
+ * fetch replaces them, so key retirements are picked up without ever blocking a request.</li>
+ * <li>A token signed with an unknown key id triggers an immediate fetch, since auth-service may
+ * have just rotated, but at most once per {@code gateway.auth.jwks-min-refresh-interval-ms} so
+ * tokens with made-up key ids cannot turn into a stream of JWKS calls.</li>
+ * <li>Concurrent fetches are coalesced into one; a failed fetch keeps the previous keys.</li>
+ * </ul>
+ */
+@Component
+public class JwksKeyCache {
+
+    private static final Logger log = LoggerFactory.getLogger(JwksKeyCache.class);
+
+    private final WebClient webClient;
+    private final String jwksUri;
+    private final long refreshNanos;
+    private final long minRefreshIntervalNanos;
+    private final Duration fetchTimeout;
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile long fetchedAt;
+    private volatile long lastAttempt;
+    private Mono<Map<String, PublicKey>> inFlight;
+
+    public JwksKeyCache(HttpClient httpClient,
+                        @Value("${gateway.auth.jwks-uri:http://auth-service:4005/.well-known/jwks.json}") String jwksUri,
+                        @Value("${gateway.auth.jwks-refresh-ms:300000}") long refreshMillis,
+                        @Value("${gateway.auth.jwks-min-refresh-interval-ms:10000}") long minRefreshIntervalMillis,
+                        @Value("${gateway.auth.jwks-timeout-ms:2000}") long fetchTimeoutMillis) {
+        this.webClient = WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+        this.jwksUri = jwksUri;
+        this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(refreshMillis);
+        this.minRefreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minRefreshIntervalMillis);
+        this.fetchTimeout = Duration.ofMillis(fetchTimeoutMillis);
+        this.lastAttempt = System.nanoTime() - minRefreshIntervalNanos;
+    }
+
+    /** The verification key with this id, or empty if auth-service does not publish one. */
+    public Mono<PublicKey> key(String keyId) {
+        PublicKey key = keys.get(keyId);
+        if (key != null) {
+            if (System.nanoTime() - fetchedAt > refreshNanos) {
+                refresh().subscribe();
+            }
+            return Mono.just(key);
+        }
+        if (System.nanoTime() - lastAttempt < minRefreshIntervalNanos) {
+            return Mono.empty();
+        }
+        return refresh().mapNotNull(refreshed -> refreshed.get(keyId));
+    }
+
+    private synchronized Mono<Map<String, PublicKey>> refresh() {
+        if (inFlight != null) {
+            return inFlight;
+        }
+        lastAttempt = System.nanoTime();
+        inFlight = webClient.get().uri(jwksUri)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(fetchTimeout)
+                .map(JwksKeyCache::parse)
+                .doOnNext(fetched -> {
+                    keys = fetched;
+                    fetchedAt = System.nanoTime();
+                    log.debug("Loaded {} signing keys from {}", fetched.size(), jwksUri);
+                })
+                .onErrorResume(e -> {
+                    log.warn("Could not fetch signing keys from {}: {}", jwksUri, e.getMessage());
+                    return Mono.just(keys);
+                })
+                .doFinally(signal -> clearInFlight())
+                .cache();
+        return inFlight;
+    }
+
+    private synchronized void clearInFlight() {
+        inFlight = null;
+    }
+
+    static Map<String, PublicKey> parse(String jwks) {
+        Map<String, PublicKey> parsed = new HashMap<>();
+        for (JsonNode jwk : JsonMapper.shared().readTree(jwks).path("keys")) {
+            if (!"RSA".equals(jwk.path("kty").asString()) || jwk.path("kid").isMissingNode()) {
+                continue;
+            }
+            try {
+                Base64.Decoder decoder = Base64.getUrlDecoder();
+                RSAPublicKeySpec spec = new RSAPublicKeySpec(
+                        new BigInteger(1, decoder.decode(jwk.path("n").asString())),
+                        new BigInteger(1, decoder.decode(jwk.path("e").asString())));
+                parsed.put(jwk.path("kid").asString(), KeyFactory.getInstance("RSA").generatePublic(spec));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                log.warn("Skipping unusable signing key {}: {}", jwk.path("kid").asString(), e.getMessage());
+            }
+        }
+        return Map.copyOf(parsed);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.api_gateway.auth;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Verifies auth-service's RS256 access tokens locally against {@link JwksKeyCache}. Verified
+ * tokens are remembered in a bounded cache until they expire (or {@code gateway.auth.token-cache.ttl-ms},
+ * whichever comes first), so a client reusing its token pays for the RSA signature check once
+ * rather than on every request. Rejected tokens are not remembered.
+ */
+@Component
+public class TokenVerifier {
+
+    private final JwksKeyCache keys;
+    private final String issuer;
+    private final long clockSkewSeconds;
+    private final Cache<String, VerifiedToken> verified;
+    // Parsers are immutable and costly to build; one per key id, and only the last few keys are still in use
+    private final Cache<String, JwtParser> parsers = Caffeine.newBuilder().maximumSize(16).build();
+    private final Counter cacheHits;
+    private final Counter verifications;
+    private final Counter rejections;
+
+    public TokenVerifier(JwksKeyCache keys,
+                         MeterRegistry meterRegistry,
+                         @Value("${gateway.auth.issuer:auth-service}") String issuer,
+                         @Value("${gateway.auth.clock-skew-seconds:30}") long clockSkewSeconds,
+                         @Value("${gateway.auth.token-cache.max-entries:10000}") long maxEntries,
+                         @Value("${gateway.auth.token-cache.ttl-ms:300000}") long ttlMillis) {
+        this.keys = keys;
+        this.issuer = issuer;
+        this.clockSkewSeconds = clockSkewSeconds;
+        long maxTtlNanos = Duration.ofMillis(ttlMillis).toNanos();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(Expiry.<String, VerifiedToken>creating((token, result) ->
+                        Duration.ofNanos(Math.clamp(Duration.between(Instant.now(), result.expiresAt()).toNanos(), 0, maxTtlNanos))))
+                .build();
+        this.cacheHits = counter(meterRegistry, "cached");
+        this.verifications = counter(meterRegistry, "verified");
+        this.rejections = counter(meterRegistry, "rejected");
+    }
+
+    /** The token's subject and role, or empty if it is malformed, forged, expired or not auth-service's. */
+    public Mono<VerifiedToken> verify(String token) {
+        VerifiedToken cached = verified.getIfPresent(token);
+        if (cached != null) {
+            cacheHits.increment();
+            return Mono.just(cached);
+        }
+        String keyId = keyId(token);
+        if (keyId == null) {
+            rejections.increment();
+            return Mono.empty();
+        }
+        return keys.key(keyId)
+                .mapNotNull(key -> verify(token, keyId, key))
+                .doOnNext(result -> {
+                    verifications.increment();
+                    verified.put(token, result);
+                })
+                .switchIfEmpty(Mono.fromRunnable(rejections::increment));
+    }
+
+    private VerifiedToken verify(String token, String keyId, PublicKey key) {
+        try {
+            Claims claims = parsers.get(keyId, kid -> parser(key)).parseSignedClaims(token).getPayload();
+            if (claims.getSubject() == null || claims.getExpiration() == null) {
+                return null;
+            }
+            return new VerifiedToken(claims.getSubject(), claims.get("role", String.class), claims.getExpiration().toInstant());
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private JwtParser parser(PublicKey key) {
+        return Jwts.parser()
+                .verifyWith(key)
+                .requireIssuer(issuer)
+                .clockSkewSeconds(clockSkewSeconds)
+                .build();
+    }
+
+    // Reads the kid from the (still unverified) header to pick the key; the signature check that follows covers the header
+    private static String keyId(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        try {
+            String kid = JsonMapper.shared().readTree(Base64.getUrlDecoder().decode(token.substring(0, dot))).path("kid").asString();
+            return kid == null || kid.isEmpty() ? null : kid;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("gateway.auth.tokens").tag("outcome", outcome).register(meterRegistry);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.api_gateway.auth;
+
+import java.time.Instant;
+
+/** What the gateway keeps of a token whose signature, issuer and expiry have been checked. */
+public record VerifiedToken(String subject, String role, Instant expiresAt) {
+}
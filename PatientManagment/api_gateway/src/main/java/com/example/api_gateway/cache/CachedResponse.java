@@ -0,0 +1,11 @@
+package com.example.api_gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * A fully buffered upstream response, shared by coalesced requests and kept by
+ * {@link PatientResponseCache}. {@code headers} is read-only.
+ */
+public record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, String etag) {
+}
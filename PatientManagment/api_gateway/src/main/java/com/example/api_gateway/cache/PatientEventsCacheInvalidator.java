@@ -0,0 +1,32 @@
+package com.example.api_gateway.cache;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PatientEventsCacheInvalidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatientEventsCacheInvalidator.class);
+
+    private final PatientResponseCache cache;
+
+    public PatientEventsCacheInvalidator(PatientResponseCache cache) {
+        this.cache = cache;
+    }
+
+    // Same scheme as patient-service's own cache: one group per gateway replica, keyed by patient id
+    @KafkaListener(topics = "patient-events",
+            groupId = "api-gateway-cache-${random.uuid}",
+            properties = "auto.offset.reset=latest")
+    public void consumePatientEvent(ConsumerRecord<String, byte[]> record) {
+        if (record.key() == null) {
+            cache.invalidateCollections();
+            return;
+        }
+        cache.invalidatePatient(record.key());
+        logger.debug("Evicted patient {} from gateway cache", record.key());
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.api_gateway.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Short-lived cache of GET /patients/** responses plus the registry of in-flight upstream
+ * calls used to coalesce identical concurrent GETs. Single-patient responses are keyed by
+ * patient id so a patient-event evicts exactly one entry; every other response (pages,
+ * searches) is dropped on any patient change, since any change can alter them.
+ */
+@Component
+public class PatientResponseCache {
+
+    private static final Pattern PATIENT_PATH = Pattern.compile("^/patients/patient/(\\d+)$");
+
+    private final Cache<String, CachedResponse> patients;
+    private final Cache<String, CachedResponse> collections;
+    private final Map<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so a response fetched before a change is never cached after it
+    private final AtomicLong generation = new AtomicLong();
+
+    public PatientResponseCache(@Value("${gateway.patient-cache.ttl-ms:5000}") long ttlMillis,
+                                @Value("${gateway.patient-cache.max-entries:10000}") long maxEntries) {
+        this.patients = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .build();
+        this.collections = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .build();
+    }
+
+    /** Cache key for a request, e.g. {@code /patients/patient/42} or {@code /patients/patient/search?priority=1}. */
+    public static String key(String path, String query) {
+        return query == null || query.isEmpty() ? path : path + "?" + query;
+    }
+
+    public CachedResponse get(String key) {
+        String patientId = patientId(key);
+        return patientId != null ? patients.getIfPresent(patientId) : collections.getIfPresent(key);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /** Caches the response unless an invalidation happened since {@code fetchedAt} was read. */
+    public void put(String key, CachedResponse response, long fetchedAt) {
+        if (generation.get() != fetchedAt) {
+            return;
+        }
+        String patientId = patientId(key);
+        if (patientId != null) {
+            patients.put(patientId, response);
+        } else {
+            collections.put(key, response);
+        }
+    }
+
+    public void invalidatePatient(String patientId) {
+        patients.invalidate(patientId);
+        invalidateCollections();
+    }
+
+    /** Drops pages and searches only, e.g. after a create, which has no single-patient entry yet. */
+    public void invalidateCollections() {
+        generation.incrementAndGet();
+        collections.invalidateAll();
+        // Requests arriving from now on start a fresh upstream call instead of joining one that may predate the change
+        inFlight.clear();
+    }
+
+    /**
+     * Returns the in-flight call for {@code key} if there is one, otherwise registers
+     * {@code leader} as the in-flight call and returns null; the caller then performs the
+     * upstream call and must {@link #complete} it.
+     */
+    public Mono<CachedResponse> join(String key, Sinks.One<CachedResponse> leader) {
+        Sinks.One<CachedResponse> existing = inFlight.putIfAbsent(key, leader);
+        return existing == null ? null : existing.asMono();
+    }
+
+    // An empty completion tells waiting requests to go upstream themselves (the response was not shareable).
+    public void complete(String key, Sinks.One<CachedResponse> leader, CachedResponse response) {
+        inFlight.remove(key, leader);
+        if (response != null) {
+            leader.tryEmitValue(response);
+        } else {
+            leader.tryEmitEmpty();
+        }
+    }
+
+    /** The patient id addressed by a single-patient path or key, otherwise null. */
+    public static String patientId(String key) {
+        Matcher matcher = PATIENT_PATH.matcher(key);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+}
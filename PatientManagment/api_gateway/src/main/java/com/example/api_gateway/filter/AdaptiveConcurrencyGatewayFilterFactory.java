@@ -0,0 +1,204 @@
+package com.example.api_gateway.filter;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.example.api_gateway.auth.VerifiedToken;
+import com.example.api_gateway.ratelimit.AdaptiveConcurrencyLimiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Caps the requests a route has in flight upstream with an {@link AdaptiveConcurrencyLimiter}
+ * ({@code - AdaptiveConcurrency} in a route's filters). Requests carry their clinical priority in
+ * {@code X-Patient-Priority} (1-3, 1 = highest) and are shed lowest-priority first with 503 and
+ * Retry-After once the route saturates. The header is only honoured for callers whose verified
+ * token has one of {@code gateway.load-shedding.trusted-roles}; for anyone else, and when it is
+ * missing or invalid, the request counts as the configured default.
+ */
+@Component
+public class AdaptiveConcurrencyGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveConcurrencyGatewayFilterFactory.Config> {
+
+    public static final String PRIORITY_HEADER = "X-Patient-Priority";
+
+    private final MeterRegistry meterRegistry;
+    private final int defaultPriority;
+    private final double[] priorityShares;
+    private final Set<String> trustedRoles;
+    // Kept across route refreshes so a reload does not reset what the limiter has learned
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyGatewayFilterFactory(MeterRegistry meterRegistry,
+                                                   @Value("${gateway.load-shedding.default-priority:3}") int defaultPriority,
+                                                   @Value("${gateway.load-shedding.priority-shares:1.0,0.8,0.5}") double[] priorityShares,
+                                                   @Value("${gateway.load-shedding.trusted-roles:ADMIN}") String[] trustedRoles) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.defaultPriority = defaultPriority;
+        this.priorityShares = priorityShares;
+        this.trustedRoles = Set.of(trustedRoles);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(config.getRouteId(), routeId -> register(routeId,
+                new AdaptiveConcurrencyLimiter(config.getInitialLimit(), config.getMinLimit(), config.getMaxLimit(),
+                        config.getTolerance(), config.getBackoffRatio(), config.getLatencyWindow(), priorityShares)));
+
+        return (exchange, chain) -> {
+            int priority = priority(exchange);
+            if (!limiter.tryAcquire(priority)) {
+                counter(config.getRouteId(), priority, "rejected").increment();
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                return response.setComplete();
+            }
+            counter(config.getRouteId(), priority, "admitted").increment();
+
+            // Latency is time to the response headers: a stream or an export holds its slot until it
+            // ends, but how long its body takes says nothing about how loaded upstream is
+            long start = System.nanoTime();
+            AtomicLong committedAt = new AtomicLong();
+            exchange.getResponse().beforeCommit(() -> {
+                committedAt.compareAndSet(0, System.nanoTime());
+                return Mono.empty();
+            });
+            return chain.filter(exchange).doFinally(signal -> {
+                long answeredAt = committedAt.get();
+                if (signal == SignalType.CANCEL && answeredAt == 0) {
+                    // The client gave up before upstream answered; that is not an upstream failure
+                    limiter.release();
+                    return;
+                }
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                boolean failed = signal == SignalType.ON_ERROR
+                        || (status != null && status.is5xxServerError());
+                limiter.release((answeredAt == 0 ? System.nanoTime() : answeredAt) - start, failed);
+            });
+        };
+    }
+
+    private int priority(ServerWebExchange exchange) {
+        // Set by JwtAuthentication, which runs first; the header alone is whatever the client chose
+        VerifiedToken token = exchange.getAttribute(JwtAuthenticationGatewayFilterFactory.VERIFIED_TOKEN_ATTRIBUTE);
+        if (token == null || token.role() == null || !trustedRoles.contains(token.role())) {
+            return defaultPriority;
+        }
+        String header = exchange.getRequest().getHeaders().getFirst(PRIORITY_HEADER);
+        if (header != null) {
+            try {
+                int priority = Integer.parseInt(header.trim());
+                if (priority >= 1 && priority <= priorityShares.length) {
+                    return priority;
+                }
+            } catch (NumberFormatException e) {
+                // fall through to the default
+            }
+        }
+        return defaultPriority;
+    }
+
+    private AdaptiveConcurrencyLimiter register(String routeId, AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("route", routeId).register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("route", routeId).register(meterRegistry);
+        return limiter;
+    }
+
+    private Counter counter(String routeId, int priority, String outcome) {
+        return Counter.builder("gateway.concurrency.requests")
+                .tag("route", routeId)
+                .tag("priority", String.valueOf(priority))
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+        private double tolerance = 2.0;
+        private double backoffRatio = 0.9;
+        private int latencyWindow = 500;
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getTolerance() {
+            return tolerance;
+        }
+
+        public void setTolerance(double tolerance) {
+            this.tolerance = tolerance;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+
+        public int getLatencyWindow() {
+            return latencyWindow;
+        }
+
+        public void setLatencyWindow(int latencyWindow) {
+            this.latencyWindow = latencyWindow;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.api_gateway.filter;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+
+import com.example.api_gateway.grpc.GrpcChannelPool;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.util.JsonFormat;
+
+import billing.BillingServiceGrpc;
+import io.grpc.CallOptions;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCalls;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Serves a route by calling one unary BillingService method over gRPC with the JSON request body
+ * ({@code - BillingGrpcTranscoding=CreateBillingAccount}). The route's uri names the gRPC server
+ * ({@code grpc://billing-service:9001}); the request is never proxied as HTTP. gRPC failures map
+ * onto the HTTP status a REST client expects, with the same {@code {"message": ...}} body the
+ * services return.
+ */
+@Component
+public class BillingGrpcTranscodingGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<BillingGrpcTranscodingGatewayFilterFactory.Config> {
+
+    private static final JsonFormat.Parser JSON_PARSER = JsonFormat.parser().ignoringUnknownFields();
+    private static final JsonFormat.Printer JSON_PRINTER = JsonFormat.printer().omittingInsignificantWhitespace();
+    private static final ContextSnapshotFactory CONTEXT_SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
+    private final GrpcChannelPool channelPool;
+    private final long deadlineMillis;
+
+    public BillingGrpcTranscodingGatewayFilterFactory(GrpcChannelPool channelPool,
+                                                      @Value("${gateway.grpc.deadline-ms:2000}") long deadlineMillis) {
+        super(Config.class);
+        this.channelPool = channelPool;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("method");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public GatewayFilter apply(Config config) {
+        MethodDescriptor<Message, Message> method = (MethodDescriptor<Message, Message>) BillingServiceGrpc.getServiceDescriptor()
+                .getMethods().stream()
+                .filter(candidate -> config.getMethod().equals(candidate.getBareMethodName()))
+                .filter(candidate -> candidate.getType() == MethodDescriptor.MethodType.UNARY)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No unary BillingService method " + config.getMethod()));
+        Message prototype = (Message) ((MethodDescriptor.PrototypeMarshaller<?>) method.getRequestMarshaller())
+                .getMessagePrototype();
+
+        return (exchange, chain) -> {
+            Route route = exchange.getRequiredAttribute(GATEWAY_ROUTE_ATTR);
+            return DataBufferUtils.join(exchange.getRequest().getBody())
+                    .map(buffer -> {
+                        String json = buffer.toString(StandardCharsets.UTF_8);
+                        DataBufferUtils.release(buffer);
+                        return json;
+                    })
+                    .defaultIfEmpty("{}")
+                    .flatMap(json -> {
+                        Message.Builder request = prototype.newBuilderForType();
+                        try {
+                            JSON_PARSER.merge(json, request);
+                        } catch (InvalidProtocolBufferException e) {
+                            return write(exchange.getResponse(), HttpStatus.BAD_REQUEST, message("Invalid request body"));
+                        }
+                        return call(method, route, request.build())
+                                .flatMap(response -> write(exchange.getResponse(), HttpStatus.OK, print(response)))
+                                .onErrorResume(StatusRuntimeException.class, e -> write(exchange.getResponse(),
+                                        httpStatus(e.getStatus()), message(describe(e.getStatus()))));
+                    });
+        };
+    }
+
+    private Mono<Message> call(MethodDescriptor<Message, Message> method, Route route, Message request) {
+        return Mono.create(sink -> {
+            ListenableFuture<Message> future;
+            // The channel's observation interceptor looks for the request's trace in thread locals
+            try (ContextSnapshot.Scope scope = CONTEXT_SNAPSHOTS.setThreadLocalsFrom(sink.contextView())) {
+                future = ClientCalls.futureUnaryCall(
+                        channelPool.channel(route.getUri(), method.getServiceName())
+                                .newCall(method, CallOptions.DEFAULT.withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS)),
+                        request);
+            }
+            sink.onCancel(() -> future.cancel(true));
+            Futures.addCallback(future, new FutureCallback<>() {
+                @Override
+                public void onSuccess(Message response) {
+                    sink.success(response);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    sink.error(Status.fromThrowable(t).asRuntimeException());
+                }
+            }, MoreExecutors.directExecutor());
+        });
+    }
+
+    static HttpStatus httpStatus(Status status) {
+        return switch (status.getCode()) {
+            case OK -> HttpStatus.OK;
+            case INVALID_ARGUMENT, FAILED_PRECONDITION, OUT_OF_RANGE -> HttpStatus.BAD_REQUEST;
+            case UNAUTHENTICATED -> HttpStatus.UNAUTHORIZED;
+            case PERMISSION_DENIED -> HttpStatus.FORBIDDEN;
+            case NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case ALREADY_EXISTS, ABORTED -> HttpStatus.CONFLICT;
+            case RESOURCE_EXHAUSTED -> HttpStatus.TOO_MANY_REQUESTS;
+            case UNIMPLEMENTED -> HttpStatus.NOT_IMPLEMENTED;
+            case UNAVAILABLE -> HttpStatus.SERVICE_UNAVAILABLE;
+            case DEADLINE_EXCEEDED -> HttpStatus.GATEWAY_TIMEOUT;
+            default -> HttpStatus.BAD_GATEWAY;
+        };
+    }
+
+    private static String describe(Status status) {
+        return status.getDescription() != null ? status.getDescription() : "Billing service returned " + status.getCode();
+    }
+
+    private static String print(Message message) {
+        try {
+            return JSON_PRINTER.print(message);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String message(String text) {
+        return JsonMapper.shared().writeValueAsString(Map.of("message", text));
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, HttpStatus status, String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(bytes.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+    }
+
+    public static class Config {
+
+        private String method;
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+    }
+}
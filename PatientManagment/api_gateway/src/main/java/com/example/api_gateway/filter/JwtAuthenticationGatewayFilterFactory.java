@@ -0,0 +1,86 @@
+package com.example.api_gateway.filter;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.example.api_gateway.auth.TokenVerifier;
+import com.example.api_gateway.auth.VerifiedToken;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Requires a valid auth-service access token ({@code Authorization: Bearer ...}) on a route
+ * ({@code - JwtAuthentication} in a route's filters); anything else gets 401 with a
+ * WWW-Authenticate challenge. Tokens are verified locally by {@link TokenVerifier}, so the
+ * request path never calls auth-service. Upstream receives the caller as {@code X-User-Id} and
+ * {@code X-User-Role}; client-supplied values of those headers are dropped. Later filters find the
+ * token under {@link #VERIFIED_TOKEN_ATTRIBUTE}. {@code gateway.auth.enabled=false} turns the check off.
+ */
+@Component
+public class JwtAuthenticationGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_ROLE_HEADER = "X-User-Role";
+    public static final String VERIFIED_TOKEN_ATTRIBUTE = JwtAuthenticationGatewayFilterFactory.class.getName() + ".verifiedToken";
+
+    // Ahead of PatientReadCache, so a cached response is never served to an unauthenticated request
+    private static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+    private static final String BEARER = "Bearer ";
+
+    private final TokenVerifier verifier;
+    private final boolean enabled;
+
+    public JwtAuthenticationGatewayFilterFactory(TokenVerifier verifier,
+                                                 @Value("${gateway.auth.enabled:true}") boolean enabled) {
+        this.verifier = verifier;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (!enabled) {
+                return chain.filter(exchange);
+            }
+            String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+                return unauthorized(exchange, "Bearer");
+            }
+            return verifier.verify(authorization.substring(BEARER.length()).trim())
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(token -> token.isPresent()
+                            ? chain.filter(withUser(exchange, token.get()))
+                            : unauthorized(exchange, "Bearer error=\"invalid_token\""));
+        }, ORDER);
+    }
+
+    private static ServerWebExchange withUser(ServerWebExchange exchange, VerifiedToken token) {
+        exchange.getAttributes().put(VERIFIED_TOKEN_ATTRIBUTE, token);
+        return exchange.mutate().request(request -> request.headers(headers -> {
+            headers.set(USER_ID_HEADER, token.subject());
+            if (token.role() != null) {
+                headers.set(USER_ROLE_HEADER, token.role());
+            } else {
+                headers.remove(USER_ROLE_HEADER);
+            }
+        })).build();
+    }
+
+    private static Mono<Void> unauthorized(ServerWebExchange exchange, String challenge) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, challenge);
+        return response.setComplete();
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.api_gateway.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.example.api_gateway.cache.CachedResponse;
+import com.example.api_gateway.cache.PatientResponseCache;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Read cache for the patient routes ({@code - PatientReadCache} in a route's filters).
+ * <ul>
+ * <li>A GET answered from {@link PatientResponseCache} never reaches upstream ({@code X-Cache: HIT}).</li>
+ * <li>Identical GETs that arrive while one is already upstream wait for it and share its
+ * response ({@code X-Cache: COALESCED}) instead of making their own call.</li>
+ * <li>Every shared response carries an ETag; a matching If-None-Match gets a bodiless 304.</li>
+ * </ul>
+ * Only 200 JSON responses up to {@code gateway.patient-cache.max-body-bytes} are buffered and
+ * shared; anything else (NDJSON streams, errors, large pages) is passed through untouched and
+ * waiting requests go upstream themselves. A chunked page has no length up front, so it is
+ * buffered until it turns out to be too large and then streamed on from there. Writes through the gateway evict the patient at once;
+ * other replicas' writes arrive via patient-events.
+ */
+@Component
+public class PatientReadCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    // Must wrap the response before NettyWriteResponseFilter writes the upstream body into it
+    private static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    private static final List<String> HOP_BY_HOP_HEADERS = List.of(
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, "Keep-Alive");
+
+    private final PatientResponseCache cache;
+    private final int maxBodyBytes;
+
+    public PatientReadCacheGatewayFilterFactory(PatientResponseCache cache,
+                                                @Value("${gateway.patient-cache.max-body-bytes:1048576}") int maxBodyBytes) {
+        this.cache = cache;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                // Upstream has applied the write by the time its response commits; evicting there
+                // means the client's next read cannot be served the old version
+                exchange.getResponse().beforeCommit(() -> Mono.fromRunnable(() -> evictWrittenPatient(request)));
+                return chain.filter(exchange);
+            }
+
+            String key = PatientResponseCache.key(request.getURI().getRawPath(), request.getURI().getRawQuery());
+            CachedResponse cached = cache.get(key);
+            if (cached != null) {
+                return write(exchange, cached, "HIT");
+            }
+
+            Sinks.One<CachedResponse> leader = Sinks.one();
+            Mono<CachedResponse> inFlight = cache.join(key, leader);
+            if (inFlight != null) {
+                return inFlight
+                        .flatMap(shared -> write(exchange, shared, "COALESCED"))
+                        .switchIfEmpty(Mono.defer(() -> chain.filter(exchange)));
+            }
+
+            long generation = cache.generation();
+            ServerHttpResponse capturing = new ServerHttpResponseDecorator(exchange.getResponse()) {
+                @Override
+                public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                    if (!isShareable(this)) {
+                        cache.complete(key, leader, null);
+                        return super.writeWith(body);
+                    }
+                    // Held until upstream finishes; a chunked body that outgrows the limit is streamed on instead
+                    HeldBody held = new HeldBody();
+                    Flux<DataBuffer> shared = Flux.<DataBuffer>from(body)
+                            .concatMap(buffer -> {
+                                if (held.overflowed) {
+                                    return Mono.just(buffer);
+                                }
+                                held.add(buffer);
+                                if (held.size <= maxBodyBytes) {
+                                    return Mono.empty();
+                                }
+                                held.overflowed = true;
+                                cache.complete(key, leader, null);
+                                return Flux.fromIterable(held.drain());
+                            })
+                            .concatWith(Mono.defer(() -> held.overflowed ? Mono.empty() : share(held.bytes())))
+                            // Cancelled or failed while holding: nothing downstream will release these
+                            .doFinally(signal -> held.drain().forEach(DataBufferUtils::release));
+                    return super.writeWith(shared);
+                }
+
+                // Headers are only sent with the first buffer written, so they can still change here
+                private Mono<DataBuffer> share(byte[] bytes) {
+                    CachedResponse response = toCachedResponse(this, bytes);
+                    cache.put(key, response, generation);
+                    cache.complete(key, leader, response);
+                    getHeaders().setETag(response.etag());
+                    getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+                    if (notModified(request, response.etag())) {
+                        setStatusCode(HttpStatus.NOT_MODIFIED);
+                        getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                        return Mono.empty();
+                    }
+                    return Mono.just(bufferFactory().wrap(bytes));
+                }
+            };
+
+            return chain.filter(exchange.mutate().response(capturing).build())
+                    // Upstream errors and bodiless responses never reach writeWith; release the waiters
+                    .doFinally(signal -> cache.complete(key, leader, null));
+        }, ORDER);
+    }
+
+    private boolean isShareable(ServerHttpResponse response) {
+        MediaType contentType = response.getHeaders().getContentType();
+        long contentLength = response.getHeaders().getContentLength();
+        return HttpStatus.OK.equals(response.getStatusCode())
+                && contentType != null
+                && MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                && contentLength <= maxBodyBytes;
+    }
+
+    // Only touched from the body's own signals, which never overlap
+    private static final class HeldBody {
+
+        private List<DataBuffer> buffers = new ArrayList<>();
+        private long size;
+        private boolean overflowed;
+
+        void add(DataBuffer buffer) {
+            buffers.add(buffer);
+            size += buffer.readableByteCount();
+        }
+
+        List<DataBuffer> drain() {
+            List<DataBuffer> drained = buffers;
+            buffers = new ArrayList<>();
+            return drained;
+        }
+
+        byte[] bytes() {
+            byte[] bytes = new byte[(int) size];
+            int offset = 0;
+            for (DataBuffer buffer : drain()) {
+                int length = buffer.readableByteCount();
+                buffer.read(bytes, offset, length);
+                offset += length;
+                DataBufferUtils.release(buffer);
+            }
+            return bytes;
+        }
+    }
+
+    private static CachedResponse toCachedResponse(ServerHttpResponse response, byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        HOP_BY_HOP_HEADERS.forEach(headers::remove);
+        headers.remove(CACHE_STATUS_HEADER);
+        String etag = headers.getETag();
+        if (etag == null) {
+            etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        }
+        headers.setContentLength(body.length);
+        return new CachedResponse(response.getStatusCode(), HttpHeaders.readOnlyHttpHeaders(headers), body, etag);
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, CachedResponse cached, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().setETag(cached.etag());
+        response.getHeaders().set(CACHE_STATUS_HEADER, cacheStatus);
+        if (notModified(exchange.getRequest(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.status());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static boolean notModified(ServerHttpRequest request, String etag) {
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+        return ifNoneMatch.contains(etag) || ifNoneMatch.contains("*");
+    }
+
+    private void evictWrittenPatient(ServerHttpRequest request) {
+        String patientId = PatientResponseCache.patientId(request.getURI().getRawPath());
+        if (patientId != null) {
+            cache.invalidatePatient(patientId);
+        } else {
+            cache.invalidateCollections();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.api_gateway.filter;
+
+import java.util.List;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Drops identity headers a client sent itself on every route, before any other filter sees them.
+ * Only {@link JwtAuthenticationGatewayFilterFactory} may tell upstream, the rate limiter or the
+ * load shedder who is calling; on routes without it, and with {@code gateway.auth.enabled=false},
+ * the caller is anonymous.
+ */
+@Component
+public class StripClientIdentityGlobalFilter implements GlobalFilter, Ordered {
+
+    private static final List<String> IDENTITY_HEADERS = List.of(
+            JwtAuthenticationGatewayFilterFactory.USER_ID_HEADER,
+            JwtAuthenticationGatewayFilterFactory.USER_ROLE_HEADER);
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (IDENTITY_HEADERS.stream().noneMatch(exchange.getRequest().getHeaders()::containsHeader)) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange.mutate()
+                .request(request -> request.headers(headers -> IDENTITY_HEADERS.forEach(headers::remove)))
+                .build());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
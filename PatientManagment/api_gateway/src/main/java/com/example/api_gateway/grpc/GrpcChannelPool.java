@@ -0,0 +1,115 @@
+package com.example.api_gateway.grpc;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.micrometer.core.instrument.binder.grpc.ObservationGrpcClientInterceptor;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Long-lived plaintext HTTP/2 channels to gRPC upstreams, {@code channels} per target used round
+ * robin, so transcoded routes multiplex onto a few warm connections instead of dialling per
+ * request. Each channel retries UNAVAILABLE calls for the given service, within gRPC's retry
+ * throttling budget: retries stop once failures exceed what the successes have earned back.
+ * Calls are observed as {@code grpc.client} and carry the caller's traceparent as metadata.
+ */
+@Component
+public class GrpcChannelPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcChannelPool.class);
+
+    private final int channelsPerTarget;
+    private final long keepAliveMillis;
+    private final long idleTimeoutMillis;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final double retryBudgetTokens;
+    private final double retryBudgetTokenRatio;
+    private final ObservationRegistry observationRegistry;
+
+    private final Map<String, List<ManagedChannel>> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public GrpcChannelPool(@Value("${gateway.grpc.channels-per-target:2}") int channelsPerTarget,
+                           @Value("${gateway.grpc.keep-alive-ms:30000}") long keepAliveMillis,
+                           @Value("${gateway.grpc.idle-timeout-ms:300000}") long idleTimeoutMillis,
+                           @Value("${gateway.grpc.retry.max-attempts:3}") int maxAttempts,
+                           @Value("${gateway.grpc.retry.initial-backoff-ms:50}") long initialBackoffMillis,
+                           @Value("${gateway.grpc.retry.budget-tokens:10}") double retryBudgetTokens,
+                           @Value("${gateway.grpc.retry.budget-token-ratio:0.1}") double retryBudgetTokenRatio,
+                           ObservationRegistry observationRegistry) {
+        this.channelsPerTarget = channelsPerTarget;
+        this.keepAliveMillis = keepAliveMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.retryBudgetTokens = retryBudgetTokens;
+        this.retryBudgetTokenRatio = retryBudgetTokenRatio;
+        this.observationRegistry = observationRegistry;
+    }
+
+    /** A channel to {@code target}'s host and port whose calls to {@code serviceName} are retried. */
+    public ManagedChannel channel(URI target, String serviceName) {
+        String key = target.getHost() + ":" + target.getPort() + "/" + serviceName;
+        List<ManagedChannel> pool = channels.computeIfAbsent(key, k -> IntStream.range(0, channelsPerTarget)
+                .mapToObj(i -> build(target, serviceName))
+                .toList());
+        return pool.get(Math.floorMod(next.getAndIncrement(), pool.size()));
+    }
+
+    private ManagedChannel build(URI target, String serviceName) {
+        logger.info("Opening gRPC channel to {}:{}", target.getHost(), target.getPort());
+        return NettyChannelBuilder.forAddress(target.getHost(), target.getPort())
+                .usePlaintext()
+                .keepAliveTime(keepAliveMillis, TimeUnit.MILLISECONDS)
+                .idleTimeout(idleTimeoutMillis, TimeUnit.MILLISECONDS)
+                .defaultServiceConfig(serviceConfig(serviceName))
+                .enableRetry()
+                .intercept(new ObservationGrpcClientInterceptor(observationRegistry))
+                .build();
+    }
+
+    // gRPC service config wants JSON-style values: numbers as Double, durations as "0.05s"
+    private Map<String, Object> serviceConfig(String serviceName) {
+        Map<String, Object> retryPolicy = Map.of(
+                "maxAttempts", (double) maxAttempts,
+                "initialBackoff", initialBackoffMillis / 1000d + "s",
+                "maxBackoff", initialBackoffMillis * 10 / 1000d + "s",
+                "backoffMultiplier", 2.0,
+                "retryableStatusCodes", List.of("UNAVAILABLE"));
+        return Map.of(
+                "methodConfig", List.of(Map.of(
+                        "name", List.of(Map.of("service", serviceName)),
+                        "retryPolicy", retryPolicy)),
+                "retryThrottling", Map.of(
+                        "maxTokens", retryBudgetTokens,
+                        "tokenRatio", retryBudgetTokenRatio));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (List<ManagedChannel> pool : channels.values()) {
+            pool.forEach(ManagedChannel::shutdown);
+        }
+        for (List<ManagedChannel> pool : channels.values()) {
+            for (ManagedChannel channel : pool) {
+                if (!channel.awaitTermination(5, TimeUnit.SECONDS)) {
+                    channel.shutdownNow();
+                }
+            }
+        }
+    }
+}
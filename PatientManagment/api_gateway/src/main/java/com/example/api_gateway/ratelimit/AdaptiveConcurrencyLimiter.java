@@ -0,0 +1,93 @@
+package com.example.api_gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit for one route that follows upstream latency (AIMD). A response within
+ * {@code tolerance} times the route's usual latency while the limit was actually in use raises the
+ * limit by one; a slower response, a 5xx or a failure cuts it by {@code backoffRatio}. The usual
+ * latency is a moving average over roughly the last {@code latencyWindow} successful responses;
+ * a minimum would be simpler but on a fast upstream ordinary jitter is already several times it.
+ * A sample enters the average at no more than {@code tolerance} times it, so one very slow
+ * response backs off once without raising the bar every later response is judged against.
+ * <p>
+ * Priorities share the limit unevenly: priority {@code p} is admitted only while fewer than
+ * {@code limit * shares[p - 1]} requests are in flight, so as the route saturates priority 3 is
+ * refused first and priority 1 last.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final double smoothing;
+    private final double[] shares;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private double limit;
+    private double baselineRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                      double backoffRatio, int latencyWindow, double[] shares) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.smoothing = 2.0 / (latencyWindow + 1);
+        this.shares = shares.clone();
+    }
+
+    /** Reserves a slot for a request of the given priority (1 = highest), or returns false to shed it. */
+    public boolean tryAcquire(int priority) {
+        int allowed = Math.max(1, (int) (getLimit() * share(priority)));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** Releases a slot taken by {@link #tryAcquire} and feeds the outcome into the limit. */
+    public void release(long rttNanos, boolean failed) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        synchronized (this) {
+            boolean slow = baselineRttNanos > 0 && rttNanos > baselineRttNanos * tolerance;
+            if (!failed && baselineRttNanos == 0) {
+                baselineRttNanos = rttNanos;
+            } else if (!failed) {
+                double sample = Math.min(rttNanos, baselineRttNanos * tolerance);
+                baselineRttNanos += smoothing * (sample - baselineRttNanos);
+            }
+            if (failed || slow) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (inFlightBefore * 2 >= limit) {
+                // Only grow while the limit is the constraint; an idle route says nothing about capacity
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+
+    /** Releases a slot without a sample, for a request that ended before upstream answered (e.g. the client went away). */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public synchronized double getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private double share(int priority) {
+        int index = Math.min(Math.max(priority, 1), shares.length) - 1;
+        return shares[index];
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.api_gateway.ratelimit;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-memory replacement for RedisRateLimiter, used through the standard RequestRateLimiter filter
+ * with {@code rate-limiter: "#{@localRateLimiter}"}. Each request must take a token from its
+ * client's bucket and, when {@code routeReplenishRate} is set, from the route's shared bucket.
+ * Limits are per gateway replica; there is no coordination between replicas.
+ */
+@Component
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+
+    private static final String ROUTE_BUCKET = "";
+
+    // Idle clients' buckets are refilled anyway, so dropping them loses nothing
+    private final Cache<String, TokenBucket> buckets = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public LocalRateLimiter(ConfigurationService configurationService, MeterRegistry meterRegistry) {
+        this(configurationService, meterRegistry, System::nanoTime);
+    }
+
+    LocalRateLimiter(ConfigurationService configurationService, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, Config.DEFAULT);
+
+        TokenBucket client = buckets.get(routeId + "|" + id,
+                key -> new TokenBucket(config.getBurstCapacity(), config.getReplenishRate(), nanoClock));
+        boolean allowed = client.tryConsume(config.getRequestedTokens());
+        if (allowed && config.getRouteReplenishRate() > 0) {
+            TokenBucket route = buckets.get(routeId + "|" + ROUTE_BUCKET,
+                    key -> new TokenBucket(config.getRouteBurstCapacity(), config.getRouteReplenishRate(), nanoClock));
+            if (!route.tryConsume(config.getRequestedTokens())) {
+                client.refund(config.getRequestedTokens());
+                allowed = false;
+            }
+        }
+
+        counter(routeId, allowed).increment();
+        return Mono.just(new Response(allowed, Map.of(
+                REMAINING_HEADER, String.valueOf(client.available()),
+                REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()),
+                BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()))));
+    }
+
+    private Counter counter(String routeId, boolean allowed) {
+        return Counter.builder("gateway.rate_limit.requests")
+                .tag("route", routeId)
+                .tag("outcome", allowed ? "admitted" : "rejected")
+                .register(meterRegistry);
+    }
+
+    public static class Config {
+
+        static final Config DEFAULT = new Config();
+
+        // Per client
+        private int replenishRate = 50;
+        private int burstCapacity = 100;
+        // Per route, shared by all clients; 0 disables
+        private int routeReplenishRate;
+        private int routeBurstCapacity;
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getRouteReplenishRate() {
+            return routeReplenishRate;
+        }
+
+        public Config setRouteReplenishRate(int routeReplenishRate) {
+            this.routeReplenishRate = routeReplenishRate;
+            return this;
+        }
+
+        public int getRouteBurstCapacity() {
+            return Math.max(routeBurstCapacity, routeReplenishRate);
+        }
+
+        public Config setRouteBurstCapacity(int routeBurstCapacity) {
+            this.routeBurstCapacity = routeBurstCapacity;
+            return this;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public Config setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.api_gateway.ratelimit;
+
+import java.net.InetSocketAddress;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.api_gateway.auth.VerifiedToken;
+import com.example.api_gateway.filter.JwtAuthenticationGatewayFilterFactory;
+
+import reactor.core.publisher.Mono;
+
+@Configuration
+public class RateLimitConfig {
+
+    // Authenticated requests are limited per user, everyone else per source address. Nothing the
+    // client sends picks the bucket, so a new header value on each try (say, against /auth/login)
+    // does not get a fresh one.
+    @Bean
+    public KeyResolver clientKeyResolver() {
+        return exchange -> {
+            // Only there once JwtAuthentication has verified the request's token
+            VerifiedToken token = exchange.getAttribute(JwtAuthenticationGatewayFilterFactory.VERIFIED_TOKEN_ATTRIBUTE);
+            if (token != null) {
+                return Mono.just("user:" + token.subject());
+            }
+            InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+            return Mono.justOrEmpty(remoteAddress == null ? null : "ip:" + remoteAddress.getAddress().getHostAddress());
+        };
+    }
+}
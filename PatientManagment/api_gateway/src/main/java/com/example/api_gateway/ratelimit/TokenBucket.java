@@ -0,0 +1,50 @@
+package com.example.api_gateway.ratelimit;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Classic token bucket: holds up to {@code capacity} tokens and refills continuously at
+ * {@code refillPerSecond}. Buckets are tiny and contended only by one client's requests, so a
+ * monitor is cheaper than anything cleverer.
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double capacity, double refillPerSecond, LongSupplier nanoClock) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+    synchronized boolean tryConsume(int requested) {
+        refill();
+        if (tokens < requested) {
+            return false;
+        }
+        tokens -= requested;
+        return true;
+    }
+
+    synchronized void refund(int requested) {
+        tokens = Math.min(capacity, tokens + requested);
+    }
+
+    synchronized long available() {
+        refill();
+        return (long) tokens;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerNano);
+        refilledAt = now;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.api_gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import billing.BillingRequest;
+import billing.BillingResponse;
+import billing.BillingServiceGrpc;
+import io.grpc.Attributes;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerTransportFilter;
+import io.grpc.stub.StreamObserver;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Drives concurrent POST /billing/accounts through the gateway's REST-to-gRPC route against a
+ * local billing stub and prints throughput and p50/p99 latency. Every request must succeed, and
+ * all of them must share the pooled HTTP/2 connections rather than opening their own.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "gateway.auth.enabled=false",
+        // Without a token nobody may set X-Patient-Priority, so the run measures the route rather than load shedding
+        "gateway.load-shedding.default-priority=1",
+        "BILLING_CLIENT_RATE=1000000",
+        "BILLING_CLIENT_BURST=1000000",
+        "logging.level.root=WARN"
+})
+class BillingRouteThroughputBenchmarkTests {
+
+    private static final int REQUESTS = 20_000;
+    private static final int CONCURRENCY = 64;
+    private static final int CHANNELS_PER_TARGET = 2;
+
+    private static final AtomicInteger connections = new AtomicInteger();
+    private static final Server billing = start();
+
+    @LocalServerPort
+    int port;
+
+    private static Server start() {
+        try {
+            return ServerBuilder.forPort(0)
+                    .addTransportFilter(new ServerTransportFilter() {
+                        @Override
+                        public Attributes transportReady(Attributes transportAttrs) {
+                            connections.incrementAndGet();
+                            return transportAttrs;
+                        }
+                    })
+                    .addService(new BillingServiceGrpc.BillingServiceImplBase() {
+                        @Override
+                        public void createBillingAccount(BillingRequest request, StreamObserver<BillingResponse> responseObserver) {
+                            responseObserver.onNext(BillingResponse.newBuilder()
+                                    .setAccountId("acc-" + request.getPatientId())
+                                    .setStatus("Active")
+                                    .setPatientId(request.getPatientId())
+                                    .build());
+                            responseObserver.onCompleted();
+                        }
+                    })
+                    .build()
+                    .start();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        registry.add("BILLING_SERVICE_URI", () -> "grpc://localhost:" + billing.getPort());
+        registry.add("gateway.grpc.channels-per-target", () -> CHANNELS_PER_TARGET);
+    }
+
+    @AfterAll
+    static void stopBilling() {
+        billing.shutdownNow();
+    }
+
+    @Test
+    void billingRouteThroughput() {
+        WebClient client = WebClient.create("http://localhost:" + port);
+        // Warm up connections, JIT and the adaptive concurrency limit, which starts at 20
+        drive(client, 2_000);
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+        Flux.range(0, REQUESTS)
+                .flatMap(i -> {
+                    long sent = System.nanoTime();
+                    return post(client, i).doOnNext(status -> {
+                        latencies.add(System.nanoTime() - sent);
+                        if (status != 200) {
+                            failures.incrementAndGet();
+                        }
+                    });
+                }, CONCURRENCY)
+                .blockLast(Duration.ofMinutes(5));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("billing route: %d requests, %d failed, %.0f req/s, p50 %.1f ms, p99 %.1f ms, %d gRPC connections%n",
+                REQUESTS, failures.get(), REQUESTS / seconds, percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99),
+                connections.get());
+
+        assertThat(failures).hasValue(0);
+        assertThat(connections.get()).isLessThanOrEqualTo(CHANNELS_PER_TARGET);
+    }
+
+    private static void drive(WebClient client, int requests) {
+        Flux.range(0, requests).flatMap(i -> post(client, i), CONCURRENCY).blockLast(Duration.ofMinutes(1));
+    }
+
+    private static Mono<Integer> post(WebClient client, int i) {
+        return client.post().uri("/billing/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"patientId\":\"" + i + "\",\"name\":\"Load " + i + "\",\"email\":\"load" + i + "@example.com\"}")
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()));
+    }
+
+    private static double percentileMillis(List<Long> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)) / 1e6;
+    }
+}
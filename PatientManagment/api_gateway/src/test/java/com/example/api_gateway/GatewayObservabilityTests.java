@@ -0,0 +1,144 @@
+package com.example.api_gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import billing.BillingRequest;
+import billing.BillingResponse;
+import billing.BillingServiceGrpc;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.stub.StreamObserver;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "gateway.auth.enabled=false",
+        "management.tracing.sampling.probability=1.0"
+})
+class GatewayObservabilityTests {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String TRACE_PARENT = "00-" + TRACE_ID + "-00f067aa0ba902b7-01";
+
+    private static final Queue<String> patientTraceParents = new ConcurrentLinkedQueue<>();
+    private static final Queue<String> billingTraceParents = new ConcurrentLinkedQueue<>();
+
+    private static final DisposableServer patients = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.get("/patient/{id}", (request, response) -> {
+                patientTraceParents.add(String.valueOf(request.requestHeaders().get("traceparent")));
+                return response.header(HttpHeaders.CONTENT_TYPE, "application/json")
+                        .sendString(Mono.just("{\"id\":\"" + request.param("id") + "\"}"));
+            }))
+            .bindNow();
+
+    private static final Server billing = startBilling();
+
+    @LocalServerPort
+    int port;
+
+    WebTestClient client;
+
+    private static Server startBilling() {
+        Metadata.Key<String> traceParent = Metadata.Key.of("traceparent", Metadata.ASCII_STRING_MARSHALLER);
+        ServerInterceptor recordTraceParent = new ServerInterceptor() {
+            @Override
+            public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers, ServerCallHandler<Q, R> next) {
+                billingTraceParents.add(String.valueOf(headers.get(traceParent)));
+                return next.startCall(call, headers);
+            }
+        };
+        try {
+            return ServerBuilder.forPort(0).addService(ServerInterceptors.intercept(new BillingServiceGrpc.BillingServiceImplBase() {
+                @Override
+                public void createBillingAccount(BillingRequest request, StreamObserver<BillingResponse> responseObserver) {
+                    responseObserver.onNext(BillingResponse.newBuilder()
+                            .setAccountId("acc-" + request.getPatientId()).setStatus("Active").setPatientId(request.getPatientId()).build());
+                    responseObserver.onCompleted();
+                }
+            }, recordTraceParent)).build().start();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        registry.add("PATIENT_SERVICE_URI", () -> "http://localhost:" + patients.port());
+        registry.add("BILLING_SERVICE_URI", () -> "grpc://localhost:" + billing.getPort());
+    }
+
+    @AfterAll
+    static void stopUpstreams() {
+        patients.disposeNow();
+        billing.shutdownNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + port).responseTimeout(Duration.ofSeconds(10)).build();
+        patientTraceParents.clear();
+        billingTraceParents.clear();
+    }
+
+    @Test
+    void upstreamCallsContinueTheClientsTrace() {
+        client.get().uri("/patients/patient/traced").header("traceparent", TRACE_PARENT)
+                .exchange()
+                .expectStatus().isOk();
+        client.post().uri("/billing/accounts").header("traceparent", TRACE_PARENT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"patientId\":\"42\"}")
+                .exchange()
+                .expectStatus().isOk();
+
+        // Same trace, but each hop is a child span of the gateway's rather than the client's
+        assertThat(patientTraceParents).singleElement()
+                .satisfies(header -> assertThat(header).startsWith("00-" + TRACE_ID + "-").isNotEqualTo(TRACE_PARENT));
+        assertThat(billingTraceParents).singleElement()
+                .satisfies(header -> assertThat(header).startsWith("00-" + TRACE_ID + "-").isNotEqualTo(TRACE_PARENT));
+    }
+
+    @Test
+    void routesAndGrpcCallsAreOnTheScrapeEndpoint() {
+        client.get().uri("/patients/patient/scraped").exchange().expectStatus().isOk();
+        client.post().uri("/billing/accounts").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"patientId\":\"7\"}")
+                .exchange()
+                .expectStatus().isOk();
+
+        String scrape = client.get().uri("/actuator/prometheus").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        assertThat(scrape.lines().filter(line -> line.startsWith("spring_cloud_gateway_requests_seconds_bucket{")))
+                .anySatisfy(line -> assertThat(line).contains("routeId=\"patient-service-route\""))
+                .anySatisfy(line -> assertThat(line).contains("routeId=\"billing-service-route\""));
+        assertThat(scrape.lines().filter(line -> line.startsWith("grpc_client_seconds_bucket{")))
+                .anySatisfy(line -> assertThat(line).contains("method=\"CreateBillingAccount\""));
+        assertThat(scrape).contains("http_server_requests_seconds_bucket{");
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.api_gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.example.api_gateway.auth.TestSigningKey;
+import com.example.api_gateway.auth.TokenVerifier;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Per-request cost of authenticating a request at the gateway: a full local RS256 verification
+ * (first sight of a token), a verified-token cache hit (every later request with it), and for
+ * comparison the loopback round-trip an introspection call to auth-service would add to every
+ * request. Also checks that the JWKS is fetched once for the whole run.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "gateway.auth.token-cache.max-entries=100000",
+        "logging.level.root=WARN"
+})
+class JwtVerificationBenchmarkTests {
+
+    private static final int WARM_UP_TOKENS = 2_000;
+    private static final int DISTINCT_TOKENS = 4_000;
+    private static final int CACHED_VERIFICATIONS = 200_000;
+    private static final int INTROSPECTIONS = 5_000;
+
+    private static final TestSigningKey signingKey = TestSigningKey.generate();
+    private static final AtomicInteger jwksFetches = new AtomicInteger();
+
+    // auth-service stand-in: the JWKS, plus an introspection endpoint that answers instantly
+    private static final DisposableServer authService = HttpServer.create()
+            .port(0)
+            .route(routes -> routes
+                    .get("/.well-known/jwks.json", (request, response) -> {
+                        jwksFetches.incrementAndGet();
+                        return response.sendString(Mono.just(TestSigningKey.jwks(signingKey)));
+                    })
+                    .get("/validate", (request, response) -> response
+                            .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .sendString(Mono.just("{\"subject\":\"u\",\"role\":\"ADMIN\"}"))))
+            .bindNow();
+
+    @Autowired
+    TokenVerifier verifier;
+
+    @DynamicPropertySource
+    static void auth(DynamicPropertyRegistry registry) {
+        registry.add("AUTH_SERVICE_URI", () -> "http://localhost:" + authService.port());
+    }
+
+    @AfterAll
+    static void stopAuthService() {
+        authService.disposeNow();
+    }
+
+    @Test
+    void verificationCostPerRequest() {
+        List<String> tokens = IntStream.range(0, DISTINCT_TOKENS).mapToObj(i -> signingKey.token("user-" + i)).toList();
+        // Warm up the JIT and load the keys
+        tokens.subList(0, WARM_UP_TOKENS).forEach(token -> verifier.verify(token).block());
+
+        double fullMicros = measure(DISTINCT_TOKENS - WARM_UP_TOKENS, i -> tokens.get(WARM_UP_TOKENS + i));
+        double cachedMicros = measure(CACHED_VERIFICATIONS, i -> tokens.get(i % 100));
+
+        WebClient introspection = WebClient.create("http://localhost:" + authService.port());
+        IntFunction<Mono<String>> introspect = i -> introspection.get().uri("/validate")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.get(i % DISTINCT_TOKENS))
+                .retrieve().bodyToMono(String.class);
+        IntStream.range(0, 500).forEach(i -> introspect.apply(i).block());
+        long start = System.nanoTime();
+        IntStream.range(0, INTROSPECTIONS).forEach(i -> introspect.apply(i).block(Duration.ofSeconds(5)));
+        double introspectionMicros = (System.nanoTime() - start) / 1e3 / INTROSPECTIONS;
+
+        System.out.printf("token verification: full RS256 %.1f us, cached %.2f us, introspection round-trip %.1f us, %d JWKS fetches%n",
+                fullMicros, cachedMicros, introspectionMicros, jwksFetches.get());
+
+        assertThat(jwksFetches).hasValue(1);
+        assertThat(cachedMicros).isLessThan(fullMicros);
+    }
+
+    private double measure(int verifications, IntFunction<String> token) {
+        long start = System.nanoTime();
+        for (int i = 0; i < verifications; i++) {
+            assertThat(verifier.verify(token.apply(i)).block()).isNotNull();
+        }
+        return (System.nanoTime() - start) / 1e3 / verifications;
+    }
+}
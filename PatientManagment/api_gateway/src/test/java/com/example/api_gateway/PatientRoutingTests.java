@@ -0,0 +1,76 @@
+package com.example.api_gateway;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+// All of the A/B weight goes to the reactive API, so anything answered by "mvc" was routed past the split
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "gateway.auth.enabled=false",
+        "PATIENT_MVC_WEIGHT=0",
+        "PATIENT_REACTIVE_WEIGHT=100"
+})
+class PatientRoutingTests {
+
+    private static final DisposableServer mvc = answeringAs("mvc");
+    private static final DisposableServer reactive = answeringAs("reactive");
+
+    @LocalServerPort
+    int port;
+
+    WebTestClient client;
+
+    private static DisposableServer answeringAs(String api) {
+        return HttpServer.create()
+                .port(0)
+                .handle((request, response) -> response.sendString(Mono.just(api + " " + request.method() + " " + request.uri())))
+                .bindNow();
+    }
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        registry.add("PATIENT_SERVICE_URI", () -> "http://localhost:" + mvc.port());
+        registry.add("PATIENT_REACTIVE_SERVICE_URI", () -> "http://localhost:" + reactive.port());
+    }
+
+    @AfterAll
+    static void stopUpstreams() {
+        mvc.disposeNow();
+        reactive.disposeNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + port).responseTimeout(Duration.ofSeconds(10)).build();
+    }
+
+    @Test
+    void exportAndTriageAlwaysReachTheMvcApi() {
+        client.get().uri("/patients/patient/export").exchange()
+                .expectBody(String.class).isEqualTo("mvc GET /patient/export");
+        client.get().uri("/patients/patient/triage").exchange()
+                .expectBody(String.class).isEqualTo("mvc GET /patient/triage");
+        client.post().uri("/patients/patient/triage/claim").exchange()
+                .expectBody(String.class).isEqualTo("mvc POST /patient/triage/claim");
+    }
+
+    @Test
+    void theRestOfThePatientApiFollowsTheWeights() {
+        client.get().uri("/patients/patient/42").exchange()
+                .expectBody(String.class).isEqualTo("reactive GET /patient/42");
+        client.get().uri("/patients/patient/exports").exchange()
+                .expectBody(String.class).isEqualTo("reactive GET /patient/exports");
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.api_gateway.auth;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import io.jsonwebtoken.Jwts;
+import tools.jackson.databind.json.JsonMapper;
+
+/** An RSA key standing in for one of auth-service's signing keys. */
+public record TestSigningKey(String id, KeyPair keyPair) {
+
+    public static TestSigningKey generate() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return new TestSigningKey(UUID.randomUUID().toString(), generator.generateKeyPair());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public String token(String subject) {
+        return token(subject, "auth-service", Instant.now().plus(Duration.ofHours(1)));
+    }
+
+    public String token(String subject, String role) {
+        return token(subject, role, "auth-service", Instant.now().plus(Duration.ofHours(1)));
+    }
+
+    public String token(String subject, String issuer, Instant expiresAt) {
+        return token(subject, "ADMIN", issuer, expiresAt);
+    }
+
+    public String token(String subject, String role, String issuer, Instant expiresAt) {
+        return Jwts.builder()
+                .header().keyId(id).and()
+                .issuer(issuer)
+                .subject(subject)
+                .claim("role", role)
+                .issuedAt(new Date())
+                .expiration(Date.from(expiresAt))
+                .signWith(keyPair.getPrivate(), Jwts.SIG.RS256)
+                .compact();
+    }
+
+    public static String jwks(TestSigningKey... keys) {
+        List<Map<String, String>> jwks = Arrays.stream(keys).map(key -> {
+            RSAPublicKey publicKey = (RSAPublicKey) key.keyPair().getPublic();
+            return Map.of("kty", "RSA", "kid", key.id(), "alg", "RS256", "use", "sig",
+                    "n", base64Url(publicKey.getModulus()), "e", base64Url(publicKey.getPublicExponent()));
+        }).toList();
+        return JsonMapper.shared().writeValueAsString(Map.of("keys", jwks));
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.api_gateway.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.example.api_gateway.auth.TestSigningKey;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+// Drives both limiters through the real patient route against a deliberately slow upstream
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "gateway.auth.jwks-min-refresh-interval-ms=0",
+        "PATIENT_CLIENT_RATE=1",
+        "PATIENT_CLIENT_BURST=5"
+})
+class AdaptiveConcurrencyGatewayFilterFactoryTests {
+
+    private static final TestSigningKey signingKey = TestSigningKey.generate();
+
+    // Stands in for auth-service's JWKS endpoint and for a slow patient-service
+    private static final DisposableServer upstream = HttpServer.create()
+            .port(0)
+            .route(routes -> routes
+                    .get("/.well-known/jwks.json", (request, response) -> response
+                            .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .sendString(Mono.just(TestSigningKey.jwks(signingKey))))
+                    .get("/patient/{id}", (request, response) -> response
+                            .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .sendString(Mono.delay(Duration.ofMillis(1500)).map(tick -> "{\"id\":\"" + request.param("id") + "\"}"))))
+            .bindNow();
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        registry.add("PATIENT_SERVICE_URI", () -> "http://localhost:" + upstream.port());
+        registry.add("AUTH_SERVICE_URI", () -> "http://localhost:" + upstream.port());
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.disposeNow();
+    }
+
+    @Test
+    void shedsLowPriorityFirstWhenTheRouteIsSaturated() {
+        WebClient client = WebClient.create("http://localhost:" + port);
+        // The default limit is 20, so priority 3 may fill 10 slots and priority 1 all 20. Only
+        // ADMIN may set a priority; the other callers claim 1 but are shed as the default 3.
+        Flux<Integer> lowPriority = Flux.range(0, 15)
+                .flatMap(i -> get(client, "/patients/patient/" + i, signingKey.token("low-" + i, "USER"), "1"), 15);
+        Flux<Integer> highPriority = Flux.range(100, 5)
+                .delaySubscription(Duration.ofMillis(500))
+                .flatMap(i -> get(client, "/patients/patient/" + i, signingKey.token("high-" + i, "ADMIN"), "1"), 5);
+
+        List<Integer> low = lowPriority.collectList().zipWith(highPriority.collectList(), (l, h) -> {
+            assertThat(h).containsOnly(200);
+            return l;
+        }).block(Duration.ofSeconds(30));
+
+        assertThat(low).filteredOn(status -> status == 200).hasSize(10);
+        assertThat(low).filteredOn(status -> status == 503).hasSize(5);
+        assertThat(meterRegistry.get("gateway.concurrency.requests")
+                .tags("route", "patient-service-route", "priority", "3", "outcome", "rejected")
+                .counter().count()).isEqualTo(5);
+    }
+
+    @Test
+    void limitsEachClientToItsBucket() {
+        WebClient client = WebClient.create("http://localhost:" + port);
+        List<Integer> statuses = Flux.range(0, 7)
+                .flatMap(i -> get(client, "/patients/patient/" + (200 + i), signingKey.token("greedy", "ADMIN"), "1"), 7)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertThat(statuses).filteredOn(status -> status == 200).hasSize(5);
+        assertThat(statuses).filteredOn(status -> status == 429).hasSize(2);
+        assertThat(meterRegistry.get("gateway.rate_limit.requests")
+                .tags("route", "patient-service-route", "outcome", "rejected")
+                .counter().count()).isEqualTo(2);
+    }
+
+    // Each token's user has its own rate limit bucket
+    private static Mono<Integer> get(WebClient client, String uri, String token, String priority) {
+        return client.get().uri(uri)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header(AdaptiveConcurrencyGatewayFilterFactory.PRIORITY_HEADER, priority)
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()))
+                .map(HttpStatusCode::value);
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.api_gateway.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import billing.BillingAccountsRequest;
+import billing.BillingAccountsResponse;
+import billing.BillingRequest;
+import billing.BillingResponse;
+import billing.BillingServiceGrpc;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "gateway.auth.enabled=false",
+        "gateway.grpc.deadline-ms=1500"
+})
+class BillingGrpcTranscodingGatewayFilterFactoryTests {
+
+    private static final AtomicInteger calls = new AtomicInteger();
+    // Patient ids steer the stub: "unavailable-once" fails its first attempt, "invalid" and "slow" fail outright
+    private static final AtomicInteger unavailableOnce = new AtomicInteger();
+
+    private static final Server billing = start();
+
+    @LocalServerPort
+    int port;
+
+    WebTestClient client;
+
+    private static Server start() {
+        try {
+            return ServerBuilder.forPort(0).addService(new BillingServiceGrpc.BillingServiceImplBase() {
+                @Override
+                public void createBillingAccount(BillingRequest request, StreamObserver<BillingResponse> responseObserver) {
+                    calls.incrementAndGet();
+                    switch (request.getPatientId()) {
+                        case "invalid" -> {
+                            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription("Unknown patient").asRuntimeException());
+                            return;
+                        }
+                        case "unavailable-once" -> {
+                            if (unavailableOnce.getAndIncrement() == 0) {
+                                responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+                                return;
+                            }
+                        }
+                        case "slow" -> sleep(Duration.ofSeconds(4));
+                        default -> {
+                        }
+                    }
+                    responseObserver.onNext(account(request));
+                    responseObserver.onCompleted();
+                }
+
+                @Override
+                public void createBillingAccounts(BillingAccountsRequest request, StreamObserver<BillingAccountsResponse> responseObserver) {
+                    calls.incrementAndGet();
+                    BillingAccountsResponse.Builder response = BillingAccountsResponse.newBuilder();
+                    request.getRequestsList().forEach(r -> response.addResponses(account(r)));
+                    responseObserver.onNext(response.build());
+                    responseObserver.onCompleted();
+                }
+            }).build().start();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static BillingResponse account(BillingRequest request) {
+        return BillingResponse.newBuilder()
+                .setAccountId("acc-" + request.getPatientId())
+                .setStatus("Active")
+                .setPatientId(request.getPatientId())
+                .build();
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        registry.add("BILLING_SERVICE_URI", () -> "grpc://localhost:" + billing.getPort());
+    }
+
+    @AfterAll
+    static void stopBilling() {
+        billing.shutdownNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + port).responseTimeout(Duration.ofSeconds(10)).build();
+        calls.set(0);
+    }
+
+    @Test
+    void transcodesJsonToCreateBillingAccount() {
+        client.post().uri("/billing/accounts").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"patientId\":\"42\",\"name\":\"Ada\",\"email\":\"ada@example.com\",\"unknown\":1}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.accountId").isEqualTo("acc-42")
+                .jsonPath("$.status").isEqualTo("Active")
+                .jsonPath("$.patientId").isEqualTo("42");
+    }
+
+    @Test
+    void transcodesTheBatchMethod() {
+        client.post().uri("/billing/accounts/batch").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"requests\":[{\"patientId\":\"1\"},{\"patientId\":\"2\"}]}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.responses.length()").isEqualTo(2)
+                .jsonPath("$.responses[1].accountId").isEqualTo("acc-2");
+    }
+
+    @Test
+    void rejectsMalformedJsonWithoutCallingBilling() {
+        client.post().uri("/billing/accounts").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"patientId\":")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Invalid request body");
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    void mapsGrpcStatusesAndRetriesOnlyUnavailable() {
+        client.post().uri("/billing/accounts").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"patientId\":\"invalid\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Unknown patient");
+        assertThat(calls).hasValue(1);
+
+        client.post().uri("/billing/accounts").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"patientId\":\"unavailable-once\"}")
+                .exchange()
+                .expectStatus().isOk();
+        assertThat(calls).hasValue(3);
+
+        client.post().uri("/billing/accounts").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"patientId\":\"slow\"}")
+                .exchange()
+                .expectStatus().isEqualTo(504);
+    }
+
+    @Test
+    void onlyPostIsRouted() {
+        client.get().uri("/billing/accounts").exchange().expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.api_gateway.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.api_gateway.auth.TestSigningKey;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "gateway.auth.jwks-min-refresh-interval-ms=0",
+        "PATIENT_CLIENT_RATE=100000",
+        "PATIENT_CLIENT_BURST=100000"
+})
+class JwtAuthenticationGatewayFilterFactoryTests {
+
+    private static final TestSigningKey signingKey = TestSigningKey.generate();
+    private static final AtomicReference<String> jwks = new AtomicReference<>(TestSigningKey.jwks(signingKey));
+    private static final AtomicInteger jwksFetches = new AtomicInteger();
+    private static final AtomicInteger pathCounter = new AtomicInteger();
+
+    // Stands in for auth-service's JWKS endpoint and for patient-service, which echoes who the gateway says is calling
+    private static final DisposableServer upstream = HttpServer.create()
+            .port(0)
+            .route(routes -> routes
+                    .get("/.well-known/jwks.json", (request, response) -> {
+                        jwksFetches.incrementAndGet();
+                        return response.header(HttpHeaders.CONTENT_TYPE, "application/json").sendString(Mono.just(jwks.get()));
+                    })
+                    .get("/patient/{id}", (request, response) -> response
+                            .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .sendString(Mono.just("{\"user\":\"" + request.requestHeaders().get("X-User-Id")
+                                    + "\",\"role\":\"" + request.requestHeaders().get("X-User-Role") + "\"}"))))
+            .bindNow();
+
+    @LocalServerPort
+    int port;
+
+    WebTestClient client;
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        registry.add("PATIENT_SERVICE_URI", () -> "http://localhost:" + upstream.port());
+        registry.add("AUTH_SERVICE_URI", () -> "http://localhost:" + upstream.port());
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.disposeNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + port).responseTimeout(Duration.ofSeconds(10)).build();
+    }
+
+    @Test
+    void requestsWithoutAValidTokenAreRejected() {
+        client.get().uri(patientPath()).exchange()
+                .expectStatus().isUnauthorized()
+                .expectHeader().valueEquals(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+
+        for (String token : new String[] {
+                "not-a-jwt",
+                signingKey.token("u1", "auth-service", Instant.now().minus(Duration.ofMinutes(5))),
+                signingKey.token("u1", "someone-else", Instant.now().plus(Duration.ofHours(1))),
+                TestSigningKey.generate().token("u1"),
+                tamper(signingKey.token("u1"))}) {
+            client.get().uri(patientPath()).header(HttpHeaders.AUTHORIZATION, "Bearer " + token).exchange()
+                    .expectStatus().isUnauthorized()
+                    .expectHeader().valueEquals(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+        }
+    }
+
+    @Test
+    void upstreamSeesTheTokenSubjectNotClientSuppliedHeaders() {
+        client.get().uri(patientPath())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + signingKey.token("user-42"))
+                .header(JwtAuthenticationGatewayFilterFactory.USER_ID_HEADER, "someone-else")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.user").isEqualTo("user-42")
+                .jsonPath("$.role").isEqualTo("ADMIN");
+    }
+
+    @Test
+    void routesWithoutATokenCheckDropClientSuppliedIdentity() {
+        // The auth route forwards /auth/patient/{id} to the echoing upstream as /patient/{id}
+        client.get().uri("/auth" + patientPath().substring("/patients".length()))
+                .header(JwtAuthenticationGatewayFilterFactory.USER_ID_HEADER, "user-42")
+                .header(JwtAuthenticationGatewayFilterFactory.USER_ROLE_HEADER, "ADMIN")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.user").isEqualTo("null")
+                .jsonPath("$.role").isEqualTo("null");
+    }
+
+    @Test
+    void cachedResponsesStillRequireAToken() {
+        String path = patientPath();
+        client.get().uri(path).header(HttpHeaders.AUTHORIZATION, "Bearer " + signingKey.token("u1")).exchange()
+                .expectStatus().isOk();
+        client.get().uri(path).header(HttpHeaders.AUTHORIZATION, "Bearer " + signingKey.token("u1")).exchange()
+                .expectHeader().valueEquals(PatientReadCacheGatewayFilterFactory.CACHE_STATUS_HEADER, "HIT");
+
+        client.get().uri(path).exchange().expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void repeatedTokensNeedNoJwksCalls() {
+        String token = signingKey.token("u2");
+        client.get().uri(patientPath()).header(HttpHeaders.AUTHORIZATION, "Bearer " + token).exchange().expectStatus().isOk();
+        int fetchesBefore = jwksFetches.get();
+
+        Flux.range(0, 200)
+                .flatMap(i -> Mono.fromCallable(() -> client.get().uri(patientPath())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + (i % 2 == 0 ? token : signingKey.token("u" + i)))
+                        .exchange().expectStatus().isOk()), 16)
+                .blockLast(Duration.ofSeconds(30));
+
+        assertThat(jwksFetches.get()).isEqualTo(fetchesBefore);
+    }
+
+    @Test
+    void tokensFromARotatedKeyAreAcceptedWithoutARestart() {
+        client.get().uri(patientPath()).header(HttpHeaders.AUTHORIZATION, "Bearer " + signingKey.token("u3")).exchange()
+                .expectStatus().isOk();
+
+        TestSigningKey rotated = TestSigningKey.generate();
+        jwks.set(TestSigningKey.jwks(rotated, signingKey));
+        try {
+            client.get().uri(patientPath()).header(HttpHeaders.AUTHORIZATION, "Bearer " + rotated.token("u3")).exchange()
+                    .expectStatus().isOk();
+            client.get().uri(patientPath()).header(HttpHeaders.AUTHORIZATION, "Bearer " + signingKey.token("u3")).exchange()
+                    .expectStatus().isOk();
+        } finally {
+            jwks.set(TestSigningKey.jwks(signingKey));
+        }
+    }
+
+    // Every request gets its own path so the patient read cache never answers for upstream
+    private static String patientPath() {
+        return "/patients/patient/" + pathCounter.incrementAndGet();
+    }
+
+    private static String tamper(String token) {
+        int i = token.length() - 20;
+        return token.substring(0, i) + (token.charAt(i) == 'A' ? 'B' : 'A') + token.substring(i + 1);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.api_gateway.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.api_gateway.cache.PatientResponseCache;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "gateway.auth.enabled=false",
+        "gateway.patient-cache.ttl-ms=60000",
+        "gateway.patient-cache.max-body-bytes=16384"
+})
+class PatientReadCacheGatewayFilterFactoryTests {
+
+    private static final int LARGE_PAGE_SIZE = 1000;
+
+    private static final Map<String, AtomicInteger> upstreamHits = new ConcurrentHashMap<>();
+    private static final AtomicInteger version = new AtomicInteger();
+
+    // Stands in for patient-service; slow enough that concurrent GETs overlap upstream
+    private static final DisposableServer upstream = HttpServer.create()
+            .port(0)
+            .route(routes -> routes
+                    .get("/patient/missing", (request, response) -> {
+                        upstreamHits.computeIfAbsent(request.uri(), uri -> new AtomicInteger()).incrementAndGet();
+                        return response.status(404).header(HttpHeaders.CONTENT_TYPE, "application/json")
+                                .sendString(Mono.just("{\"message\":\"Patient not found\"}"));
+                    })
+                    // A page well over max-body-bytes, sent chunked so its size is not known up front
+                    .get("/patient", (request, response) -> {
+                        upstreamHits.computeIfAbsent(request.uri(), uri -> new AtomicInteger()).incrementAndGet();
+                        return response.header(HttpHeaders.CONTENT_TYPE, "application/json")
+                                .sendString(Flux.range(0, LARGE_PAGE_SIZE)
+                                        .delaySubscription(Duration.ofMillis(300))
+                                        .map(i -> (i == 0 ? "[" : ",") + "{\"id\":\"" + i + "\",\"name\":\"" + "x".repeat(100) + "\"}")
+                                        .concatWith(Mono.just("]")));
+                    })
+                    .get("/patient/{id}", (request, response) -> {
+                        upstreamHits.computeIfAbsent(request.uri(), uri -> new AtomicInteger()).incrementAndGet();
+                        return response.header(HttpHeaders.CONTENT_TYPE, "application/json")
+                                .sendString(Mono.delay(Duration.ofMillis(300)).map(tick ->
+                                        "{\"id\":\"" + request.param("id") + "\",\"version\":" + version.get() + "}"));
+                    })
+                    .put("/patient/{id}", (request, response) -> {
+                        version.incrementAndGet();
+                        return response.header(HttpHeaders.CONTENT_TYPE, "application/json").sendString(Mono.just("{}"));
+                    }))
+            .bindNow();
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    PatientResponseCache cache;
+
+    WebTestClient client;
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        registry.add("PATIENT_SERVICE_URI", () -> "http://localhost:" + upstream.port());
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.disposeNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + port).responseTimeout(Duration.ofSeconds(10)).build();
+        upstreamHits.clear();
+        cache.invalidateCollections();
+    }
+
+    @Test
+    void concurrentIdenticalGetsShareOneUpstreamCall() {
+        List<String> cacheStatuses = Flux.range(0, 20)
+                .flatMap(i -> Mono.fromCallable(() -> client.get().uri("/patients/patient/1").exchange()
+                        .expectStatus().isOk()
+                        .expectBody(String.class).returnResult()), 20)
+                .map(result -> result.getResponseHeaders().getFirst(PatientReadCacheGatewayFilterFactory.CACHE_STATUS_HEADER))
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertThat(upstreamHits.get("/patient/1")).hasValue(1);
+        assertThat(cacheStatuses).containsOnlyOnce("MISS").doesNotContainNull();
+    }
+
+    @Test
+    void servesHitsAndNotModifiedFromTheCache() {
+        EntityExchangeResult<String> first = client.get().uri("/patients/patient/2").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Cache", "MISS")
+                .expectBody(String.class).returnResult();
+        String etag = first.getResponseHeaders().getETag();
+        assertThat(etag).startsWith("\"");
+
+        client.get().uri("/patients/patient/2").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Cache", "HIT")
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+                .expectBody(String.class).isEqualTo(first.getResponseBody());
+
+        client.get().uri("/patients/patient/2").header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+
+        assertThat(upstreamHits.get("/patient/2")).hasValue(1);
+    }
+
+    @Test
+    void writesThroughTheGatewayEvictThePatient() {
+        client.get().uri("/patients/patient/3").exchange().expectStatus().isOk();
+        client.put().uri("/patients/patient/3").bodyValue("{}").exchange().expectStatus().isOk();
+
+        client.get().uri("/patients/patient/3").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Cache", "MISS")
+                .expectBody().jsonPath("$.version").isEqualTo(version.get());
+        assertThat(upstreamHits.get("/patient/3")).hasValue(2);
+    }
+
+    @Test
+    void patientEventsEvictThePatient() {
+        client.get().uri("/patients/patient/4").exchange().expectStatus().isOk();
+        cache.invalidatePatient("4");
+
+        client.get().uri("/patients/patient/4").exchange().expectHeader().valueEquals("X-Cache", "MISS");
+        assertThat(upstreamHits.get("/patient/4")).hasValue(2);
+    }
+
+    @Test
+    void chunkedPagesOverTheLimitArePassedThrough() {
+        List<EntityExchangeResult<String>> results = Flux.range(0, 5)
+                .flatMap(i -> Mono.fromCallable(() -> client.get().uri("/patients/patient").exchange()
+                        .expectStatus().isOk()
+                        .expectBody(String.class).returnResult()), 5)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        // Waiters were released once the page outgrew the limit and fetched it themselves
+        assertThat(results).allSatisfy(result -> {
+            assertThat(result.getResponseBody()).startsWith("[").endsWith("]").hasSizeGreaterThan(16384);
+            assertThat(result.getResponseHeaders().getFirst(PatientReadCacheGatewayFilterFactory.CACHE_STATUS_HEADER)).isNull();
+        });
+        assertThat(upstreamHits.get("/patient")).hasValue(5);
+    }
+
+    @Test
+    void errorsAreNeverCached() {
+        client.get().uri("/patients/patient/missing").exchange().expectStatus().isNotFound();
+        client.get().uri("/patients/patient/missing").exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().doesNotExist("X-Cache");
+
+        assertThat(upstreamHits.get("/patient/missing")).hasValue(2);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.api_gateway.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTests {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final AdaptiveConcurrencyLimiter limiter =
+            new AdaptiveConcurrencyLimiter(10, 2, 20, 2.0, 0.5, 100, new double[] {1.0, 0.8, 0.5});
+
+    @Test
+    void shedsLowPriorityFirst() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(3)).isTrue();
+        }
+        assertThat(limiter.tryAcquire(3)).isFalse();
+        assertThat(limiter.tryAcquire(2)).isTrue();
+        assertThat(limiter.tryAcquire(2)).isTrue();
+        assertThat(limiter.tryAcquire(2)).isTrue();
+        assertThat(limiter.tryAcquire(2)).isFalse();
+        assertThat(limiter.tryAcquire(1)).isTrue();
+        assertThat(limiter.tryAcquire(1)).isTrue();
+        assertThat(limiter.tryAcquire(1)).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(10);
+    }
+
+    @Test
+    void growsWhileSaturatedAndFastAndBacksOffWhenLatencyRises() {
+        fill(10);
+        for (int i = 0; i < 5; i++) {
+            limiter.release(FAST, false);
+        }
+        // The last release came with only 6 in flight, below half the limit
+        assertThat(limiter.getLimit()).isEqualTo(14);
+
+        fill(1);
+        limiter.release(SLOW, false);
+        assertThat(limiter.getLimit()).isEqualTo(7);
+
+        fill(1);
+        limiter.release(FAST, true);
+        assertThat(limiter.getLimit()).isEqualTo(3.5);
+    }
+
+    @Test
+    void doesNotGrowWhileIdle() {
+        for (int i = 0; i < 10; i++) {
+            fill(1);
+            limiter.release(FAST, false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void oneVerySlowResponseDoesNotRaiseTheBaseline() {
+        fill(1);
+        limiter.release(FAST, false);
+        fill(1);
+        limiter.release(TimeUnit.MINUTES.toNanos(3), false);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+
+        // Still judged against ~10 ms, not pulled towards the 3-minute outlier
+        fill(1);
+        limiter.release(SLOW, false);
+        assertThat(limiter.getLimit()).isEqualTo(2.5);
+    }
+
+    @Test
+    void releaseWithoutSampleLeavesTheLimitAlone() {
+        fill(10);
+        limiter.release();
+        assertThat(limiter.getInFlight()).isEqualTo(9);
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    private void fill(int requests) {
+        for (int i = 0; i < requests; i++) {
+            assertThat(limiter.tryAcquire(1)).isTrue();
+        }
+    }
+}
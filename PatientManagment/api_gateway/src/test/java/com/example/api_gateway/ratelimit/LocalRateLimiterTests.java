@@ -0,0 +1,60 @@
+package com.example.api_gateway.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LocalRateLimiterTests {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LocalRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new LocalRateLimiter(null, meterRegistry, clock::get);
+        limiter.getConfig().put("patients", new LocalRateLimiter.Config().setReplenishRate(2).setBurstCapacity(3));
+        limiter.getConfig().put("shared", new LocalRateLimiter.Config().setReplenishRate(10).setBurstCapacity(10)
+                .setRouteReplenishRate(1).setRouteBurstCapacity(4));
+    }
+
+    @Test
+    void clientBucketAllowsTheBurstThenRefillsAtTheRate() {
+        assertThat(allowed("patients", "a", 4)).containsExactly(true, true, true, false);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(allowed("patients", "a", 2)).containsExactly(true, false);
+        // Another client has its own bucket
+        assertThat(allowed("patients", "b", 1)).containsExactly(true);
+
+        assertThat(meterRegistry.get("gateway.rate_limit.requests").tag("outcome", "rejected").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void routeBucketCapsAllClientsTogetherWithoutChargingRejectedClients() {
+        assertThat(allowed("shared", "a", 2)).containsExactly(true, true);
+        assertThat(allowed("shared", "b", 3)).containsExactly(true, true, false);
+
+        // Requests refused by the route bucket are refunded to the client
+        assertThat(limiter.isAllowed("shared", "b").block().getHeaders())
+                .containsEntry(LocalRateLimiter.REMAINING_HEADER, "8");
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(allowed("shared", "c", 2)).containsExactly(true, false);
+    }
+
+    private Boolean[] allowed(String route, String client, int requests) {
+        Boolean[] results = new Boolean[requests];
+        for (int i = 0; i < requests; i++) {
+            results[i] = limiter.isAllowed(route, client).block().isAllowed();
+        }
+        return results;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.api_gateway.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetSocketAddress;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import com.example.api_gateway.auth.VerifiedToken;
+import com.example.api_gateway.filter.JwtAuthenticationGatewayFilterFactory;
+
+class RateLimitConfigTests {
+
+    private final KeyResolver resolver = new RateLimitConfig().clientKeyResolver();
+
+    @Test
+    void anonymousCallersAreKeyedByAddressWhateverHeadersTheySend() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/auth/login")
+                .remoteAddress(new InetSocketAddress("203.0.113.7", 51000))
+                .header(JwtAuthenticationGatewayFilterFactory.USER_ID_HEADER, "attempt-1")
+                .header("X-Client-Id", "attempt-1"));
+
+        assertThat(resolver.resolve(exchange).block()).isEqualTo("ip:203.0.113.7");
+    }
+
+    @Test
+    void authenticatedCallersAreKeyedByTheVerifiedSubject() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/patients/patient/1")
+                .remoteAddress(new InetSocketAddress("203.0.113.7", 51000)));
+        exchange.getAttributes().put(JwtAuthenticationGatewayFilterFactory.VERIFIED_TOKEN_ATTRIBUTE,
+                new VerifiedToken("user-42", "ADMIN", Instant.now().plusSeconds(60)));
+
+        assertThat(resolver.resolve(exchange).block()).isEqualTo("user:user-42");
+    }
+}
@@ -0,0 +1,71 @@
+package auth_service.demo.controller;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import auth_service.demo.dto.LoginRequestDTO;
+import auth_service.demo.dto.LoginResponseDTO;
+import auth_service.demo.service.AuthService;
+import auth_service.demo.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
+
+@RestController
+public class AuthController {
+
+    private static final String BEARER = "Bearer ";
+
+    private final AuthService authService;
+    private final JwtService jwtService;
+
+    public AuthController(AuthService authService, JwtService jwtService) {
+        this.authService = authService;
+        this.jwtService = jwtService;
+    }
+
+    @Operation(summary = "Exchange email and password for an access token")
+    @PostMapping("/login")
+    public ResponseEntity<LoginResponseDTO> login(@Valid @RequestBody LoginRequestDTO request) {
+        return authService.login(request)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+
+    // Introspection for callers that cannot verify tokens themselves; the gateway uses the JWKS instead
+    @Operation(summary = "Validate an access token")
+    @GetMapping("/validate")
+    public ResponseEntity<Map<String, Object>> validate(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (authorization == null || !authorization.startsWith(BEARER)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            Claims claims = jwtService.validate(authorization.substring(BEARER.length()));
+            return ResponseEntity.ok(Map.of(
+                    "subject", claims.getSubject(),
+                    "role", claims.get("role", String.class),
+                    "expiresAt", claims.getExpiration().toInstant().getEpochSecond()));
+        } catch (JwtException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    @Operation(summary = "Public keys that verify issued tokens")
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(jwtService.jwks());
+    }
+}
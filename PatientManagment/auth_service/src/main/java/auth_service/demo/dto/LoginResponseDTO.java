@@ -0,0 +1,21 @@
+package auth_service.demo.dto;
+
+public class LoginResponseDTO {
+
+    private final String token;
+    // Seconds until the token expires
+    private final long expiresIn;
+
+    public LoginResponseDTO(String token, long expiresIn) {
+        this.token = token;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+}
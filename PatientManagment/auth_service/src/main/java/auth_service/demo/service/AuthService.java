@@ -0,0 +1,31 @@
+package auth_service.demo.service;
+
+import java.util.Optional;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import auth_service.demo.dto.LoginRequestDTO;
+import auth_service.demo.dto.LoginResponseDTO;
+import auth_service.demo.repository.UserRepository;
+
+@Service
+public class AuthService {
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final JwtService jwtService;
+
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jwtService = jwtService;
+    }
+
+    /** A token for the user, or empty if the email is unknown or the password does not match. */
+    public Optional<LoginResponseDTO> login(LoginRequestDTO request) {
+        return userRepository.findByEmail(request.getEmail())
+                .filter(user -> passwordEncoder.matches(request.getPassword(), user.getPassword()))
+                .map(user -> new LoginResponseDTO(jwtService.issue(user), jwtService.getExpirationMillis() / 1000));
+    }
+}
@@ -0,0 +1,157 @@
+package auth_service.demo.service;
+
+import java.math.BigInteger;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import auth_service.demo.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+
+/**
+ * Issues RS256 access tokens and publishes the matching public keys as a JWKS, so the gateway can
+ * verify tokens locally instead of calling back here for every request. Every token names its
+ * signing key in the {@code kid} header. The signing key is replaced every
+ * {@code auth.jwt.key-rotation-ms}; a retired key keeps being published until the last token it
+ * signed has expired, then it is dropped.
+ * <p>
+ * Keys are generated in memory, so a restart invalidates outstanding tokens and each replica
+ * signs with its own keys.
+ */
+@Service
+public class JwtService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtService.class);
+
+    private record SigningKey(String id, KeyPair keyPair, Instant retiredAt) {
+    }
+
+    private final String issuer;
+    private final long expirationMillis;
+    private final List<SigningKey> retired = new CopyOnWriteArrayList<>();
+    private volatile SigningKey current = newKey();
+
+    public JwtService(@Value("${auth.jwt.issuer:auth-service}") String issuer,
+                      @Value("${auth.jwt.expiration-ms:3600000}") long expirationMillis) {
+        this.issuer = issuer;
+        this.expirationMillis = expirationMillis;
+    }
+
+    public long getExpirationMillis() {
+        return expirationMillis;
+    }
+
+    public String issue(User user) {
+        SigningKey key = current;
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .header().keyId(key.id()).and()
+                .issuer(issuer)
+                .subject(user.getId().toString())
+                .claim("email", user.getEmail())
+                .claim("role", user.getRole())
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plusMillis(expirationMillis)))
+                .signWith(key.keyPair().getPrivate(), Jwts.SIG.RS256)
+                .compact();
+    }
+
+    /** The token's claims if it is signed by a published key, unexpired and ours; throws JwtException otherwise. */
+    public Claims validate(String token) {
+        return Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return publicKey(header.getKeyId());
+                    }
+                })
+                .requireIssuer(issuer)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    /** The published keys as a JSON Web Key Set (RFC 7517), current key first. */
+    public Map<String, Object> jwks() {
+        List<Map<String, Object>> keys = new ArrayList<>();
+        keys.add(jwk(current));
+        retired.forEach(key -> keys.add(jwk(key)));
+        return Map.of("keys", keys);
+    }
+
+    @Scheduled(initialDelayString = "${auth.jwt.key-rotation-ms:86400000}", fixedDelayString = "${auth.jwt.key-rotation-ms:86400000}")
+    public synchronized void rotateKey() {
+        SigningKey previous = current;
+        current = newKey();
+        retired.addFirst(new SigningKey(previous.id(), previous.keyPair(), Instant.now()));
+        Instant cutoff = Instant.now().minusMillis(expirationMillis);
+        retired.removeIf(key -> key.retiredAt().isBefore(cutoff));
+        logger.info("Rotated JWT signing key {} -> {}, {} retired keys still published", previous.id(), current.id(), retired.size());
+    }
+
+    private Key publicKey(String keyId) {
+        SigningKey key = current;
+        if (key.id().equals(keyId)) {
+            return key.keyPair().getPublic();
+        }
+        for (SigningKey old : retired) {
+            if (old.id().equals(keyId)) {
+                return old.keyPair().getPublic();
+            }
+        }
+        throw new JwtException("Unknown signing key: " + keyId);
+    }
+
+    private static Map<String, Object> jwk(SigningKey key) {
+        RSAPublicKey publicKey = (RSAPublicKey) key.keyPair().getPublic();
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "RSA");
+        jwk.put("kid", key.id());
+        jwk.put("use", "sig");
+        jwk.put("alg", "RS256");
+        jwk.put("n", base64Url(publicKey.getModulus()));
+        jwk.put("e", base64Url(publicKey.getPublicExponent()));
+        return jwk;
+    }
+
+    // JWK integers are unsigned big-endian; BigInteger adds a sign byte when the top bit is set
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static SigningKey newKey() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return new SigningKey(UUID.randomUUID().toString(), generator.generateKeyPair(), null);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+-- Development login (dev profile only): testuser@test.com / password123
+INSERT INTO users (id, email, password, role)
+SELECT '223e4567-e89b-12d3-a456-426614174006', 'testuser@test.com',
+       '$2a$10$yQzOFo9euXD.0Vl/aGvkdeg1zsXOquxSF3qAqrKBoe3.fiiBrAvJ.', 'ADMIN'
+WHERE NOT EXISTS (SELECT 1 FROM users WHERE email = 'testuser@test.com');
@@ -0,0 +1,117 @@
+package auth_service.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigInteger;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestClient;
+
+import auth_service.demo.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+// The dev profile seeds testuser@test.com
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "auth.jwt.expiration-ms=60000")
+@ActiveProfiles("dev")
+class AuthControllerTests {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON = new ParameterizedTypeReference<>() {
+    };
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    JwtService jwtService;
+
+    RestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = RestClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultStatusHandler(status -> true, (request, response) -> { })
+                .build();
+    }
+
+    @Test
+    void loginIssuesATokenTheJwksVerifies() throws Exception {
+        String token = login("testuser@test.com", "password123").getBody().get("token").toString();
+
+        Map<String, Object> jwks = client.get().uri("/.well-known/jwks.json").retrieve().toEntity(JSON).getBody();
+        @SuppressWarnings("unchecked")
+        Map<String, String> jwk = ((List<Map<String, String>>) jwks.get("keys")).get(0);
+        Claims claims = Jwts.parser().verifyWith(publicKey(jwk)).build().parseSignedClaims(token).getPayload();
+
+        assertThat(claims.getIssuer()).isEqualTo("auth-service");
+        assertThat(claims.get("email")).isEqualTo("testuser@test.com");
+        assertThat(claims.get("role")).isEqualTo("ADMIN");
+        assertThat(Jwts.parser().verifyWith(publicKey(jwk)).build().parseSignedClaims(token).getHeader().getKeyId())
+                .isEqualTo(jwk.get("kid"));
+    }
+
+    @Test
+    void rejectsWrongPasswordsAndInvalidRequests() {
+        assertThat(login("testuser@test.com", "wrong").getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(login("nobody@test.com", "password123").getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        ResponseEntity<Map<String, Object>> invalid = login("not-an-email", "");
+        assertThat(invalid.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(invalid.getBody()).containsKeys("email", "password");
+    }
+
+    @Test
+    void tokensSignedBeforeARotationStayValid() {
+        String token = login("testuser@test.com", "password123").getBody().get("token").toString();
+
+        jwtService.rotateKey();
+
+        assertThat(validate(token).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(validate(token).getBody()).containsEntry("role", "ADMIN");
+        assertThat((List<?>) client.get().uri("/.well-known/jwks.json").retrieve().toEntity(JSON).getBody().get("keys"))
+                .hasSizeGreaterThanOrEqualTo(2);
+        assertThat(validate(tamper(token)).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(validate("garbage").getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    private ResponseEntity<Map<String, Object>> login(String email, String password) {
+        return client.post().uri("/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("email", email, "password", password))
+                .retrieve()
+                .toEntity(JSON);
+    }
+
+    private ResponseEntity<Map<String, Object>> validate(String token) {
+        return client.get().uri("/validate").header(HttpHeaders.AUTHORIZATION, "Bearer " + token).retrieve().toEntity(JSON);
+    }
+
+    // Changes one signature character away from the end, where base64url padding bits could hide the change
+    private static String tamper(String token) {
+        int i = token.length() - 20;
+        return token.substring(0, i) + (token.charAt(i) == 'A' ? 'B' : 'A') + token.substring(i + 1);
+    }
+
+    private static PublicKey publicKey(Map<String, String> jwk) throws Exception {
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        return KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(
+                new BigInteger(1, decoder.decode(jwk.get("n"))), new BigInteger(1, decoder.decode(jwk.get("e")))));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo.account;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import billing.BillingResponse;
+
+/**
+ * Bulk reads of billing accounts for the streaming RPCs. Both queries are range or set lookups on
+ * the patient_id unique index, so a page costs the same wherever it falls in the table.
+ */
+@Component
+public class BillingAccountReader {
+
+    public static final String NOT_FOUND = "NotFound";
+
+    private static final String SELECT_BY_PATIENT_IDS =
+            "SELECT patient_id, id, status FROM billing_account WHERE patient_id = ANY(?::varchar[])";
+    private static final String SELECT_PAGE =
+            "SELECT patient_id, id, status FROM billing_account WHERE patient_id > ? ORDER BY patient_id LIMIT ?";
+
+    private static final RowMapper<BillingResponse> ACCOUNT_ROW_MAPPER = (rs, rowNum) -> BillingResponse.newBuilder()
+            .setPatientId(rs.getString("patient_id"))
+            .setAccountId(rs.getString("id"))
+            .setStatus(rs.getString("status"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BillingAccountReader(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** One response per id, in the given order; ids without an account get status {@link #NOT_FOUND}. */
+    public List<BillingResponse> findByPatientIds(List<String> patientIds) {
+        Map<String, BillingResponse> accounts = new HashMap<>();
+        jdbcTemplate.query(SELECT_BY_PATIENT_IDS,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", patientIds.toArray())),
+                rs -> {
+                    BillingResponse account = ACCOUNT_ROW_MAPPER.mapRow(rs, 0);
+                    accounts.put(account.getPatientId(), account);
+                });
+        return patientIds.stream()
+                .map(id -> accounts.getOrDefault(id,
+                        BillingResponse.newBuilder().setPatientId(id).setStatus(NOT_FOUND).build()))
+                .toList();
+    }
+
+    /** Up to {@code limit} accounts with a patient id after {@code afterPatientId} ("" for the first page). */
+    public List<BillingResponse> findPage(String afterPatientId, int limit) {
+        return jdbcTemplate.query(SELECT_PAGE, ACCOUNT_ROW_MAPPER, afterPatientId, limit);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.demo.account;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import billing.BillingRequest;
+import billing.BillingResponse;
+
+/**
+ * Persists billing accounts with group commit. Creates from all concurrent RPCs are queued and a
+ * single writer thread flushes whatever has accumulated, up to {@code billing.writer.batch-size}
+ * accounts, as one multi-row insert and one commit; requests that arrive during a flush go into
+ * the next one. {@code billing.writer.linger-ms} optionally holds a flush back for stragglers.
+ * <p>
+ * Creates are idempotent per patient: the insert skips patients that already have an account and
+ * every request is answered with the patient's one account, so a retried create returns the same
+ * account id instead of making a second account.
+ */
+@Component
+public class BillingAccountWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BillingAccountWriter.class);
+
+    static final String ACTIVE = "Active";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO billing_account (patient_id, name, email, status)
+            SELECT patient_id, name, email, ? FROM unnest(?::varchar[], ?::varchar[], ?::varchar[]) AS t(patient_id, name, email)
+            ON CONFLICT (patient_id) DO NOTHING
+            """;
+    private static final String SELECT_SQL =
+            "SELECT patient_id, id, status FROM billing_account WHERE patient_id = ANY(?::varchar[])";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long lingerMillis;
+    private final BlockingQueue<PendingAccount> pending;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private record PendingAccount(BillingRequest request, CompletableFuture<BillingResponse> response) {
+    }
+
+    public BillingAccountWriter(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${billing.writer.batch-size:500}") int batchSize,
+                                @Value("${billing.writer.linger-ms:0}") long lingerMillis,
+                                @Value("${billing.writer.queue-capacity:10000}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = Thread.ofPlatform().daemon().name("billing-account-writer").start(this::runWriter);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        writer.interrupt();
+    }
+
+    /**
+     * Queues the account for the next flush; the future completes with the patient's account
+     * once it is committed, or exceptionally if the queue is full or the flush fails.
+     */
+    public CompletableFuture<BillingResponse> create(BillingRequest request) {
+        CompletableFuture<BillingResponse> response = new CompletableFuture<>();
+        if (!pending.offer(new PendingAccount(request, response))) {
+            response.completeExceptionally(new RejectedExecutionException("Billing account queue is full"));
+        }
+        return response;
+    }
+
+    private void runWriter() {
+        List<PendingAccount> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(pending.take());
+                long lingerDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < batchSize) {
+                    long remaining = lingerDeadline - System.nanoTime();
+                    PendingAccount next = remaining > 0 ? pending.poll(remaining, TimeUnit.NANOSECONDS) : pending.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(p -> p.response().completeExceptionally(e));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingAccount> batch) {
+        String[] patientIds = new String[batch.size()];
+        String[] names = new String[batch.size()];
+        String[] emails = new String[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            BillingRequest request = batch.get(i).request();
+            patientIds[i] = request.getPatientId();
+            names[i] = request.getName();
+            emails[i] = request.getEmail();
+        }
+
+        Map<String, BillingResponse> accounts;
+        try {
+            accounts = write(patientIds, names, emails);
+        } catch (RuntimeException e) {
+            logger.error("Billing account flush of {} accounts failed: {}", batch.size(), e.getMessage());
+            batch.forEach(p -> p.response().completeExceptionally(e));
+            return;
+        }
+        for (PendingAccount p : batch) {
+            BillingResponse account = accounts.get(p.request().getPatientId());
+            if (account != null) {
+                p.response().complete(account);
+            } else {
+                p.response().completeExceptionally(
+                        new IllegalStateException("No billing account for patient " + p.request().getPatientId()));
+            }
+        }
+    }
+
+    // Read back after the insert rather than RETURNING: the insert returns nothing for patients
+    // that already had an account, and this statement also sees accounts other replicas committed.
+    private Map<String, BillingResponse> write(String[] patientIds, String[] names, String[] emails) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update(INSERT_SQL, ps -> {
+                ps.setString(1, ACTIVE);
+                ps.setArray(2, ps.getConnection().createArrayOf("varchar", patientIds));
+                ps.setArray(3, ps.getConnection().createArrayOf("varchar", names));
+                ps.setArray(4, ps.getConnection().createArrayOf("varchar", emails));
+            });
+            Map<String, BillingResponse> accounts = new HashMap<>();
+            jdbcTemplate.query(SELECT_SQL,
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", patientIds)),
+                    rs -> {
+                        accounts.put(rs.getString("patient_id"), BillingResponse.newBuilder()
+                                .setPatientId(rs.getString("patient_id"))
+                                .setAccountId(rs.getString("id"))
+                                .setStatus(rs.getString("status"))
+                                .build());
+                    });
+            return accounts;
+        });
+    }
+}
@@ -1,27 +1,225 @@
 package com.example.demo.grpc;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import billing.BillingAccountLookup;
+import billing.BillingAccountsRequest;
+import billing.BillingAccountsResponse;
 import billing.BillingRequest;
 import billing.BillingResponse;
 import billing.BillingServiceGrpc;
+import billing.ExportBillingAccountsRequest;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import net.devh.boot.grpc.server.service.GrpcService;
+
+import com.example.demo.account.BillingAccountReader;
+import com.example.demo.account.BillingAccountWriter;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 
 @GrpcService
 public class BillingGrpcService extends BillingServiceGrpc.BillingServiceImplBase {
     private static final Logger log = LoggerFactory.getLogger(BillingGrpcService.class);
+    private static final String SAVE_FAILED = "Billing account could not be saved";
+    private static final String READ_FAILED = "Billing accounts could not be read";
+
+    private final BillingAccountWriter accountWriter;
+    private final BillingAccountReader accountReader;
+    private final int streamPageSize;
+
+    public BillingGrpcService(BillingAccountWriter accountWriter,
+                              BillingAccountReader accountReader,
+                              @Value("${billing.stream.page-size:500}") int streamPageSize) {
+      this.accountWriter = accountWriter;
+      this.accountReader = accountReader;
+      this.streamPageSize = streamPageSize;
+    }
 
     @Override
     public void createBillingAccount(BillingRequest request, StreamObserver<BillingResponse> responseObserver) {
-      log.info("Creating BillingRequest {}", request.toString());
-
-      BillingResponse response = BillingResponse.newBuilder()
-          .setAccountId("1234")
-          .setStatus("Active")
-          .build();
-      responseObserver.onNext(response);
-      responseObserver.onCompleted();
-        
+      log.debug("Creating billing account for patient {}", request.getPatientId());
+
+      // Completes on the writer thread once the account is committed; the RPC thread is not held meanwhile
+      accountWriter.create(request).whenComplete((response, ex) -> {
+        if (ex != null) {
+          responseObserver.onError(toStatus(ex, SAVE_FAILED).asRuntimeException());
+          return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+      });
+    }
+
+    @Override
+    public void createBillingAccounts(BillingAccountsRequest request, StreamObserver<BillingAccountsResponse> responseObserver) {
+      log.debug("Creating {} billing accounts", request.getRequestsCount());
+
+      List<CompletableFuture<BillingResponse>> responses = request.getRequestsList().stream()
+          .map(accountWriter::create)
+          .toList();
+      CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).whenComplete((done, ex) -> {
+        if (ex != null) {
+          responseObserver.onError(toStatus(ex, SAVE_FAILED).asRuntimeException());
+          return;
+        }
+        BillingAccountsResponse.Builder response = BillingAccountsResponse.newBuilder();
+        responses.forEach(r -> response.addResponses(r.join()));
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+      });
+    }
+
+    @Override
+    public StreamObserver<BillingAccountLookup> getBillingAccounts(StreamObserver<BillingResponse> responseObserver) {
+      return new AccountLookup((ServerCallStreamObserver<BillingResponse>) responseObserver);
+    }
+
+    @Override
+    public void exportBillingAccounts(ExportBillingAccountsRequest request, StreamObserver<BillingResponse> responseObserver) {
+      log.debug("Exporting billing accounts after '{}'", request.getAfterPatientId());
+      new AccountExport((ServerCallStreamObserver<BillingResponse>) responseObserver, request.getAfterPatientId());
+    }
+
+    /**
+     * Looks up ids a page at a time. Ids are requested from the client one page ahead and the next
+     * page is only requested once the previous page's responses have been sent, so a client that
+     * reads slowly also slows down what it can send. gRPC delivers all callbacks of one call
+     * serially, so no locking is needed.
+     */
+    private class AccountLookup implements StreamObserver<BillingAccountLookup> {
+
+      private final ServerCallStreamObserver<BillingResponse> call;
+      private final List<String> patientIds = new ArrayList<>(streamPageSize);
+      private final Deque<BillingResponse> outbound = new ArrayDeque<>();
+      private int requested;
+      private boolean halfClosed;
+      private boolean finished;
+
+      AccountLookup(ServerCallStreamObserver<BillingResponse> call) {
+        this.call = call;
+        call.disableAutoRequest();
+        call.setOnReadyHandler(this::drain);
+        call.setOnCancelHandler(() -> finished = true);
+        request();
+      }
+
+      @Override
+      public void onNext(BillingAccountLookup lookup) {
+        requested--;
+        patientIds.add(lookup.getPatientId());
+        if (patientIds.size() == streamPageSize) {
+          lookUp();
+        }
+        drain();
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        finished = true;
+      }
+
+      @Override
+      public void onCompleted() {
+        halfClosed = true;
+        if (!patientIds.isEmpty()) {
+          lookUp();
+        }
+        drain();
+      }
+
+      private void lookUp() {
+        try {
+          outbound.addAll(accountReader.findByPatientIds(List.copyOf(patientIds)));
+          patientIds.clear();
+        } catch (RuntimeException e) {
+          finished = true;
+          call.onError(toStatus(e, READ_FAILED).asRuntimeException());
+        }
+      }
+
+      private void drain() {
+        while (!finished && !outbound.isEmpty() && call.isReady()) {
+          call.onNext(outbound.poll());
+        }
+        if (finished || !outbound.isEmpty()) {
+          return;
+        }
+        if (halfClosed) {
+          finished = true;
+          call.onCompleted();
+        } else if (requested == 0) {
+          request();
+        }
+      }
+
+      private void request() {
+        requested = streamPageSize - patientIds.size();
+        call.request(requested);
+      }
+    }
+
+    /**
+     * Streams accounts in patient id order, reading the next page only once the client has taken
+     * the previous one; a slow reader holds one page in memory, not the table.
+     */
+    private class AccountExport {
+
+      private final ServerCallStreamObserver<BillingResponse> call;
+      private final Deque<BillingResponse> page = new ArrayDeque<>();
+      private String afterPatientId;
+      private boolean lastPage;
+      private boolean finished;
+
+      AccountExport(ServerCallStreamObserver<BillingResponse> call, String afterPatientId) {
+        this.call = call;
+        this.afterPatientId = afterPatientId;
+        call.setOnReadyHandler(this::drain);
+        call.setOnCancelHandler(() -> finished = true);
+      }
+
+      private void drain() {
+        while (!finished && call.isReady()) {
+          if (page.isEmpty()) {
+            if (lastPage) {
+              finished = true;
+              call.onCompleted();
+              return;
+            }
+            try {
+              List<BillingResponse> next = accountReader.findPage(afterPatientId, streamPageSize);
+              lastPage = next.size() < streamPageSize;
+              if (!next.isEmpty()) {
+                afterPatientId = next.get(next.size() - 1).getPatientId();
+              }
+              page.addAll(next);
+            } catch (RuntimeException e) {
+              finished = true;
+              call.onError(toStatus(e, READ_FAILED).asRuntimeException());
+              return;
+            }
+            continue;
+          }
+          call.onNext(page.poll());
+        }
+      }
+    }
+
+    private static Status toStatus(Throwable ex, String description) {
+      Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+      if (cause instanceof RejectedExecutionException) {
+        return Status.RESOURCE_EXHAUSTED.withDescription(cause.getMessage());
+      }
+      log.error("{}: {}", description, cause.getMessage());
+      return Status.UNAVAILABLE.withDescription(description).withCause(cause);
     }
 }
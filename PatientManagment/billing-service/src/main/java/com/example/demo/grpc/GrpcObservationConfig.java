@@ -0,0 +1,20 @@
+package com.example.demo.grpc;
+
+import org.springframework.context.annotation.Configuration;
+
+import io.grpc.ServerInterceptor;
+import io.micrometer.core.instrument.binder.grpc.ObservationGrpcServerInterceptor;
+import io.micrometer.observation.ObservationRegistry;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+
+@Configuration(proxyBeanMethods = false)
+public class GrpcObservationConfig {
+
+    // Times every call as grpc.server and continues the trace from the caller's traceparent metadata.
+    // Registered here because grpc-spring-boot-starter's own tracing auto-configuration orders itself
+    // after a Spring Boot 3 class and does not apply on Boot 4.
+    @GrpcGlobalServerInterceptor
+    ServerInterceptor observationGrpcServerInterceptor(ObservationRegistry observationRegistry) {
+        return new ObservationGrpcServerInterceptor(observationRegistry);
+    }
+}
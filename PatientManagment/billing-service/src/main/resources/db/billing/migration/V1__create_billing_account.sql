@@ -0,0 +1,9 @@
+CREATE TABLE billing_account (
+    id          UUID         PRIMARY KEY DEFAULT gen_random_uuid(),
+    -- One account per patient; the unique index also serves every create and lookup
+    patient_id  VARCHAR(64)  NOT NULL CONSTRAINT uk_billing_account_patient_id UNIQUE,
+    name        VARCHAR(255),
+    email       VARCHAR(255),
+    status      VARCHAR(20)  NOT NULL,
+    created_at  TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
@@ -0,0 +1,156 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import billing.BillingRequest;
+import billing.BillingResponse;
+import billing.BillingServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Drives concurrent CreateBillingAccount RPCs against the full service on an embedded PostgreSQL,
+ * once with one commit per account (billing.writer.batch-size=1) and once with group commit, and
+ * prints accounts/s and p50/p99 latency. Every account must be stored exactly once.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class BillingAccountThroughputBenchmarkTests {
+
+    private static final int ACCOUNTS = 20_000;
+    private static final int CONCURRENCY = 200;
+
+    private static EmbeddedPostgres postgres;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void compareCommitPerAccountWithGroupCommit() throws Exception {
+        Result single = run("per-account", 1);
+        Result grouped = run("group", 500);
+
+        System.out.println(single);
+        System.out.println(grouped);
+
+        assertThat(single.failures()).isZero();
+        assertThat(grouped.failures()).isZero();
+    }
+
+    private Result run(String mode, int batchSize) throws Exception {
+        int port = freePort();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BillingServiceApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--grpc.server.port=" + port,
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres") + "&currentSchema=billing",
+                        "--billing.writer.batch-size=" + batchSize,
+                        "--logging.level.root=WARN")) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            jdbcTemplate.execute("TRUNCATE billing_account");
+
+            ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", port).usePlaintext().build();
+            try {
+                Result result = drive(mode, BillingServiceGrpc.newFutureStub(channel));
+                long stored = jdbcTemplate.queryForObject("SELECT count(DISTINCT patient_id) FROM billing_account", Long.class);
+                assertThat(stored).isEqualTo(ACCOUNTS);
+                return result;
+            } finally {
+                channel.shutdownNow();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private Result drive(String mode, BillingServiceGrpc.BillingServiceFutureStub stub) throws InterruptedException {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failures = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(ACCOUNTS);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            BillingRequest request = BillingRequest.newBuilder().setPatientId(mode + "-" + i)
+                    .setName("Load " + i).setEmail("load" + i + "@example.com").build();
+            Futures.addCallback(stub.withDeadlineAfter(30, TimeUnit.SECONDS).createBillingAccount(request),
+                    new FutureCallback<BillingResponse>() {
+                        @Override
+                        public void onSuccess(BillingResponse response) {
+                            finish();
+                        }
+
+                        @Override
+                        public void onFailure(Throwable t) {
+                            failures.incrementAndGet();
+                            finish();
+                        }
+
+                        private void finish() {
+                            latencies.add(System.nanoTime() - sent);
+                            inFlight.release();
+                            if (remaining.decrementAndGet() == 0) {
+                                done.complete(null);
+                            }
+                        }
+                    }, MoreExecutors.directExecutor());
+        }
+        done.orTimeout(5, TimeUnit.MINUTES).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return new Result(mode, ACCOUNTS, failures.get(), ACCOUNTS / seconds,
+                percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99));
+    }
+
+    private static double percentileMillis(List<Long> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)) / 1e6;
+    }
+
+    record Result(String mode, int accounts, int failures, double accountsPerSecond, double p50Millis, double p99Millis) {
+        @Override
+        public String toString() {
+            return "%-12s %d accounts, %d failed, %.0f accounts/s, p50 %.1f ms, p99 %.1f ms"
+                    .formatted(mode, accounts, failures, accountsPerSecond, p50Millis, p99Millis);
+        }
+    }
+}
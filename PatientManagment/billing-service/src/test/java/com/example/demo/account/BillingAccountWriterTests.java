@@ -0,0 +1,100 @@
+package com.example.demo.account;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import billing.BillingRequest;
+import billing.BillingResponse;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+class BillingAccountWriterTests {
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+
+    private BillingAccountWriter writer;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).schemas("billing").locations("classpath:db/billing/migration").load().migrate();
+        jdbcTemplate = new JdbcTemplate(postgres.getDatabase("postgres", "postgres", Map.of("currentSchema", "billing")));
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE billing_account");
+        writer = new BillingAccountWriter(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource())), 500, 0, 10_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.shutdown();
+    }
+
+    @Test
+    void concurrentCreatesShareCommits() {
+        List<CompletableFuture<BillingResponse>> responses = IntStream.range(0, 2_000)
+                .mapToObj(i -> writer.create(request("p" + i)))
+                .toList();
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).orTimeout(30, TimeUnit.SECONDS).join();
+
+        assertThat(responses).allSatisfy(r -> assertThat(r.join().getAccountId()).isNotBlank());
+        assertThat(responses.get(7).join().getPatientId()).isEqualTo("p7");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM billing_account", Long.class)).isEqualTo(2_000);
+        // created_at is now(), the transaction start, so each distinct value is one flush
+        assertThat(jdbcTemplate.queryForObject("SELECT count(DISTINCT created_at) FROM billing_account", Long.class))
+                .isLessThan(100);
+    }
+
+    @Test
+    void retriedCreatesReturnThePatientsExistingAccount() {
+        CompletableFuture<BillingResponse> first = writer.create(request("42"));
+        // Same patient within the same flush
+        CompletableFuture<BillingResponse> duplicate = writer.create(request("42"));
+        String accountId = first.join().getAccountId();
+        // And in a later flush
+        BillingResponse retried = writer.create(request("42")).join();
+
+        assertThat(duplicate.join().getAccountId()).isEqualTo(accountId);
+        assertThat(retried.getAccountId()).isEqualTo(accountId);
+        assertThat(retried.getStatus()).isEqualTo("Active");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM billing_account", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void patientIdLookupsUseTheUniqueIndex() {
+        jdbcTemplate.execute("SET enable_seqscan = off");
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT id FROM billing_account WHERE patient_id = ANY('{1,2}'::varchar[])", String.class);
+
+        assertThat(plan).anyMatch(line -> line.contains("uk_billing_account_patient_id"));
+    }
+
+    private static BillingRequest request(String patientId) {
+        return BillingRequest.newBuilder().setPatientId(patientId).setName("Patient " + patientId)
+                .setEmail(patientId + "@example.com").build();
+    }
+}
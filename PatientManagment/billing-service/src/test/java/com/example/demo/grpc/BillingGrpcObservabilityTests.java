@@ -0,0 +1,84 @@
+package com.example.demo.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.BillingServiceApplication;
+
+import billing.BillingRequest;
+import billing.BillingServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Metadata;
+import io.grpc.stub.MetadataUtils;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+class BillingGrpcObservabilityTests {
+
+    private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+
+    private static EmbeddedPostgres postgres;
+    private static ConfigurableApplicationContext context;
+    private static ManagedChannel channel;
+
+    @BeforeAll
+    static void start() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        int grpcPort = freePort();
+        context = new SpringApplicationBuilder(BillingServiceApplication.class)
+                .run("--server.port=0",
+                        "--grpc.server.port=" + grpcPort,
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres") + "&currentSchema=billing",
+                        "--management.tracing.sampling.probability=1.0",
+                        "--logging.level.root=WARN");
+        channel = ManagedChannelBuilder.forAddress("localhost", grpcPort).usePlaintext().build();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        channel.shutdownNow();
+        context.close();
+        postgres.close();
+    }
+
+    @Test
+    void callsAreTimedAndJoinTheCallersTrace() throws Exception {
+        Metadata headers = new Metadata();
+        headers.put(Metadata.Key.of("traceparent", Metadata.ASCII_STRING_MARSHALLER), "00-" + TRACE_ID + "-b7ad6b7169203331-01");
+        BillingServiceGrpc.newBlockingStub(channel)
+                .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers))
+                .withDeadlineAfter(10, TimeUnit.SECONDS)
+                .createBillingAccount(BillingRequest.newBuilder().setPatientId("42").setName("Traced").setEmail("traced@example.com").build());
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        // OpenMetrics carries exemplars: the trace id of a request that landed in each histogram bucket
+        String scrape = HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/prometheus"))
+                        .header("Accept", "application/openmetrics-text")
+                        .build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+
+        assertThat(scrape.lines().filter(line -> line.startsWith("grpc_server_seconds_bucket{")))
+                .isNotEmpty()
+                .anySatisfy(line -> assertThat(line).contains("method=\"CreateBillingAccount\"", "trace_id=\"" + TRACE_ID + "\""));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
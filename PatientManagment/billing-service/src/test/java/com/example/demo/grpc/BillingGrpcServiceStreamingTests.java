@@ -0,0 +1,183 @@
+package com.example.demo.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.account.BillingAccountReader;
+import com.example.demo.account.BillingAccountWriter;
+
+import billing.BillingAccountLookup;
+import billing.BillingResponse;
+import billing.BillingServiceGrpc;
+import billing.ExportBillingAccountsRequest;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+class BillingGrpcServiceStreamingTests {
+
+    private static final int ACCOUNTS = 10_000;
+    private static final int PAGE_SIZE = 100;
+
+    private static EmbeddedPostgres postgres;
+    private static BillingAccountWriter writer;
+    private static Server server;
+    private static ManagedChannel channel;
+    private static final AtomicInteger pagesRead = new AtomicInteger();
+
+    @BeforeAll
+    static void start() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).schemas("billing").locations("classpath:db/billing/migration").load().migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(postgres.getDatabase("postgres", "postgres", Map.of("currentSchema", "billing")));
+        jdbcTemplate.execute("INSERT INTO billing_account (patient_id, name, email, status) "
+                + "SELECT 'p' || lpad(g::text, 5, '0'), 'Patient ' || g, 'p' || g || '@example.com', 'Active' "
+                + "FROM generate_series(1, " + ACCOUNTS + ") g");
+
+        writer = new BillingAccountWriter(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource())), 500, 0, 10_000);
+        BillingAccountReader reader = new BillingAccountReader(jdbcTemplate) {
+            @Override
+            public List<BillingResponse> findPage(String afterPatientId, int limit) {
+                pagesRead.incrementAndGet();
+                return super.findPage(afterPatientId, limit);
+            }
+        };
+        server = ServerBuilder.forPort(0).addService(new BillingGrpcService(writer, reader, PAGE_SIZE)).build().start();
+        channel = ManagedChannelBuilder.forAddress("localhost", server.getPort()).usePlaintext().build();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        channel.shutdownNow();
+        server.shutdownNow();
+        writer.shutdown();
+        postgres.close();
+    }
+
+    @Test
+    void lookupAnswersEveryIdInTheOrderSent() {
+        List<String> ids = new ArrayList<>(IntStream.rangeClosed(1, 2_500).mapToObj(i -> "p%05d".formatted(i)).toList());
+        ids.add(1_000, "missing-1");
+        ids.add("missing-2");
+        Collections.shuffle(ids);
+
+        List<BillingResponse> responses = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        StreamObserver<BillingAccountLookup> requests = BillingServiceGrpc.newStub(channel)
+                .getBillingAccounts(collectInto(responses, done));
+        ids.forEach(id -> requests.onNext(BillingAccountLookup.newBuilder().setPatientId(id).build()));
+        requests.onCompleted();
+        done.orTimeout(30, TimeUnit.SECONDS).join();
+
+        assertThat(responses).extracting(BillingResponse::getPatientId).containsExactlyElementsOf(ids);
+        assertThat(responses).filteredOn(r -> r.getPatientId().startsWith("missing"))
+                .allSatisfy(r -> {
+                    assertThat(r.getStatus()).isEqualTo(BillingAccountReader.NOT_FOUND);
+                    assertThat(r.getAccountId()).isEmpty();
+                });
+        assertThat(responses).filteredOn(r -> r.getPatientId().startsWith("p"))
+                .allSatisfy(r -> assertThat(r.getAccountId()).isNotBlank());
+    }
+
+    @Test
+    void exportStreamsEveryAccountAndResumesAfterAPatient() {
+        List<String> all = new ArrayList<>();
+        BillingServiceGrpc.newBlockingStub(channel).exportBillingAccounts(ExportBillingAccountsRequest.getDefaultInstance())
+                .forEachRemaining(r -> all.add(r.getPatientId()));
+
+        assertThat(all).hasSize(ACCOUNTS).isSorted();
+
+        List<String> resumed = new ArrayList<>();
+        BillingServiceGrpc.newBlockingStub(channel)
+                .exportBillingAccounts(ExportBillingAccountsRequest.newBuilder().setAfterPatientId(all.get(4_321)).build())
+                .forEachRemaining(r -> resumed.add(r.getPatientId()));
+
+        assertThat(resumed).isEqualTo(all.subList(4_322, ACCOUNTS));
+    }
+
+    @Test
+    void exportOnlyReadsAheadOfAClientThatStopsReading() throws InterruptedException {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        AtomicInteger received = new AtomicInteger();
+        ClientResponseObserver<ExportBillingAccountsRequest, BillingResponse> slowClient = new ClientResponseObserver<>() {
+            @Override
+            public void beforeStart(ClientCallStreamObserver<ExportBillingAccountsRequest> requestStream) {
+                requestStream.disableAutoRequestWithInitial(10);
+            }
+
+            @Override
+            public void onNext(BillingResponse value) {
+                received.incrementAndGet();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                done.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                done.complete(null);
+            }
+        };
+
+        // A 64 KiB HTTP/2 window instead of the 1 MiB default, so transport buffering stays well below the table size
+        ManagedChannel smallWindow = NettyChannelBuilder.forAddress("localhost", server.getPort())
+                .usePlaintext().flowControlWindow(64 * 1024).build();
+        try {
+            int pagesBefore = pagesRead.get();
+            BillingServiceGrpc.newStub(smallWindow).exportBillingAccounts(ExportBillingAccountsRequest.getDefaultInstance(), slowClient);
+            Thread.sleep(1_000);
+
+            assertThat(received.get()).isEqualTo(10);
+            // Transport buffers hold a few pages; the rest of the table must stay unread
+            assertThat(pagesRead.get() - pagesBefore).isLessThan(ACCOUNTS / PAGE_SIZE / 4);
+            assertThat(done).isNotDone();
+        } finally {
+            smallWindow.shutdownNow();
+        }
+    }
+
+    private static StreamObserver<BillingResponse> collectInto(List<BillingResponse> responses, CompletableFuture<Void> done) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(BillingResponse value) {
+                responses.add(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                done.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                done.complete(null);
+            }
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package com.patientmanagement.demo.grpc;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.patientmanagement.demo.model.Patient;
+
+import billing.BillingAccountsRequest;
+import billing.BillingRequest;
+
+/**
+ * Building the CreateBillingAccounts message the way BillingServiceClient batches it, and
+ * serialising it as gRPC does before the call leaves the process.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BillingRequestBenchmark {
+
+    // 1 for a single create; 100 is billing.client.batch-size's default
+    @Param({"1", "100"})
+    public int batchSize;
+
+    private List<Patient> patients;
+    private BillingAccountsRequest built;
+
+    @Setup
+    public void setUp() {
+        patients = IntStream.range(0, batchSize)
+                .mapToObj(i -> Patient.builder()
+                        .id(10_000L + i)
+                        .name("Patient " + i)
+                        .email("patient" + i + "@example.com")
+                        .build())
+                .toList();
+        built = build();
+    }
+
+    @Benchmark
+    public BillingAccountsRequest build() {
+        BillingAccountsRequest.Builder request = BillingAccountsRequest.newBuilder();
+        for (Patient patient : patients) {
+            BillingRequest billingRequest = BillingServiceClient.billingRequest(patient.getId().toString(), patient.getName(), patient.getEmail());
+            request.addRequests(billingRequest);
+        }
+        return request.build();
+    }
+
+    @Benchmark
+    public byte[] buildAndSerialize() {
+        return build().toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return built.toByteArray();
+    }
+}
@@ -0,0 +1,87 @@
+package com.patientmanagement.demo.kafka;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patientmanagement.common.kafka.PatientEvents;
+import com.patientmanagement.demo.model.Patient;
+
+import patient.events.PatientEvent;
+
+/**
+ * patient-events payloads in both formats: encoding as the outbox does, and decoding as
+ * analytics-service's consumer does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientEventCodecBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Patient patient;
+    private byte[] protobuf;
+    private byte[] json;
+
+    @Setup
+    public void setUp() {
+        patient = Patient.builder()
+                .id(4217L)
+                .name("Ada Lovelace")
+                .email("ada.lovelace@example.com")
+                .phoneNumber("555-0142")
+                .priority(2)
+                .dateOfBirth(LocalDate.of(1990, 5, 15))
+                .registerDate(LocalDate.of(2026, 2, 15))
+                .build();
+        protobuf = PatientEvents.encode(PatientEvents.PROTOBUF, patient, "UPDATE");
+        json = PatientEvents.encode(PatientEvents.JSON, patient, "UPDATE");
+    }
+
+    @Benchmark
+    public byte[] encodeProtobuf() {
+        return PatientEvents.encode(PatientEvents.PROTOBUF, patient, "UPDATE");
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return PatientEvents.encode(PatientEvents.JSON, patient, "UPDATE");
+    }
+
+    @Benchmark
+    public PatientEvent decodeProtobuf() throws IOException {
+        return PatientEvent.parseFrom(protobuf);
+    }
+
+    // Same steps as analytics-service's KafkaConsumer.decode for legacy JSON records
+    @Benchmark
+    public PatientEvent decodeJson() throws IOException {
+        JsonNode event = objectMapper.readTree(json);
+        return PatientEvent.newBuilder()
+                .setPatientid(event.has("patientId") ? event.get("patientId").asText() : "unknown")
+                .setName(event.has("name") ? event.get("name").asText() : "unknown")
+                .setEmail(event.has("email") ? event.get("email").asText() : "unknown")
+                .setEventType(event.has("eventType") ? event.get("eventType").asText() : "unknown")
+                .setPriority(event.path("priority").asInt())
+                .setRegisterDate(event.path("registerDate").asText(""))
+                .setOccurredAt(event.path("occurredAt").asLong())
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+package com.patientmanagement.demo.mapper;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.patientmanagement.common.dto.PatientRequestDTO;
+import com.patientmanagement.common.dto.PatientResponseDTO;
+import com.patientmanagement.common.mapper.PatientMapper;
+import com.patientmanagement.demo.model.Patient;
+
+/** Entity/DTO conversion done for every patient read and written through the API. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientMapperBenchmark {
+
+    private Patient patient;
+    private PatientRequestDTO request;
+
+    @Setup
+    public void setUp() {
+        patient = Patient.builder()
+                .id(4217L)
+                .name("Ada Lovelace")
+                .email("ada.lovelace@example.com")
+                .phoneNumber("555-0142")
+                .priority(2)
+                .dateOfBirth(LocalDate.of(1990, 5, 15))
+                .registerDate(LocalDate.of(2026, 2, 15))
+                .build();
+        request = PatientRequestDTO.builder()
+                .name(patient.getName())
+                .email(patient.getEmail())
+                .phoneNumber(patient.getPhoneNumber())
+                .priority(patient.getPriority())
+                .dateOfBirth(patient.getDateOfBirth())
+                .registerDate(patient.getRegisterDate())
+                .build();
+    }
+
+    @Benchmark
+    public PatientResponseDTO toDto() {
+        return PatientMapper.toDto(patient);
+    }
+
+    @Benchmark
+    public Patient toModel() {
+        return PatientMapper.toModel(request, new Patient());
+    }
+}
@@ -0,0 +1,108 @@
+package com.patientmanagement.demo.service;
+
+import java.time.LocalDate;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import com.patientmanagement.demo.service.TriageQueue.Entry;
+
+/**
+ * Many claimers on one triage queue. Each claim admits a new patient so the queue stays at
+ * {@code waiting}. The single-lock variant is the same workload on a PriorityBlockingQueue,
+ * as a baseline for how claims scale with and without a global lock; the grouped benchmark
+ * adds a writer re-prioritising patients while they are claimed.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TriageQueueBenchmark {
+
+    private static final int CLAIMERS = 16;
+    private static final LocalDate DAY = LocalDate.of(2026, 2, 15);
+
+    @Param({"10000", "100000"})
+    public int waiting;
+
+    private TriageQueue triageQueue;
+    private PriorityBlockingQueue<Entry> singleLockQueue;
+
+    // Ids are handed out per thread so admitting a patient adds no shared counter of its own
+    @State(Scope.Thread)
+    public static class Admissions {
+        private long nextId;
+
+        @Setup
+        public void setUp(ThreadParams threads) {
+            nextId = (threads.getThreadIndex() + 1L) << 40;
+        }
+
+        Entry next() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return new Entry(nextId++, 1 + random.nextInt(3), DAY.minusDays(random.nextInt(365)));
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        triageQueue = new TriageQueue();
+        singleLockQueue = new PriorityBlockingQueue<>(waiting, TriageQueue.CLAIM_ORDER);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long id = 1; id <= waiting; id++) {
+            Entry entry = new Entry(id, 1 + random.nextInt(3), DAY.minusDays(random.nextInt(365)));
+            triageQueue.offer(entry);
+            singleLockQueue.add(entry);
+        }
+    }
+
+    @Benchmark
+    @Threads(CLAIMERS)
+    public Entry claimAndAdmit(Admissions admissions) {
+        Entry claimed = triageQueue.poll();
+        triageQueue.offer(admissions.next());
+        return claimed;
+    }
+
+    @Benchmark
+    @Threads(CLAIMERS)
+    public Entry claimAndAdmitSingleLock(Admissions admissions) {
+        Entry claimed = singleLockQueue.poll();
+        singleLockQueue.add(admissions.next());
+        return claimed;
+    }
+
+    @Benchmark
+    @Group("claimWhileUpdating")
+    @GroupThreads(CLAIMERS)
+    public Entry claimers(Admissions admissions) {
+        return claimAndAdmit(admissions);
+    }
+
+    // Re-prioritises random patients from the initial load; most have been claimed already and are re-queued
+    @Benchmark
+    @Group("claimWhileUpdating")
+    @GroupThreads(1)
+    public void updater() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        triageQueue.offer(new Entry(1 + random.nextInt(waiting), 1 + random.nextInt(3), DAY.minusDays(random.nextInt(365))));
+    }
+}
@@ -0,0 +1,17 @@
+package com.patientmanagement.common.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResultDTO {
+    private int total;
+    private int created;
+    private int failed;
+    private List<BulkImportRowResultDTO> rows;
+}
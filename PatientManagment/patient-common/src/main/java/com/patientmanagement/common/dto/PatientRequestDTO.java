@@ -1,8 +1,8 @@
-package com.patientmanagement.demo.dto;
+package com.patientmanagement.common.dto;
 
 import java.time.LocalDate;
 
-import com.patientmanagement.demo.dto.validation.CreatePatientValidationgroup;
+import com.patientmanagement.common.dto.validation.CreatePatientValidationgroup;
 
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
@@ -1,4 +1,4 @@
-package com.patientmanagement.demo.dto;
+package com.patientmanagement.common.dto;
 
 import lombok.Data;
 
@@ -0,0 +1,47 @@
+package com.patientmanagement.common.dto;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PatientSearchCriteria {
+
+    // Case-insensitive name prefix
+    private String name;
+
+    @Min(1)
+    @Max(3)
+    private Integer priority;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate registeredFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate registeredTo;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate bornFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate bornTo;
+
+    @Pattern(regexp = "id|registerDate", message = "sort must be id or registerDate")
+    @Builder.Default
+    private String sort = "id";
+    @Pattern(regexp = "asc|desc", message = "direction must be asc or desc")
+    @Builder.Default
+    private String direction = "asc";
+
+    // Opaque X-Next-Cursor value from the previous page
+    private String after;
+    private Integer size;
+}
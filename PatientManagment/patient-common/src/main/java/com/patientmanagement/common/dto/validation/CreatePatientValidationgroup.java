@@ -1,4 +1,4 @@
-package com.patientmanagement.demo.dto.validation;
+package com.patientmanagement.common.dto.validation;
 
 public interface CreatePatientValidationgroup {
     
@@ -1,4 +1,4 @@
-package com.patientmanagement.demo.exception;
+package com.patientmanagement.common.exception;
 
 public class PatientNotFoundException extends RuntimeException{
     
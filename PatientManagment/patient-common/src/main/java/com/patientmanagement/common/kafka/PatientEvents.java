@@ -0,0 +1,103 @@
+package com.patientmanagement.common.kafka;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.patientmanagement.common.model.PatientDetails;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import patient.events.PatientEvent;
+
+/**
+ * Encodes and decodes patient-events. Records carry a content-type header so consumers can tell the
+ * {@link PatientEvent} protobuf payload from the legacy JSON one while both are in flight.
+ */
+public final class PatientEvents {
+
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+    public static final String VERSION_HEADER = "event-version";
+    public static final String PROTOBUF = "application/x-protobuf";
+    public static final String JSON = "application/json";
+
+    private static final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    private PatientEvents() {
+    }
+
+    public static byte[] encode(String contentType, PatientDetails patient, String eventType) {
+        return encode(contentType, toEvent(patient.getId(), patient, eventType));
+    }
+
+    public static byte[] encodeDelete(String contentType, Long patientId) {
+        return encode(contentType, toEvent(patientId, null, "DELETE"));
+    }
+
+    /**
+     * Reads a record's payload in either format; a record without a content-type header predates
+     * it and is JSON. A malformed JSON payload throws an unchecked {@link JacksonException}.
+     */
+    public static PatientEvent decode(String contentType, byte[] payload) throws IOException {
+        if (PROTOBUF.equals(contentType)) {
+            return PatientEvent.parseFrom(payload);
+        }
+        JsonNode event = objectMapper.readTree(payload);
+        // Jackson 3 throws on a missing field unless given a default, and a DELETE only carries the id
+        return PatientEvent.newBuilder()
+                .setPatientid(event.path("patientId").asString(""))
+                .setName(event.path("name").asString(""))
+                .setEmail(event.path("email").asString(""))
+                .setEventType(event.path("eventType").asString(""))
+                .setPriority(event.path("priority").asInt(0))
+                .setRegisterDate(event.path("registerDate").asString(""))
+                .setOccurredAt(event.path("occurredAt").asLong(0))
+                .build();
+    }
+
+    public static String version(String contentType) {
+        return PROTOBUF.equals(contentType) ? "2" : "1";
+    }
+
+    private static PatientEvent toEvent(Long patientId, PatientDetails patient, String eventType) {
+        PatientEvent.Builder event = PatientEvent.newBuilder()
+                .setPatientid(patientId.toString())
+                .setEventType(eventType)
+                .setOccurredAt(System.currentTimeMillis());
+        if (patient != null) {
+            event.setName(patient.getName())
+                    .setEmail(patient.getEmail())
+                    .setPriority(patient.getPriority())
+                    .setRegisterDate(patient.getRegisterDate().toString());
+        }
+        return event.build();
+    }
+
+    private static byte[] encode(String contentType, PatientEvent event) {
+        if (PROTOBUF.equals(contentType)) {
+            return event.toByteArray();
+        }
+        try {
+            return toJson(event);
+        } catch (JacksonException e) {
+            throw new IllegalStateException("Failed to serialise " + event.getEventType() + " event for patient " + event.getPatientid(), e);
+        }
+    }
+
+    private static byte[] toJson(PatientEvent event) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("patientId", event.getPatientid());
+        if (!event.getName().isEmpty()) {
+            json.put("name", event.getName());
+            json.put("email", event.getEmail());
+            json.put("priority", event.getPriority());
+            json.put("registerDate", event.getRegisterDate());
+        }
+        json.put("eventType", event.getEventType());
+        json.put("occurredAt", event.getOccurredAt());
+        return objectMapper.writeValueAsBytes(json);
+    }
+}
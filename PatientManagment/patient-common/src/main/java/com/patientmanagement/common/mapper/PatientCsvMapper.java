@@ -0,0 +1,106 @@
+package com.patientmanagement.common.mapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.patientmanagement.common.dto.PatientRequestDTO;
+
+/**
+ * Reads patients from CSV with a header row naming the {@link PatientRequestDTO} fields
+ * (name,email,phoneNumber,priority,dateOfBirth,registerDate), in any order.
+ */
+public class PatientCsvMapper {
+
+    public record Row(int number, PatientRequestDTO patient, String error) {
+    }
+
+    public static List<Row> fromCsv(Reader reader) throws IOException {
+        BufferedReader lines = new BufferedReader(reader);
+        String header = lines.readLine();
+        if (header == null) {
+            return List.of();
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = split(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        List<Row> rows = new ArrayList<>();
+        int number = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            number++;
+            List<String> values = split(line);
+            try {
+                rows.add(new Row(number, toDto(columns, values), null));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                rows.add(new Row(number, null, "Unparseable value: " + e.getMessage()));
+            }
+        }
+        return rows;
+    }
+
+    private static PatientRequestDTO toDto(Map<String, Integer> columns, List<String> values) {
+        String priority = value(columns, values, "priority");
+        String dateOfBirth = value(columns, values, "dateofbirth");
+        String registerDate = value(columns, values, "registerdate");
+        return PatientRequestDTO.builder()
+                .name(value(columns, values, "name"))
+                .email(value(columns, values, "email"))
+                .phoneNumber(value(columns, values, "phonenumber"))
+                .priority(priority == null ? 0 : Integer.parseInt(priority))
+                .dateOfBirth(dateOfBirth == null ? null : LocalDate.parse(dateOfBirth))
+                .registerDate(registerDate == null ? null : LocalDate.parse(registerDate))
+                .build();
+    }
+
+    private static String value(Map<String, Integer> columns, List<String> values, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Splits one line on commas, honouring double-quoted fields and "" escapes.
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
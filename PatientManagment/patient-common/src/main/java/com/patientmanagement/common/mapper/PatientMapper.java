@@ -1,11 +1,11 @@
-package com.patientmanagement.demo.mapper;
+package com.patientmanagement.common.mapper;
 
-import com.patientmanagement.demo.dto.PatientRequestDTO;
-import com.patientmanagement.demo.dto.PatientResponseDTO;
-import com.patientmanagement.demo.model.Patient;
+import com.patientmanagement.common.dto.PatientRequestDTO;
+import com.patientmanagement.common.dto.PatientResponseDTO;
+import com.patientmanagement.common.model.PatientDetails;
 
 public class PatientMapper {
-    public static PatientResponseDTO toDto(Patient patient){
+    public static PatientResponseDTO toDto(PatientDetails patient){
     PatientResponseDTO patientDto=new PatientResponseDTO();
     patientDto.setId(patient.getId().toString());
     patientDto.setName(patient.getName());
@@ -18,8 +18,8 @@ public class PatientMapper {
     
     }
     
-    public static Patient toModel(PatientRequestDTO dto){
-        Patient patient = new Patient();
+    // Fills the caller's entity, so each service gets back its own Patient type
+    public static <T extends PatientDetails> T toModel(PatientRequestDTO dto, T patient){
         patient.setName(dto.getName());
         patient.setEmail(dto.getEmail());
         patient.setPhoneNumber(dto.getPhoneNumber());
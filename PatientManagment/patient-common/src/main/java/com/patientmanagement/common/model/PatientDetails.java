@@ -0,0 +1,37 @@
+package com.patientmanagement.common.model;
+
+import java.time.LocalDate;
+
+/**
+ * The patient fields the shared mappers and event codec read and write. patient-service's JPA
+ * entity and patient-service-reactive's R2DBC one both implement it through their Lombok
+ * accessors, so neither service's persistence annotations leak into this module.
+ */
+public interface PatientDetails {
+
+    Long getId();
+
+    String getName();
+
+    void setName(String name);
+
+    String getEmail();
+
+    void setEmail(String email);
+
+    String getPhoneNumber();
+
+    void setPhoneNumber(String phoneNumber);
+
+    int getPriority();
+
+    void setPriority(int priority);
+
+    LocalDate getDateOfBirth();
+
+    void setDateOfBirth(LocalDate dateOfBirth);
+
+    LocalDate getRegisterDate();
+
+    void setRegisterDate(LocalDate registerDate);
+}
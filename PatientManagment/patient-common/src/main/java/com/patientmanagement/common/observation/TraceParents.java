@@ -0,0 +1,45 @@
+package com.patientmanagement.common.observation;
+
+import io.micrometer.tracing.CurrentTraceContext;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+
+/**
+ * Carries a trace across work that is handed off through the database, such as outbox rows
+ * published later by another thread. The context is stored as a W3C traceparent
+ * ({@code 00-<trace id>-<span id>-<flags>}) and restored as the current context when the work
+ * is picked up, so spans started there join the original trace.
+ */
+public final class TraceParents {
+
+    private static final CurrentTraceContext.Scope NO_SCOPE = () -> {
+    };
+
+    private TraceParents() {
+    }
+
+    /** The current span as a traceparent, or null when there is none. */
+    public static String current(Tracer tracer) {
+        Span span = tracer.currentSpan();
+        if (span == null) {
+            return null;
+        }
+        TraceContext context = span.context();
+        return "00-" + context.traceId() + "-" + context.spanId() + "-" + (Boolean.TRUE.equals(context.sampled()) ? "01" : "00");
+    }
+
+    /** Makes {@code traceParent} the current context until the scope is closed; a no-op for null or malformed values. */
+    public static CurrentTraceContext.Scope restore(Tracer tracer, String traceParent) {
+        String[] parts = traceParent == null ? new String[0] : traceParent.split("-");
+        if (parts.length != 4) {
+            return NO_SCOPE;
+        }
+        TraceContext context = tracer.traceContextBuilder()
+                .traceId(parts[1])
+                .spanId(parts[2])
+                .sampled("01".equals(parts[3]))
+                .build();
+        return tracer.currentTraceContext().newScope(context);
+    }
+}
@@ -0,0 +1,33 @@
+package com.patientmanagement.common.web;
+
+import java.time.Duration;
+
+/**
+ * The cookie that carries read-your-writes with the client rather than with whichever instance
+ * served its write. Both patient APIs set it on every write, holding the write's time in epoch
+ * milliseconds; patient-service sends that client's reads to the primary while it is recent.
+ * Because the client brings it along, it works whichever instance, MVC or reactive, took the
+ * write and whichever one serves the next read.
+ */
+public final class LastWriteCookie {
+
+    public static final String NAME = "patient-last-write";
+
+    private LastWriteCookie() {
+    }
+
+    /**
+     * Whether a cookie value is within {@code window} of {@code nowMillis}. Either side of it
+     * counts, so a writer whose clock runs slightly ahead still pins; anything unreadable does not.
+     */
+    public static boolean isRecent(String value, long nowMillis, Duration window) {
+        if (value == null) {
+            return false;
+        }
+        try {
+            return Math.abs(nowMillis - Long.parseLong(value.trim())) < window.toMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
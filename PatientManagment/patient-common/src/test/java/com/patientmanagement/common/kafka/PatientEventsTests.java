@@ -0,0 +1,59 @@
+package com.patientmanagement.common.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.patientmanagement.common.dto.PatientRequestDTO;
+import com.patientmanagement.common.mapper.PatientMapper;
+import com.patientmanagement.common.model.PatientDetails;
+
+import lombok.Data;
+import patient.events.PatientEvent;
+
+class PatientEventsTests {
+
+    @Data
+    static class TestPatient implements PatientDetails {
+        private Long id;
+        private String name;
+        private String email;
+        private String phoneNumber;
+        private int priority;
+        private LocalDate dateOfBirth;
+        private LocalDate registerDate;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {PatientEvents.PROTOBUF, PatientEvents.JSON})
+    void eventsRoundTripInEitherFormat(String contentType) throws IOException {
+        TestPatient patient = PatientMapper.toModel(PatientRequestDTO.builder()
+                .name("Ada")
+                .email("ada@example.com")
+                .phoneNumber("555-0100")
+                .priority(2)
+                .dateOfBirth(LocalDate.of(1990, 5, 15))
+                .registerDate(LocalDate.of(2026, 2, 15))
+                .build(), new TestPatient());
+        patient.setId(42L);
+
+        PatientEvent update = PatientEvents.decode(contentType, PatientEvents.encode(contentType, patient, "UPDATE"));
+        PatientEvent delete = PatientEvents.decode(contentType, PatientEvents.encodeDelete(contentType, 42L));
+
+        assertThat(update.getPatientid()).isEqualTo("42");
+        assertThat(update.getEventType()).isEqualTo("UPDATE");
+        assertThat(update.getName()).isEqualTo("Ada");
+        assertThat(update.getEmail()).isEqualTo("ada@example.com");
+        assertThat(update.getPriority()).isEqualTo(2);
+        assertThat(update.getRegisterDate()).isEqualTo("2026-02-15");
+        assertThat(update.getOccurredAt()).isPositive();
+        assertThat(delete.getPatientid()).isEqualTo("42");
+        assertThat(delete.getEventType()).isEqualTo("DELETE");
+        assertThat(delete.getName()).isEmpty();
+        assertThat(delete.getPriority()).isZero();
+    }
+}
@@ -0,0 +1,13 @@
+package com.patientmanagement.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class PatientReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(PatientReactiveApplication.class, args);
+	}
+
+}
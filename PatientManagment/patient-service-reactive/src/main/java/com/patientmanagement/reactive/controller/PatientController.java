@@ -0,0 +1,131 @@
+package com.patientmanagement.reactive.controller;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.patientmanagement.common.dto.BulkImportResultDTO;
+import com.patientmanagement.common.dto.PatientRequestDTO;
+import com.patientmanagement.common.dto.PatientResponseDTO;
+import com.patientmanagement.common.dto.PatientSearchCriteria;
+import com.patientmanagement.common.dto.validation.CreatePatientValidationgroup;
+import com.patientmanagement.reactive.service.PatientBulkImportService;
+import com.patientmanagement.reactive.service.PatientService;
+
+import jakarta.validation.groups.Default;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The patient API on WebFlux, with the same paths, parameters, headers and bodies as
+ * patient-service's controller.
+ */
+@RestController
+@RequestMapping("/patient")
+public class PatientController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final PatientService patientService;
+    private final PatientBulkImportService patientBulkImportService;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public PatientController(PatientService patientService,
+                             PatientBulkImportService patientBulkImportService,
+                             @Value("${patient.page.default-size:100}") int defaultPageSize,
+                             @Value("${patient.page.max-size:1000}") int maxPageSize) {
+        this.patientService = patientService;
+        this.patientBulkImportService = patientBulkImportService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<PatientResponseDTO>>> getPatients(@RequestParam(defaultValue = "0") Long after,
+                                                                      @RequestParam(required = false) Integer size) {
+        int pageSize = pageSize(size);
+        return patientService.getPatientPage(after, pageSize)
+                .map(patients -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (patients.size() == pageSize) {
+                        response.header(NEXT_CURSOR_HEADER, patients.get(patients.size() - 1).getId());
+                    }
+                    return response.body(patients);
+                });
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<PatientResponseDTO>>> searchPatients(@Validated @ModelAttribute PatientSearchCriteria criteria) {
+        return patientService.searchPatients(criteria, pageSize(criteria.getSize()))
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (page.nextCursor() != null) {
+                        response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+                    }
+                    return response.body(page.patients());
+                });
+    }
+
+    // Demand from the client (or the gateway in front of it) paces the rows read from Postgres.
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PatientResponseDTO> streamPatients() {
+        return patientService.streamAllPatients();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<PatientResponseDTO> getPatientById(@PathVariable Long id) {
+        return patientService.getPatientById(id);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<PatientResponseDTO>> createPatient(@Validated({Default.class, CreatePatientValidationgroup.class}) @RequestBody PatientRequestDTO patientRequestDTO) {
+        return patientService.createPatient(patientRequestDTO)
+                .map(patient -> ResponseEntity.status(HttpStatus.CREATED).body(patient));
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<BulkImportResultDTO> bulkImport(@RequestBody List<PatientRequestDTO> patients) {
+        return patientBulkImportService.importPatients(patients);
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public Mono<BulkImportResultDTO> bulkImportCsv(@RequestBody String csv) {
+        return patientBulkImportService.importCsv(new StringReader(csv));
+    }
+
+    @PostMapping("/dummy")
+    public Mono<ResponseEntity<PatientResponseDTO>> dummy_data(@RequestBody PatientRequestDTO patientRequestDTO) {
+        return patientService.dummy_data(patientRequestDTO)
+                .map(patient -> ResponseEntity.status(HttpStatus.CREATED).body(patient));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<PatientResponseDTO> updatePatient(@PathVariable Long id, @Validated({Default.class, CreatePatientValidationgroup.class}) @RequestBody PatientRequestDTO patientRequestDTO) {
+        return patientService.updatePatient(id, patientRequestDTO);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deletePatient(@PathVariable Long id) {
+        return patientService.deletePatient(id)
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    private int pageSize(Integer size) {
+        return Math.min(Math.max(size == null ? defaultPageSize : size, 1), maxPageSize);
+    }
+}
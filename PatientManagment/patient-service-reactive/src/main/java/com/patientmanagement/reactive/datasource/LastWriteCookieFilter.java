@@ -0,0 +1,46 @@
+package com.patientmanagement.reactive.datasource;
+
+import java.time.Duration;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.patientmanagement.common.web.LastWriteCookie;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Answers every write with a {@link LastWriteCookie}. This service reads only from the primary,
+ * but the gateway's A/B split may send the client's next read to patient-service, which pins it
+ * to the primary while the cookie is recent instead of serving it from a lagging replica.
+ */
+@Component
+public class LastWriteCookieFilter implements WebFilter {
+
+    private static final Set<HttpMethod> WRITE_METHODS = Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+    private final Duration window;
+
+    public LastWriteCookieFilter(@Value("${patient.datasource.read-your-writes-ms:2000}") long windowMillis) {
+        this.window = Duration.ofMillis(windowMillis);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (WRITE_METHODS.contains(exchange.getRequest().getMethod())) {
+            exchange.getResponse().addCookie(ResponseCookie.from(LastWriteCookie.NAME, String.valueOf(System.currentTimeMillis()))
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .maxAge(window)
+                    .build());
+        }
+        return chain.filter(exchange);
+    }
+}
@@ -0,0 +1,71 @@
+package com.patientmanagement.reactive.exception;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.patientmanagement.common.exception.EmailAlreadyExistException;
+import com.patientmanagement.common.exception.InvalidCursorException;
+import com.patientmanagement.common.exception.PatientNotFoundException;
+import com.patientmanagement.reactive.model.Patient;
+
+import io.r2dbc.postgresql.api.PostgresqlException;
+
+// Same error bodies as patient-service so clients cannot tell the two variants apart
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, String>> handleValidationExceptions(WebExchangeBindException ex) {
+        Map<String, String> errors = new HashMap<>();
+
+        ex.getBindingResult().getAllErrors().forEach((error) -> {
+            String fieldName = ((FieldError) error).getField();
+            String errorMessage = error.getDefaultMessage();
+            errors.put(fieldName, errorMessage);
+        });
+
+        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+    }
+    @ExceptionHandler(EmailAlreadyExistException.class)
+    public ResponseEntity<Map<String,String>> handleEmailAlreadyExistException(EmailAlreadyExistException ex){
+        logger.warn("Email address already exists: {}", ex.getMessage());
+        Map<String,String> errors=new HashMap<>();
+        errors.put("message","Email address already exists");
+        return ResponseEntity.badRequest().body(errors);
+    }
+    // Writes rely on the unique index instead of checking the email first
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String,String>> handleDataIntegrityViolationException(DataIntegrityViolationException ex){
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PostgresqlException violation
+                    && violation.getErrorDetails().getConstraintName().filter(Patient.EMAIL_CONSTRAINT::equalsIgnoreCase).isPresent()) {
+                return handleEmailAlreadyExistException(new EmailAlreadyExistException(cause.getMessage()));
+            }
+        }
+        throw ex;
+    }
+    @ExceptionHandler(PatientNotFoundException.class)
+    public ResponseEntity<Map<String,String>> handlePatientNotFoundException(PatientNotFoundException ex){
+        Map<String,String> errors=new HashMap<>();
+        errors.put("message","Patient not found");
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errors);
+    }
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String,String>> handleInvalidCursorException(InvalidCursorException ex){
+        Map<String,String> errors=new HashMap<>();
+        errors.put("message",ex.getMessage());
+        return ResponseEntity.badRequest().body(errors);
+    }
+}
@@ -0,0 +1,128 @@
+package com.patientmanagement.reactive.grpc;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import com.patientmanagement.reactive.model.Patient;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Creates the billing accounts recorded in {@code pending_billing}, like patient-service's relay
+ * and side by side with it. Rows are claimed with a lease that doubles with every attempt rather
+ * than held locked, each claimed batch goes to billing in one CreateBillingAccounts call, and the
+ * rows are deleted once it succeeds. A failed call leaves them to be retried when the lease runs
+ * out; accounts billing had already written are returned again, since creation is idempotent per
+ * patient id.
+ */
+@Component
+public class BillingRelay implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(BillingRelay.class);
+
+    // Same claim as patient-service's BillingRelay
+    private static final String CLAIM_SQL = """
+            UPDATE pending_billing b
+               SET attempts = b.attempts + 1,
+                   next_attempt_at = now() + least($1 * power(2, least(b.attempts, 20)), $2) * interval '1 millisecond'
+              FROM patient p
+             WHERE p.id = b.patient_id
+               AND b.patient_id IN (SELECT patient_id FROM pending_billing
+                                     WHERE next_attempt_at <= now()
+                                     ORDER BY next_attempt_at
+                                     LIMIT $3
+                                     FOR UPDATE SKIP LOCKED)
+            RETURNING b.patient_id, p.name, p.email""";
+    private static final String DELETE_SQL = "DELETE FROM pending_billing WHERE patient_id = ANY($1::bigint[])";
+
+    private final DatabaseClient databaseClient;
+    private final BillingServiceClient billingServiceClient;
+    private final int batchSize;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final Duration pollInterval;
+    private volatile Disposable subscription;
+
+    public BillingRelay(DatabaseClient databaseClient,
+                        BillingServiceClient billingServiceClient,
+                        @Value("${patient.billing.batch-size:500}") int batchSize,
+                        @Value("${patient.billing.retry-initial-backoff-ms:10000}") long initialBackoffMillis,
+                        @Value("${patient.billing.retry-max-backoff-ms:600000}") long maxBackoffMillis,
+                        @Value("${patient.billing.poll-interval-ms:200}") long pollIntervalMillis) {
+        this.databaseClient = databaseClient;
+        this.billingServiceClient = billingServiceClient;
+        this.batchSize = batchSize;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.pollInterval = Duration.ofMillis(pollIntervalMillis);
+    }
+
+    @Override
+    public void start() {
+        subscription = Flux.interval(pollInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> relay(), 0)
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+        }
+        subscription = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null && !subscription.isDisposed();
+    }
+
+    // Keeps draining while batches come back full.
+    public Mono<Void> relay() {
+        return relayBatch()
+                .expand(created -> created == batchSize ? relayBatch() : Mono.empty())
+                .then();
+    }
+
+    // The claim commits on its own, so the billing call runs outside any transaction
+    private Mono<Integer> relayBatch() {
+        return databaseClient.sql(CLAIM_SQL)
+                .bind(0, initialBackoffMillis)
+                .bind(1, maxBackoffMillis)
+                .bind(2, batchSize)
+                .map(row -> Patient.builder()
+                        .id(row.get("patient_id", Long.class))
+                        .name(row.get("name", String.class))
+                        .email(row.get("email", String.class))
+                        .build())
+                .all()
+                .collectList()
+                .flatMap(this::createAndDelete)
+                .onErrorResume(e -> {
+                    logger.warn("Billing relay failed, accounts will be retried: {}", e.getMessage());
+                    return Mono.just(0);
+                });
+    }
+
+    private Mono<Integer> createAndDelete(List<Patient> claimed) {
+        if (claimed.isEmpty()) {
+            return Mono.just(0);
+        }
+        return billingServiceClient.createBillingAccounts(claimed)
+                .then(databaseClient.sql(DELETE_SQL)
+                        .bind(0, claimed.stream().map(Patient::getId).toArray(Long[]::new))
+                        .then())
+                .thenReturn(claimed.size());
+    }
+}
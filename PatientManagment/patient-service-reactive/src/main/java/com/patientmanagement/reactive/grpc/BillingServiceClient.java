@@ -0,0 +1,98 @@
+package com.patientmanagement.reactive.grpc;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.patientmanagement.reactive.model.Patient;
+
+import billing.BillingAccountsRequest;
+import billing.BillingRequest;
+import billing.BillingResponse;
+import billing.BillingServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking gRPC client for the billing service. Calls go through the future stub and are
+ * issued on subscription; cancelling the subscription cancels the RPC. A batch call's deadline is
+ * {@code billing.client.deadline-ms} plus {@code billing.client.deadline-per-account-ms} for each
+ * account, as in patient-service.
+ */
+@Service
+public class BillingServiceClient {
+
+    private final ManagedChannel channel;
+    private final BillingServiceGrpc.BillingServiceFutureStub futureStub;
+    private final long deadlineMillis;
+    private final long deadlinePerAccountMillis;
+
+    public BillingServiceClient(@Value("${billing.service.address:localhost:9001}") String address,
+                                @Value("${billing.client.deadline-ms:2000}") long deadlineMillis,
+                                @Value("${billing.client.deadline-per-account-ms:20}") long deadlinePerAccountMillis) {
+        String[] parts = address.split(":");
+        String host = parts[0];
+        int port = parts.length > 1 ? Integer.parseInt(parts[1]) : 9001;
+
+        this.channel = ManagedChannelBuilder.forAddress(host, port)
+                .usePlaintext()
+                .build();
+        this.futureStub = BillingServiceGrpc.newFutureStub(channel);
+        this.deadlineMillis = deadlineMillis;
+        this.deadlinePerAccountMillis = deadlinePerAccountMillis;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!channel.isShutdown()) {
+            channel.shutdown();
+        }
+    }
+
+    public Mono<List<String>> createBillingAccounts(List<Patient> patients) {
+        return call(() -> {
+            BillingAccountsRequest.Builder request = BillingAccountsRequest.newBuilder();
+            patients.forEach(patient -> request.addRequests(billingRequest(patient)));
+            return futureStub.withDeadlineAfter(deadlineMillis + deadlinePerAccountMillis * patients.size(), TimeUnit.MILLISECONDS)
+                    .createBillingAccounts(request.build());
+        }).map(response -> response.getResponsesList().stream()
+                .map(BillingResponse::getAccountId)
+                .toList());
+    }
+
+    private static BillingRequest billingRequest(Patient patient) {
+        return BillingRequest.newBuilder()
+                .setPatientId(patient.getId().toString())
+                .setName(patient.getName())
+                .setEmail(patient.getEmail())
+                .build();
+    }
+
+    private static <T> Mono<T> call(Supplier<ListenableFuture<T>> rpc) {
+        return Mono.create(sink -> {
+            ListenableFuture<T> future = rpc.get();
+            sink.onCancel(() -> future.cancel(true));
+            Futures.addCallback(future, new FutureCallback<T>() {
+                @Override
+                public void onSuccess(T result) {
+                    sink.success(result);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    sink.error(t);
+                }
+            }, MoreExecutors.directExecutor());
+        });
+    }
+}
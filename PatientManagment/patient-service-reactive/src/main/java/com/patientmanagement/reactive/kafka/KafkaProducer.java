@@ -0,0 +1,41 @@
+package com.patientmanagement.reactive.kafka;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import com.patientmanagement.common.kafka.PatientEvents;
+
+import reactor.core.publisher.Mono;
+
+@Component
+public class KafkaProducer {
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaProducer.class);
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    public KafkaProducer(KafkaTemplate<String, byte[]> kafkaTemplate) {
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    // The record is handed to the producer on subscription; the Mono completes when the broker acknowledges it.
+    public Mono<SendResult<String, byte[]>> sendMessage(String topic, String key, byte[] message, String contentType) {
+        return Mono.defer(() -> {
+            ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, key, message);
+            record.headers()
+                .add(PatientEvents.CONTENT_TYPE_HEADER, contentType.getBytes(StandardCharsets.UTF_8))
+                .add(PatientEvents.VERSION_HEADER, PatientEvents.version(contentType).getBytes(StandardCharsets.UTF_8));
+            return Mono.fromFuture(kafkaTemplate.send(record));
+        })
+            .doOnSuccess(result -> logger.debug("Message sent successfully to topic {} partition {} offset {}",
+                topic,
+                result.getRecordMetadata().partition(),
+                result.getRecordMetadata().offset()))
+            .doOnError(ex -> logger.error("Failed to send message to topic {}: {}", topic, ex.getMessage()));
+    }
+}
@@ -0,0 +1,135 @@
+package com.patientmanagement.reactive.kafka;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.patientmanagement.common.observation.TraceParents;
+import com.patientmanagement.reactive.model.OutboxEvent;
+import com.patientmanagement.reactive.repository.OutboxEventRepository;
+
+import io.micrometer.tracing.CurrentTraceContext;
+import io.micrometer.tracing.Tracer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Drains the outbox to Kafka in batches, like patient-service's relay and under the same
+ * {@link OutboxRelayLease}, so only one relay across both services publishes. A batch is read,
+ * every record is handed to the producer at once, and the rows are deleted only after every send
+ * is acknowledged; nothing is locked meanwhile, and any failure leaves the batch to be retried on
+ * the next poll. Polls never overlap because each one completes before the next interval tick is
+ * consumed.
+ */
+@Component
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxRelayLease lease;
+    private final KafkaProducer kafkaProducer;
+    private final Tracer tracer;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration sendTimeout;
+    private final long leaseMillis;
+    private volatile Disposable subscription;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxRelayLease lease,
+                       KafkaProducer kafkaProducer,
+                       Tracer tracer,
+                       @Value("${patient.outbox.batch-size:500}") int batchSize,
+                       @Value("${patient.outbox.poll-interval-ms:100}") long pollIntervalMillis,
+                       @Value("${patient.outbox.send-timeout-ms:10000}") long sendTimeoutMillis,
+                       @Value("${patient.outbox.lease-ms:30000}") long leaseMillis) {
+        // A batch must finish inside the lease, or a second relay could start publishing alongside it
+        if (leaseMillis <= sendTimeoutMillis) {
+            throw new IllegalArgumentException("patient.outbox.lease-ms must be longer than patient.outbox.send-timeout-ms");
+        }
+        this.outboxEventRepository = outboxEventRepository;
+        this.lease = lease;
+        this.kafkaProducer = kafkaProducer;
+        this.tracer = tracer;
+        this.batchSize = batchSize;
+        this.pollInterval = Duration.ofMillis(pollIntervalMillis);
+        this.sendTimeout = Duration.ofMillis(sendTimeoutMillis);
+        this.leaseMillis = leaseMillis;
+    }
+
+    @Override
+    public void start() {
+        subscription = Flux.interval(pollInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> relay(), 0)
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+        }
+        subscription = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null && !subscription.isDisposed();
+    }
+
+    // Keeps draining while batches come back full.
+    public Mono<Void> relay() {
+        return relayBatch()
+                .expand(relayed -> relayed == batchSize ? relayBatch() : Mono.empty())
+                .then();
+    }
+
+    private Mono<Integer> relayBatch() {
+        return lease.acquire(leaseMillis)
+                .flatMap(held -> held
+                        ? outboxEventRepository.findNextBatch(batchSize).collectList().flatMap(this::publishAndDelete)
+                        : Mono.just(0))
+                .onErrorResume(e -> {
+                    logger.warn("Outbox relay failed, batch will be retried: {}", e.getMessage());
+                    return Mono.just(0);
+                });
+    }
+
+    private Mono<Integer> publishAndDelete(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return Mono.just(0);
+        }
+        return Flux.fromIterable(events)
+                .flatMap(this::send, events.size())
+                .then()
+                .timeout(sendTimeout)
+                .then(outboxEventRepository.deleteByIdIn(events.stream().map(OutboxEvent::getId).toList()))
+                .thenReturn(events.size());
+    }
+
+    // The send's span, and the traceparent header it writes, continue the trace that wrote the
+    // event. The record is handed to the producer before the scope closes; only the
+    // acknowledgement is awaited outside it. Handing it over can block (waiting for metadata, or
+    // for the cluster id the send observation records), so it runs off the R2DBC event loop.
+    private Mono<?> send(OutboxEvent event) {
+        return Mono.defer(() -> {
+            CurrentTraceContext.Scope scope = TraceParents.restore(tracer, event.getTraceParent());
+            try {
+                return Mono.fromFuture(kafkaProducer.sendMessage(event.getTopic(), event.getAggregateId(), event.getPayload(), event.getContentType())
+                        .toFuture());
+            } finally {
+                scope.close();
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+}
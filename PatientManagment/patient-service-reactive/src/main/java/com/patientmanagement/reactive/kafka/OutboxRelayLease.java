@@ -0,0 +1,60 @@
+package com.patientmanagement.reactive.kafka;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * The lease on {@code outbox_relay_lease} that makes this instance's {@link OutboxRelay} the only
+ * one publishing, shared with patient-service's relays. Each call is one statement; the holder
+ * renews the lease before every batch and hands it over on shutdown, and a holder that dies loses
+ * it once it expires.
+ */
+@Component
+public class OutboxRelayLease {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelayLease.class);
+
+    private static final String ACQUIRE_SQL = """
+            UPDATE outbox_relay_lease
+               SET holder = $1, expires_at = now() + $2 * interval '1 millisecond'
+             WHERE id = 1 AND (holder = $1 OR expires_at <= now())""";
+    private static final String RELEASE_SQL = "UPDATE outbox_relay_lease SET expires_at = now() WHERE id = 1 AND holder = $1";
+
+    private final DatabaseClient databaseClient;
+    private final String holder = UUID.randomUUID().toString();
+
+    public OutboxRelayLease(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    // Takes the lease if it is free or expired, or renews it if this instance already holds it
+    public Mono<Boolean> acquire(long leaseMillis) {
+        return databaseClient.sql(ACQUIRE_SQL)
+                .bind(0, holder)
+                .bind(1, leaseMillis)
+                .fetch()
+                .rowsUpdated()
+                .map(updated -> updated == 1);
+    }
+
+    @PreDestroy
+    public void release() {
+        databaseClient.sql(RELEASE_SQL)
+                .bind(0, holder)
+                .then()
+                .onErrorResume(e -> {
+                    logger.warn("Could not release the outbox relay lease, another relay takes over once it expires: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .block(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,34 @@
+package com.patientmanagement.reactive.model;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A patient-event waiting to be published. Rows are written in the same transaction as the
+ * patient change and removed by the outbox relay once Kafka has acknowledged them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("outbox_event")
+public class OutboxEvent {
+
+    @Id
+    private Long id;
+    private String aggregateId;
+    private String eventType;
+    private String topic;
+    private byte[] payload;
+    private String contentType;
+    private Instant createdAt;
+    // W3C traceparent of the request that wrote the row; the relay publishes within this trace
+    private String traceParent;
+}
@@ -0,0 +1,34 @@
+package com.patientmanagement.reactive.model;
+
+import java.time.LocalDate;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import com.patientmanagement.common.model.PatientDetails;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Maps the patient table owned by patient-service's Flyway migrations
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("patient")
+public class Patient implements PatientDetails {
+
+    // Unique index from V1; duplicate emails are detected by this name
+    public static final String EMAIL_CONSTRAINT = "uk_patient_email";
+
+    @Id
+    private Long id;
+    private String name;
+    private String email;
+    private String phoneNumber;
+    private int priority;
+    private LocalDate dateOfBirth;
+    private LocalDate registerDate;
+}
@@ -0,0 +1,26 @@
+package com.patientmanagement.reactive.repository;
+
+import java.util.Collection;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+import com.patientmanagement.reactive.model.OutboxEvent;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface OutboxEventRepository extends ReactiveCrudRepository<OutboxEvent, Long> {
+
+    // Only the relay holding the outbox lease, here or in patient-service, reads batches, so no row locks are taken.
+    @Query("SELECT * FROM outbox_event ORDER BY id LIMIT :limit")
+    Flux<OutboxEvent> findNextBatch(@Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM outbox_event WHERE id IN (:ids)")
+    Mono<Integer> deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
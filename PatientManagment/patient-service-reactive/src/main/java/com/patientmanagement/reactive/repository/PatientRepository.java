@@ -0,0 +1,21 @@
+package com.patientmanagement.reactive.repository;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+import com.patientmanagement.reactive.model.Patient;
+
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface PatientRepository extends ReactiveCrudRepository<Patient, Long> {
+
+    @Query("SELECT * FROM patient WHERE id > :afterId ORDER BY id LIMIT :size")
+    Flux<Patient> findPage(@Param("afterId") Long afterId, @Param("size") int size);
+
+    // Rows are pulled from Postgres in spring.r2dbc fetchSize chunks as the subscriber requests them.
+    @Query("SELECT * FROM patient ORDER BY id")
+    Flux<Patient> streamAllOrderById();
+}
@@ -0,0 +1,158 @@
+package com.patientmanagement.reactive.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.patientmanagement.common.dto.PatientSearchCriteria;
+import com.patientmanagement.common.exception.InvalidCursorException;
+import com.patientmanagement.reactive.model.Patient;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+
+// Same SQL as patient-service's search, so both variants hit the V3 indexes the same way.
+@Repository
+public class PatientSearchRepository {
+
+    private static final String SELECT =
+            "SELECT id, name, email, phone_number, priority, date_of_birth, register_date FROM patient";
+
+    private final DatabaseClient databaseClient;
+
+    public PatientSearchRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<Patient> search(PatientSearchCriteria criteria, int limit) {
+        SearchQuery query = buildQuery(criteria, limit);
+        return databaseClient.sql(query.sql())
+                .bindValues(query.params())
+                .map(PatientSearchRepository::toPatient)
+                .all();
+    }
+
+    private static Patient toPatient(Readable row) {
+        return Patient.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .email(row.get("email", String.class))
+                .phoneNumber(row.get("phone_number", String.class))
+                .priority(row.get("priority", Integer.class))
+                .dateOfBirth(row.get("date_of_birth", LocalDate.class))
+                .registerDate(row.get("register_date", LocalDate.class))
+                .build();
+    }
+
+    public static String nextCursor(PatientSearchCriteria criteria, Patient last) {
+        String value = isRegisterDateSort(criteria)
+                ? last.getRegisterDate() + ":" + last.getId()
+                : String.valueOf(last.getId());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    record SearchQuery(String sql, Map<String, Object> params) {
+    }
+
+    static SearchQuery buildQuery(PatientSearchCriteria criteria, int limit) {
+        List<String> where = new ArrayList<>();
+        Map<String, Object> params = new LinkedHashMap<>();
+
+        if (criteria.getName() != null && !criteria.getName().isBlank()) {
+            where.add("lower(name) LIKE :name ESCAPE '\\'");
+            params.put("name", escapeLike(criteria.getName().trim().toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (criteria.getPriority() != null) {
+            where.add("priority = :priority");
+            params.put("priority", criteria.getPriority());
+        }
+        if (criteria.getRegisteredFrom() != null) {
+            where.add("register_date >= :registeredFrom");
+            params.put("registeredFrom", criteria.getRegisteredFrom());
+        }
+        if (criteria.getRegisteredTo() != null) {
+            where.add("register_date <= :registeredTo");
+            params.put("registeredTo", criteria.getRegisteredTo());
+        }
+        if (criteria.getBornFrom() != null) {
+            where.add("date_of_birth >= :bornFrom");
+            params.put("bornFrom", criteria.getBornFrom());
+        }
+        if (criteria.getBornTo() != null) {
+            where.add("date_of_birth <= :bornTo");
+            params.put("bornTo", criteria.getBornTo());
+        }
+
+        boolean descending = "desc".equals(criteria.getDirection());
+        String comparison = descending ? "<" : ">";
+        String direction = descending ? "DESC" : "ASC";
+        String orderBy;
+        if (isRegisterDateSort(criteria)) {
+            orderBy = "register_date " + direction + ", id " + direction;
+            if (criteria.getAfter() != null) {
+                String[] cursor = decodeCursor(criteria.getAfter()).split(":", 2);
+                if (cursor.length != 2) {
+                    throw new InvalidCursorException("Invalid cursor: " + criteria.getAfter());
+                }
+                where.add("(register_date, id) " + comparison + " (:afterDate, :afterId)");
+                params.put("afterDate", parseDate(cursor[0], criteria.getAfter()));
+                params.put("afterId", parseId(cursor[1], criteria.getAfter()));
+            }
+        } else {
+            orderBy = "id " + direction;
+            if (criteria.getAfter() != null) {
+                where.add("id " + comparison + " :afterId");
+                params.put("afterId", parseId(decodeCursor(criteria.getAfter()), criteria.getAfter()));
+            }
+        }
+
+        StringBuilder sql = new StringBuilder(SELECT);
+        if (!where.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", where));
+        }
+        sql.append(" ORDER BY ").append(orderBy).append(" LIMIT :limit");
+        params.put("limit", limit);
+        return new SearchQuery(sql.toString(), params);
+    }
+
+    private static boolean isRegisterDateSort(PatientSearchCriteria criteria) {
+        return "registerDate".equals(criteria.getSort());
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static LocalDate parseDate(String value, String cursor) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static long parseId(String value, String cursor) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.patientmanagement.reactive.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.patientmanagement.common.dto.BulkImportResultDTO;
+import com.patientmanagement.common.dto.BulkImportRowResultDTO;
+import com.patientmanagement.common.dto.PatientRequestDTO;
+import com.patientmanagement.common.dto.validation.CreatePatientValidationgroup;
+import com.patientmanagement.common.mapper.PatientCsvMapper;
+import com.patientmanagement.common.mapper.PatientMapper;
+import com.patientmanagement.reactive.model.Patient;
+
+import io.r2dbc.spi.Statement;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Imports many patients at once, with the same per-row results as patient-service: rows are
+ * validated up front, and each chunk's inserts, which skip emails already taken, and outbox
+ * events go out as pipelined statement batches in one transaction. That transaction also records
+ * the chunk's billing accounts, which BillingRelay creates. Chunks are imported one after another.
+ */
+@Service
+public class PatientBulkImportService {
+
+    // Like single creates, relies on uk_patient_email rather than checking first: a row whose
+    // email is taken, even by a create racing this chunk, is skipped and returns no id
+    private static final String INSERT_SQL = """
+            INSERT INTO patient (name, email, phone_number, priority, date_of_birth, register_date)
+            VALUES ($1, $2, $3, $4, $5, $6)
+            ON CONFLICT (email) DO NOTHING
+            RETURNING id, email""";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final Validator validator;
+    private final PatientEventOutbox patientEventOutbox;
+    private final PendingBillingAccounts pendingBillingAccounts;
+    private final int batchSize;
+
+    public PatientBulkImportService(DatabaseClient databaseClient,
+                                    TransactionalOperator transactionalOperator,
+                                    Validator validator,
+                                    PatientEventOutbox patientEventOutbox,
+                                    PendingBillingAccounts pendingBillingAccounts,
+                                    @Value("${patient.bulk.batch-size:1000}") int batchSize) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.validator = validator;
+        this.patientEventOutbox = patientEventOutbox;
+        this.pendingBillingAccounts = pendingBillingAccounts;
+        this.batchSize = batchSize;
+    }
+
+    public Mono<BulkImportResultDTO> importPatients(List<PatientRequestDTO> patients) {
+        List<PatientCsvMapper.Row> rows = new ArrayList<>(patients.size());
+        for (int i = 0; i < patients.size(); i++) {
+            rows.add(new PatientCsvMapper.Row(i + 1, patients.get(i), null));
+        }
+        return importRows(rows);
+    }
+
+    public Mono<BulkImportResultDTO> importCsv(Reader reader) {
+        return Mono.fromCallable(() -> PatientCsvMapper.fromCsv(reader))
+                .onErrorMap(IOException.class, e -> new IllegalArgumentException("Unreadable CSV upload", e))
+                .flatMap(this::importRows);
+    }
+
+    private Mono<BulkImportResultDTO> importRows(List<PatientCsvMapper.Row> rows) {
+        BulkImportRowResultDTO[] results = new BulkImportRowResultDTO[rows.size()];
+        Set<String> seenEmails = new HashSet<>();
+        List<List<Integer>> chunks = new ArrayList<>();
+        List<Integer> chunk = new ArrayList<>(batchSize);
+
+        for (int i = 0; i < rows.size(); i++) {
+            PatientCsvMapper.Row row = rows.get(i);
+            String error = row.error() != null ? row.error() : validate(row.patient());
+            if (error != null) {
+                results[i] = new BulkImportRowResultDTO(row.number(), BulkImportRowResultDTO.INVALID, null, error);
+            } else if (!seenEmails.add(row.patient().getEmail())) {
+                results[i] = new BulkImportRowResultDTO(row.number(), BulkImportRowResultDTO.DUPLICATE, null,
+                        "Email appears earlier in this import");
+            } else {
+                chunk.add(i);
+                if (chunk.size() == batchSize) {
+                    chunks.add(chunk);
+                    chunk = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+
+        return Flux.fromIterable(chunks)
+                .concatMap(indexes -> importChunk(rows, indexes, results))
+                .then(Mono.fromSupplier(() -> {
+                    int created = 0;
+                    for (BulkImportRowResultDTO result : results) {
+                        if (BulkImportRowResultDTO.CREATED.equals(result.getStatus())) {
+                            created++;
+                        }
+                    }
+                    return new BulkImportResultDTO(rows.size(), created, rows.size() - created, List.of(results));
+                }));
+    }
+
+    private Mono<Void> importChunk(List<PatientCsvMapper.Row> rows, List<Integer> chunk, BulkImportRowResultDTO[] results) {
+        List<Patient> candidates = chunk.stream().map(i -> PatientMapper.toModel(rows.get(i).patient(), new Patient())).toList();
+        return insertSkippingTakenEmails(candidates)
+                .flatMap(inserted -> inserted.isEmpty()
+                        ? Mono.<Void>empty()
+                        : pendingBillingAccounts.recordAll(inserted).then(patientEventOutbox.recordAll(inserted, "CREATE")))
+                .as(transactionalOperator::transactional)
+                .then(Mono.fromRunnable(() -> {
+                    for (int n = 0; n < chunk.size(); n++) {
+                        int i = chunk.get(n);
+                        Patient patient = candidates.get(n);
+                        results[i] = patient.getId() != null
+                                ? new BulkImportRowResultDTO(rows.get(i).number(), BulkImportRowResultDTO.CREATED,
+                                        patient.getId().toString(), null)
+                                : new BulkImportRowResultDTO(rows.get(i).number(), BulkImportRowResultDTO.DUPLICATE, null,
+                                        "Email address already exists");
+                    }
+                }));
+    }
+
+    // Sets the id of every patient that was inserted and returns them; emails are unique within a chunk
+    private Mono<List<Patient>> insertSkippingTakenEmails(List<Patient> patients) {
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(INSERT_SQL);
+            for (int i = 0; i < patients.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                Patient patient = patients.get(i);
+                statement.bind(0, patient.getName())
+                        .bind(1, patient.getEmail())
+                        .bind(2, patient.getPhoneNumber())
+                        .bind(3, patient.getPriority())
+                        .bind(4, patient.getDateOfBirth())
+                        .bind(5, patient.getRegisterDate());
+            }
+            return Flux.from(statement.execute())
+                    .concatMap(result -> result.map((row, metadata) -> Map.entry(row.get("email", String.class), row.get("id", Long.class))));
+        })
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .map(ids -> {
+                    List<Patient> inserted = new ArrayList<>(ids.size());
+                    for (Patient patient : patients) {
+                        Long id = ids.get(patient.getEmail());
+                        if (id != null) {
+                            patient.setId(id);
+                            inserted.add(patient);
+                        }
+                    }
+                    return inserted;
+                });
+    }
+
+    private String validate(PatientRequestDTO patient) {
+        if (patient == null) {
+            return "Row is empty";
+        }
+        Set<ConstraintViolation<PatientRequestDTO>> violations =
+                validator.validate(patient, Default.class, CreatePatientValidationgroup.class);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
@@ -0,0 +1,104 @@
+package com.patientmanagement.reactive.service;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.patientmanagement.common.kafka.PatientEvents;
+import com.patientmanagement.common.observation.TraceParents;
+import com.patientmanagement.reactive.kafka.KafkaConfig;
+import com.patientmanagement.reactive.model.OutboxEvent;
+import com.patientmanagement.reactive.model.Patient;
+import com.patientmanagement.reactive.repository.OutboxEventRepository;
+
+import io.micrometer.tracing.Tracer;
+import io.r2dbc.spi.Statement;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records patient-events in the outbox. Every method requires the caller's transaction so the
+ * event commits or rolls back together with the patient change it describes. Payloads are
+ * encoded as {@code patient.events.format}, matching patient-service. Each row keeps the
+ * writer's trace context so the relay's Kafka send, and the consumers, join the same trace.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class PatientEventOutbox {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_event (aggregate_id, event_type, topic, payload, content_type, created_at, trace_parent) VALUES ($1, $2, $3, $4, $5, $6, $7)";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final DatabaseClient databaseClient;
+    private final Tracer tracer;
+    private final String contentType;
+
+    public PatientEventOutbox(OutboxEventRepository outboxEventRepository,
+                              DatabaseClient databaseClient,
+                              Tracer tracer,
+                              @Value("${patient.events.format:protobuf}") String format) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.databaseClient = databaseClient;
+        this.tracer = tracer;
+        this.contentType = "json".equalsIgnoreCase(format) ? PatientEvents.JSON : PatientEvents.PROTOBUF;
+    }
+
+    public Mono<Void> record(Patient patient, String eventType) {
+        return save(patient.getId().toString(), eventType, PatientEvents.encode(contentType, patient, eventType));
+    }
+
+    public Mono<Void> recordDelete(Long id) {
+        return save(id.toString(), "DELETE", PatientEvents.encodeDelete(contentType, id));
+    }
+
+    // One statement with a binding per event, sent to Postgres as a single pipelined batch.
+    public Mono<Void> recordAll(List<Patient> patients, String eventType) {
+        if (patients.isEmpty()) {
+            return Mono.empty();
+        }
+        Instant now = Instant.now();
+        return databaseClient.inConnectionMany(connection -> {
+            String traceParent = TraceParents.current(tracer);
+            Statement statement = connection.createStatement(INSERT_SQL);
+            for (int i = 0; i < patients.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                Patient patient = patients.get(i);
+                statement.bind(0, patient.getId().toString())
+                        .bind(1, eventType)
+                        .bind(2, KafkaConfig.PATIENT_EVENTS_TOPIC)
+                        .bind(3, ByteBuffer.wrap(PatientEvents.encode(contentType, patient, eventType)))
+                        .bind(4, contentType)
+                        .bind(5, now);
+                if (traceParent == null) {
+                    statement.bindNull(6, String.class);
+                } else {
+                    statement.bind(6, traceParent);
+                }
+            }
+            return Flux.from(statement.execute()).flatMap(result -> result.getRowsUpdated());
+        }).then();
+    }
+
+    // Deferred so the trace context is read when the write runs, within the request's trace
+    private Mono<Void> save(String patientId, String eventType, byte[] payload) {
+        return Mono.defer(() -> outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateId(patientId)
+                .eventType(eventType)
+                .topic(KafkaConfig.PATIENT_EVENTS_TOPIC)
+                .payload(payload)
+                .contentType(contentType)
+                .createdAt(Instant.now())
+                .traceParent(TraceParents.current(tracer))
+                .build()))
+                .then();
+    }
+}
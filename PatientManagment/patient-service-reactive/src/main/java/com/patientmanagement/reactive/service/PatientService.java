@@ -0,0 +1,109 @@
+package com.patientmanagement.reactive.service;
+
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.patientmanagement.common.dto.PatientRequestDTO;
+import com.patientmanagement.common.dto.PatientResponseDTO;
+import com.patientmanagement.common.dto.PatientSearchCriteria;
+import com.patientmanagement.common.exception.PatientNotFoundException;
+import com.patientmanagement.common.mapper.PatientMapper;
+import com.patientmanagement.reactive.model.Patient;
+import com.patientmanagement.reactive.repository.PatientRepository;
+import com.patientmanagement.reactive.repository.PatientSearchRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class PatientService {
+
+    public record Page(List<PatientResponseDTO> patients, String nextCursor) {
+    }
+
+    private final PatientRepository patientRepository;
+    private final PatientSearchRepository patientSearchRepository;
+    private final PatientEventOutbox patientEventOutbox;
+    private final PendingBillingAccounts pendingBillingAccounts;
+    private final TransactionalOperator transactionalOperator;
+
+    public PatientService(PatientRepository patientRepository,
+                          PatientSearchRepository patientSearchRepository,
+                          PatientEventOutbox patientEventOutbox,
+                          PendingBillingAccounts pendingBillingAccounts,
+                          TransactionalOperator transactionalOperator) {
+        this.patientRepository = patientRepository;
+        this.patientSearchRepository = patientSearchRepository;
+        this.patientEventOutbox = patientEventOutbox;
+        this.pendingBillingAccounts = pendingBillingAccounts;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    public Mono<List<PatientResponseDTO>> getPatientPage(Long afterId, int size) {
+        return patientRepository.findPage(afterId, size)
+                .map(PatientMapper::toDto)
+                .collectList();
+    }
+
+    public Mono<Page> searchPatients(PatientSearchCriteria criteria, int size) {
+        return Mono.defer(() -> patientSearchRepository.search(criteria, size).collectList())
+                .map(patients -> new Page(
+                        patients.stream().map(PatientMapper::toDto).toList(),
+                        patients.size() == size ? PatientSearchRepository.nextCursor(criteria, patients.get(patients.size() - 1)) : null));
+    }
+
+    public Flux<PatientResponseDTO> streamAllPatients() {
+        return patientRepository.streamAllOrderById().map(PatientMapper::toDto);
+    }
+
+    public Mono<PatientResponseDTO> getPatientById(Long id) {
+        return patientRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new PatientNotFoundException("Patient not found with id " + id)))
+                .map(PatientMapper::toDto);
+    }
+
+    public Mono<PatientResponseDTO> createPatient(PatientRequestDTO patientRequestDTO) {
+        // A taken email fails the insert on uk_patient_email, which GlobalExceptionHandler reports
+        return patientRepository.save(PatientMapper.toModel(patientRequestDTO, new Patient()))
+                // Both recorded in this transaction: BillingRelay creates the account and the outbox
+                // relay publishes the event after commit, retrying until each succeeds
+                .flatMap(patient -> pendingBillingAccounts.record(patient)
+                        .then(patientEventOutbox.record(patient, "CREATE"))
+                        .thenReturn(patient))
+                .as(transactionalOperator::transactional)
+                .map(PatientMapper::toDto);
+    }
+
+    public Mono<PatientResponseDTO> dummy_data(PatientRequestDTO patientRequestDTO) {
+        return patientRepository.save(PatientMapper.toModel(patientRequestDTO, new Patient()))
+                .map(PatientMapper::toDto);
+    }
+
+    @Transactional
+    public Mono<PatientResponseDTO> updatePatient(Long id, PatientRequestDTO patientRequestDTO) {
+        return patientRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new PatientNotFoundException("Patient not found with id " + id)))
+                .flatMap(patient -> {
+                    patient.setName(patientRequestDTO.getName());
+                    patient.setEmail(patientRequestDTO.getEmail());
+                    patient.setPhoneNumber(patientRequestDTO.getPhoneNumber());
+                    patient.setPriority(patientRequestDTO.getPriority());
+                    patient.setDateOfBirth(patientRequestDTO.getDateOfBirth());
+                    patient.setRegisterDate(patientRequestDTO.getRegisterDate());
+                    return patientRepository.save(patient);
+                })
+                .flatMap(updatePatient -> patientEventOutbox.record(updatePatient, "UPDATE").thenReturn(updatePatient))
+                .map(PatientMapper::toDto);
+    }
+
+    @Transactional
+    public Mono<Void> deletePatient(Long id) {
+        return patientRepository.existsById(id)
+                .flatMap(exists -> exists
+                        ? patientEventOutbox.recordDelete(id).then(patientRepository.deleteById(id))
+                        : Mono.error(new PatientNotFoundException("Patient not found with id " + id)));
+    }
+}
@@ -0,0 +1,45 @@
+package com.patientmanagement.reactive.service;
+
+import java.util.List;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.patientmanagement.reactive.grpc.BillingRelay;
+import com.patientmanagement.reactive.model.Patient;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Records that a patient still needs a billing account, in the same pending_billing table as
+ * patient-service. Every method requires the caller's transaction, so the intent commits or rolls
+ * back together with the patient; {@link BillingRelay} creates the account and removes the row.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class PendingBillingAccounts {
+
+    private static final String INSERT_SQL = "INSERT INTO pending_billing (patient_id) VALUES ($1)";
+    private static final String INSERT_ALL_SQL = "INSERT INTO pending_billing (patient_id) SELECT unnest($1::bigint[])";
+
+    private final DatabaseClient databaseClient;
+
+    public PendingBillingAccounts(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Void> record(Patient patient) {
+        return databaseClient.sql(INSERT_SQL).bind(0, patient.getId()).then();
+    }
+
+    public Mono<Void> recordAll(List<Patient> patients) {
+        if (patients.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(INSERT_ALL_SQL)
+                .bind(0, patients.stream().map(Patient::getId).toArray(Long[]::new))
+                .then();
+    }
+}
@@ -0,0 +1,285 @@
+package com.patientmanagement.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.patientmanagement.common.dto.BulkImportResultDTO;
+import com.patientmanagement.common.dto.PatientRequestDTO;
+import com.patientmanagement.common.dto.PatientResponseDTO;
+import com.patientmanagement.common.web.LastWriteCookie;
+import com.patientmanagement.reactive.grpc.BillingRelay;
+import com.patientmanagement.reactive.kafka.OutboxRelay;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import reactor.test.StepVerifier;
+
+// Runs against patient-service's own migrations, so a schema change there that this variant
+// does not follow fails here.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.kafka.bootstrap-servers=localhost:1",
+        "spring.kafka.admin.auto-create=false",
+        // The send observation asks the (absent) broker for its cluster id; give up quickly
+        "spring.kafka.admin.operation-timeout=1s",
+        "spring.kafka.admin.close-timeout=1s",
+        "spring.kafka.producer.properties.max.block.ms=100",
+        "patient.outbox.poll-interval-ms=3600000",
+        "patient.billing.poll-interval-ms=3600000",
+        "billing.service.address=localhost:1",
+        "patient.page.default-size=2"
+})
+class PatientReactiveApplicationTests {
+
+    private static final EmbeddedPostgres postgres = start();
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    DatabaseClient databaseClient;
+
+    @Autowired
+    OutboxRelay outboxRelay;
+
+    @Autowired
+    BillingRelay billingRelay;
+
+    WebTestClient client;
+
+    private static EmbeddedPostgres start() {
+        try {
+            EmbeddedPostgres pg = EmbeddedPostgres.start();
+            Flyway.configure()
+                    .dataSource(pg.getPostgresDatabase())
+                    .locations("filesystem:../patient-service/src/main/resources/db/migration")
+                    .load()
+                    .migrate();
+            return pg;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void r2dbc(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://localhost:" + postgres.getPort() + "/postgres");
+        registry.add("spring.r2dbc.username", () -> "postgres");
+        registry.add("spring.r2dbc.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + port).responseTimeout(Duration.ofSeconds(10)).build();
+        databaseClient.sql("TRUNCATE patient, pending_billing, outbox_event RESTART IDENTITY").then().block();
+    }
+
+    @Test
+    void writesSetTheReadYourWritesCookieForPatientService() {
+        client.post().uri("/patient").bodyValue(patient("cookie@example.com"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectCookie().exists(LastWriteCookie.NAME)
+                .expectCookie().httpOnly(LastWriteCookie.NAME, true)
+                .expectCookie().value(LastWriteCookie.NAME,
+                        value -> assertThat(LastWriteCookie.isRecent(value, System.currentTimeMillis(), Duration.ofSeconds(2))).isTrue());
+
+        client.get().uri("/patient/1").exchange().expectStatus().isOk().expectCookie().doesNotExist(LastWriteCookie.NAME);
+        client.delete().uri("/patient/1").exchange().expectStatus().isNoContent().expectCookie().exists(LastWriteCookie.NAME);
+    }
+
+    @Test
+    void createReadUpdateDeleteKeepTheMvcContract() {
+        PatientResponseDTO created = client.post().uri("/patient").bodyValue(patient("ada@example.com"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(PatientResponseDTO.class).returnResult().getResponseBody();
+        assertThat(created.getId()).isEqualTo("1");
+        assertThat(created.getRegisterDate()).isEqualTo("2026-02-15");
+
+        client.post().uri("/patient").bodyValue(patient("ada@example.com"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Email address already exists");
+
+        client.post().uri("/patient").bodyValue(PatientRequestDTO.builder().name("No Email").build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.email").isEqualTo("Email is required");
+
+        PatientRequestDTO update = patient("ada.l@example.com");
+        update.setPriority(3);
+        client.put().uri("/patient/1").bodyValue(update)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.priority").isEqualTo(3);
+
+        client.delete().uri("/patient/1").exchange().expectStatus().isNoContent();
+        client.get().uri("/patient/1")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.message").isEqualTo("Patient not found");
+
+        assertThat(databaseClient.sql("SELECT event_type FROM outbox_event ORDER BY id")
+                .map(row -> row.get("event_type", String.class)).all().collectList().block())
+                .containsExactly("CREATE", "UPDATE", "DELETE");
+    }
+
+    @Test
+    void racingCreatesWithOneEmailLeaveOnePatient() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Integer> statuses = new ArrayList<>();
+        try {
+            List<Future<Integer>> creates = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                creates.add(executor.submit(() -> {
+                    start.await();
+                    return client.post().uri("/patient").bodyValue(patient("race@example.com"))
+                            .exchange()
+                            .returnResult(String.class)
+                            .getStatus()
+                            .value();
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> create : creates) {
+                statuses.add(create.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(statuses).containsOnlyOnce(201).filteredOn(status -> status != 201).hasSize(7).containsOnly(400);
+        assertThat(databaseClient.sql("SELECT count(*) AS n FROM outbox_event")
+                .map(row -> row.get("n", Long.class)).one().block()).isEqualTo(1L);
+
+        PatientResponseDTO other = client.post().uri("/patient").bodyValue(patient("other@example.com"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(PatientResponseDTO.class).returnResult().getResponseBody();
+        client.put().uri("/patient/{id}", other.getId()).bodyValue(patient("race@example.com"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Email address already exists");
+    }
+
+    @Test
+    void pagesWithTheNextCursorHeaderAndStreamsNdjson() {
+        for (int i = 0; i < 3; i++) {
+            client.post().uri("/patient").bodyValue(patient("p" + i + "@example.com")).exchange().expectStatus().isCreated();
+        }
+
+        client.get().uri("/patient")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Next-Cursor", "2")
+                .expectBody().jsonPath("$.length()").isEqualTo(2);
+        client.get().uri("/patient?after=2")
+                .exchange()
+                .expectHeader().doesNotExist("X-Next-Cursor")
+                .expectBody().jsonPath("$[0].id").isEqualTo("3");
+
+        client.get().uri("/patient/search?name=PATIENT&sort=registerDate&direction=desc&size=5")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(3);
+
+        StepVerifier.create(client.get().uri("/patient/stream").accept(MediaType.APPLICATION_NDJSON)
+                        .exchange()
+                        .returnResult(PatientResponseDTO.class)
+                        .getResponseBody()
+                        .map(PatientResponseDTO::getId), 1)
+                .expectNext("1")
+                .thenRequest(2)
+                .expectNext("2", "3")
+                .verifyComplete();
+    }
+
+    @Test
+    void bulkImportReportsEveryRow() {
+        client.post().uri("/patient").bodyValue(patient("taken@example.com")).exchange().expectStatus().isCreated();
+
+        BulkImportResultDTO result = client.post().uri("/patient/bulk")
+                .bodyValue(List.of(patient("a@example.com"), patient("taken@example.com"), patient("a@example.com"),
+                        PatientRequestDTO.builder().name("Bad").build(), patient("b@example.com")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BulkImportResultDTO.class).returnResult().getResponseBody();
+
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getRows()).extracting("status")
+                .containsExactly("CREATED", "DUPLICATE", "DUPLICATE", "INVALID", "CREATED");
+        // Billing accounts are left to BillingRelay, recorded with the created rows
+        assertThat(result.getRows().get(0).getMessage()).isNull();
+        assertThat(pendingBillingAccounts()).isEqualTo(3L);
+
+        String csv = "name,email,phoneNumber,priority,dateOfBirth,registerDate\n"
+                + "Csv Patient,csv@example.com,555,2,1990-01-01,2026-01-01\n";
+        client.post().uri("/patient/bulk").contentType(MediaType.parseMediaType("text/csv")).bodyValue(csv)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.created").isEqualTo(1);
+    }
+
+    @Test
+    void relayKeepsEventsWhenKafkaIsUnavailable() {
+        client.post().uri("/patient").bodyValue(patient("kept@example.com")).exchange().expectStatus().isCreated();
+
+        outboxRelay.relay().block(Duration.ofSeconds(30));
+
+        assertThat(databaseClient.sql("SELECT count(*) AS n FROM outbox_event")
+                .map(row -> row.get("n", Long.class)).one().block()).isEqualTo(1L);
+    }
+
+    @Test
+    void billingRelayKeepsAccountsWhenBillingIsUnavailable() {
+        client.post().uri("/patient").bodyValue(patient("unbilled@example.com")).exchange().expectStatus().isCreated();
+        assertThat(pendingBillingAccounts()).isEqualTo(1L);
+
+        billingRelay.relay().block(Duration.ofSeconds(30));
+
+        assertThat(databaseClient.sql("SELECT attempts FROM pending_billing")
+                .map(row -> row.get("attempts", Integer.class)).one().block()).isEqualTo(1);
+    }
+
+    private Long pendingBillingAccounts() {
+        return databaseClient.sql("SELECT count(*) AS n FROM pending_billing").map(row -> row.get("n", Long.class)).one().block();
+    }
+
+    private static PatientRequestDTO patient(String email) {
+        return PatientRequestDTO.builder()
+                .name("Patient " + email)
+                .email(email)
+                .phoneNumber("1234567890")
+                .priority(1)
+                .dateOfBirth(LocalDate.of(1990, 5, 15))
+                .registerDate(LocalDate.of(2026, 2, 15))
+                .build();
+    }
+}
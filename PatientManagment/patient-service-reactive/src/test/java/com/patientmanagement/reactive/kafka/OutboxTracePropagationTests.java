@@ -0,0 +1,182 @@
+package com.patientmanagement.reactive.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.patientmanagement.common.dto.PatientRequestDTO;
+import com.patientmanagement.reactive.PatientReactiveApplication;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+class OutboxTracePropagationTests {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    // Stands in for the broker: sends complete as soon as they are made. KafkaTemplate closes its
+    // producer after every send, so closing must not end this one.
+    private static final MockProducer<String, byte[]> producer =
+            new MockProducer<>(true, null, new StringSerializer(), new ByteArraySerializer()) {
+                @Override
+                public void close(Duration timeout) {
+                }
+            };
+
+    private static EmbeddedPostgres postgres;
+    private static ConfigurableApplicationContext context;
+    private static WebTestClient client;
+
+    @BeforeAll
+    static void start() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure()
+                .dataSource(postgres.getPostgresDatabase())
+                .locations("filesystem:../patient-service/src/main/resources/db/migration")
+                .load()
+                .migrate();
+
+        // Typed like Boot's own factory so the auto-configured KafkaTemplate picks it up
+        ProducerFactory<Object, Object> producerFactory = new ProducerFactory<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Producer<Object, Object> createProducer() {
+                return (Producer<Object, Object>) (Producer<?, ?>) producer;
+            }
+
+            @Override
+            public Map<String, Object> getConfigurationProperties() {
+                return Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:1");
+            }
+        };
+        // A known cluster id keeps the send observation from asking the (absent) broker for it
+        KafkaAdmin kafkaAdmin = new KafkaAdmin(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:1"));
+        kafkaAdmin.setAutoCreate(false);
+        kafkaAdmin.setClusterId("test-cluster");
+        context = new SpringApplicationBuilder(PatientReactiveApplication.class)
+                .initializers(ctx -> {
+                    ctx.getBeanFactory().registerSingleton("mockProducerFactory", producerFactory);
+                    ctx.getBeanFactory().registerSingleton("kafkaAdmin", kafkaAdmin);
+                })
+                .run("--server.port=0",
+                        "--spring.r2dbc.url=r2dbc:postgresql://localhost:" + postgres.getPort() + "/postgres",
+                        "--spring.r2dbc.username=postgres",
+                        "--spring.r2dbc.password=postgres",
+                        "--billing.service.address=localhost:1",
+                        "--spring.kafka.bootstrap-servers=localhost:1",
+                        "--patient.outbox.poll-interval-ms=3600000",
+                        "--management.tracing.sampling.probability=1.0",
+                        "--logging.level.root=WARN");
+        client = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort())
+                .responseTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @BeforeEach
+    void clearPatients() {
+        context.getBean(DatabaseClient.class).sql("TRUNCATE patient, pending_billing, outbox_event RESTART IDENTITY").then().block();
+        producer.clear();
+    }
+
+    @Test
+    void patientEventsContinueTheTraceOfTheRequestThatWroteThem() {
+        client.post().uri("/patient")
+                .header("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01")
+                .bodyValue(patient("traced@example.com"))
+                .exchange()
+                .expectStatus().isCreated();
+
+        String stored = traceParents().getFirst();
+        assertThat(stored).startsWith("00-" + TRACE_ID + "-").endsWith("-01").doesNotContain("00f067aa0ba902b7");
+
+        context.getBean(OutboxRelay.class).relay().block(Duration.ofSeconds(30));
+
+        // Same trace, child of the span that wrote the outbox row
+        assertThat(traceParentHeader(producer.history().getLast())).startsWith("00-" + TRACE_ID + "-").isNotEqualTo(stored);
+    }
+
+    @Test
+    void bulkImportEventsContinueTheTraceOfTheImport() {
+        client.post().uri("/patient/bulk")
+                .header("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01")
+                .bodyValue(List.of(patient("first@example.com"), patient("second@example.com")))
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(traceParents()).hasSize(2).allSatisfy(stored -> assertThat(stored).startsWith("00-" + TRACE_ID + "-"));
+
+        context.getBean(OutboxRelay.class).relay().block(Duration.ofSeconds(30));
+
+        assertThat(producer.history()).hasSize(2)
+                .allSatisfy(published -> assertThat(traceParentHeader(published)).startsWith("00-" + TRACE_ID + "-"));
+    }
+
+    @Test
+    void eventsWaitWhileAnotherRelayHoldsTheLease() {
+        DatabaseClient databaseClient = context.getBean(DatabaseClient.class);
+        client.post().uri("/patient").bodyValue(patient("waiting@example.com")).exchange().expectStatus().isCreated();
+        databaseClient.sql("UPDATE outbox_relay_lease SET holder = 'patient-service', expires_at = now() + interval '1 minute'")
+                .then().block();
+
+        context.getBean(OutboxRelay.class).relay().block(Duration.ofSeconds(30));
+        assertThat(producer.history()).isEmpty();
+
+        databaseClient.sql("UPDATE outbox_relay_lease SET expires_at = now()").then().block();
+        context.getBean(OutboxRelay.class).relay().block(Duration.ofSeconds(30));
+        assertThat(producer.history()).hasSize(1);
+    }
+
+    private static List<String> traceParents() {
+        return context.getBean(DatabaseClient.class).sql("SELECT trace_parent FROM outbox_event ORDER BY id")
+                .map(row -> row.get("trace_parent", String.class))
+                .all()
+                .collectList()
+                .block();
+    }
+
+    private static String traceParentHeader(ProducerRecord<String, byte[]> record) {
+        return new String(record.headers().lastHeader("traceparent").value(), StandardCharsets.UTF_8);
+    }
+
+    private static PatientRequestDTO patient(String email) {
+        return PatientRequestDTO.builder()
+                .name("Traced")
+                .email(email)
+                .phoneNumber("555-0100")
+                .priority(2)
+                .dateOfBirth(LocalDate.of(1990, 5, 15))
+                .registerDate(LocalDate.of(2026, 2, 15))
+                .build();
+    }
+}
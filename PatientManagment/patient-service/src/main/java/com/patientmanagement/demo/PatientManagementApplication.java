@@ -1,9 +1,13 @@
 package com.patientmanagement.demo;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 @SpringBootApplication
+@EnableScheduling
+@EnableCaching
 public class PatientManagementApplication {
 
 	public static void main(String[] args) {
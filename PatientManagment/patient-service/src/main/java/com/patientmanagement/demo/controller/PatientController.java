@@ -1,26 +1,52 @@
 package com.patientmanagement.demo.controller;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 
-import com.patientmanagement.demo.dto.PatientRequestDTO;
-import com.patientmanagement.demo.dto.PatientResponseDTO;
-import com.patientmanagement.demo.dto.validation.CreatePatientValidationgroup;
+import com.patientmanagement.common.dto.BulkImportResultDTO;
+import com.patientmanagement.common.dto.PatientRequestDTO;
+import com.patientmanagement.common.dto.PatientResponseDTO;
+import com.patientmanagement.common.dto.PatientSearchCriteria;
+import com.patientmanagement.common.dto.validation.CreatePatientValidationgroup;
+import com.patientmanagement.demo.dto.PatientSearchResultDTO;
+import com.patientmanagement.demo.service.PatientBulkImportService;
 import com.patientmanagement.demo.service.PatientService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.groups.Default;
 
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 
 
@@ -28,17 +54,113 @@ import org.springframework.web.bind.annotation.PostMapping;
 @RequestMapping("/patient")
 @Tag(name="Patient",description ="API for patients using swagger")
 public class PatientController{
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+    public static final String CSV_VALUE = "text/csv";
+
+    private static final int EXPORT_BUFFER_BYTES = 64 * 1024;
+
     private final PatientService patientService;
-    public PatientController(PatientService patientService){
+    private final PatientBulkImportService patientBulkImportService;
+    private final ObjectWriter ndjsonWriter = new ObjectMapper().writerFor(PatientResponseDTO.class);
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public PatientController(PatientService patientService,
+                             PatientBulkImportService patientBulkImportService,
+                             @Value("${patient.page.default-size:100}") int defaultPageSize,
+                             @Value("${patient.page.max-size:1000}") int maxPageSize){
         this.patientService =patientService;
+        this.patientBulkImportService = patientBulkImportService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
-    @Operation(summary = "GET patients")
+    @Operation(summary = "GET patients, one keyset page at a time (pass X-Next-Cursor back as 'after')")
     @GetMapping
-    public ResponseEntity<List<PatientResponseDTO>> getPatients(){
-        List<PatientResponseDTO> patients=patientService.getAllPatient();
-        return ResponseEntity.ok().body(patients);
+    public ResponseEntity<List<PatientResponseDTO>> getPatients(@RequestParam(defaultValue = "0") Long after,
+                                                                @RequestParam(required = false) Integer size){
+        int pageSize = Math.min(Math.max(size == null ? defaultPageSize : size, 1), maxPageSize);
+        List<PatientResponseDTO> patients=patientService.getPatientPage(after, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (patients.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, patients.get(patients.size() - 1).getId());
+        }
+        return response.body(patients);
+    }
+
+    @Operation(summary = "Search patients by name prefix, priority and date ranges, sorted by id or registerDate (pass X-Next-Cursor back as 'after')")
+    @GetMapping("/search")
+    public ResponseEntity<List<PatientResponseDTO>> searchPatients(@Validated @ModelAttribute PatientSearchCriteria criteria){
+        int pageSize = Math.min(Math.max(criteria.getSize() == null ? defaultPageSize : criteria.getSize(), 1), maxPageSize);
+        PatientSearchResultDTO result = patientService.searchPatients(criteria, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (result.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, result.getNextCursor());
+        }
+        return response.body(result.getPatients());
+    }
+
+    @Operation(summary = "Stream every patient as newline-delimited JSON")
+    @GetMapping(value = "/stream", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPatients(){
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream, 8192);
+            patientService.streamAllPatients(patient -> {
+                try {
+                    out.write(ndjsonWriter.writeValueAsBytes(patient));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().body(body);
     }
 
+    // Written on the request thread rather than as a StreamingResponseBody, so a long export is
+    // not cut off by the async request timeout. On failure before anything is sent the partial
+    // headers are dropped and the error is reported as usual; a gzip stream cut off later lacks
+    // its trailer, so clients can tell it is incomplete.
+    @Operation(summary = "Export patients as CSV, optionally only those registered in [registeredFrom, registeredTo]; gzipped when the client accepts it")
+    @GetMapping(value = "/export", produces = CSV_VALUE)
+    public void exportPatients(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate registeredFrom,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate registeredTo,
+                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                               HttpServletResponse response) throws IOException {
+        response.setContentType(CSV_VALUE + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("patients.csv").build().toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        OutputStream out;
+        if (acceptsGzip(acceptEncoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            out = new GZIPOutputStream(response.getOutputStream(), EXPORT_BUFFER_BYTES);
+        } else {
+            out = new BufferedOutputStream(response.getOutputStream(), EXPORT_BUFFER_BYTES);
+        }
+        try {
+            patientService.exportPatientsCsv(registeredFrom, registeredTo, out);
+        } catch (RuntimeException e) {
+            if (!response.isCommitted()) {
+                response.reset();
+            }
+            throw e;
+        }
+        out.close();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
    
     @GetMapping("/{id}")
       @Operation(summary = "GET patientsby id")
@@ -54,6 +176,18 @@ public class PatientController{
         return ResponseEntity.status(HttpStatus.CREATED).body(patientResponseDTO);
     }
     
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+      @Operation(summary = "Import many patients from a JSON array, reporting the outcome of every row")
+    public ResponseEntity<BulkImportResultDTO> bulkImport(@RequestBody List<PatientRequestDTO> patients) {
+        return ResponseEntity.ok().body(patientBulkImportService.importPatients(patients));
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+      @Operation(summary = "Import many patients from a CSV upload, reporting the outcome of every row")
+    public ResponseEntity<BulkImportResultDTO> bulkImportCsv(InputStream csv) throws IOException {
+        return ResponseEntity.ok().body(patientBulkImportService.importCsv(new InputStreamReader(csv, StandardCharsets.UTF_8)));
+    }
+
     @PostMapping("/dummy")
     public ResponseEntity<PatientResponseDTO> dummy_data(@RequestBody PatientRequestDTO patientRequestDTO){
          PatientResponseDTO patientResponseDTO=patientService.dummy_data(patientRequestDTO);
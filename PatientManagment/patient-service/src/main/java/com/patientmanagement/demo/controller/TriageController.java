@@ -0,0 +1,40 @@
+package com.patientmanagement.demo.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.patientmanagement.common.dto.PatientResponseDTO;
+import com.patientmanagement.demo.dto.TriageDepthDTO;
+import com.patientmanagement.demo.service.TriageService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/patient/triage")
+@Tag(name = "Triage", description = "Waiting patients, claimed by priority (1 first) and then registerDate")
+public class TriageController {
+
+    private final TriageService triageService;
+
+    public TriageController(TriageService triageService) {
+        this.triageService = triageService;
+    }
+
+    @Operation(summary = "Claim the next waiting patient; 204 when nobody is waiting")
+    @PostMapping("/claim")
+    public ResponseEntity<PatientResponseDTO> claimNext() {
+        return triageService.claimNext()
+                .map(patient -> ResponseEntity.ok().body(patient))
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    @Operation(summary = "Number of waiting patients, in total and per priority")
+    @GetMapping
+    public ResponseEntity<TriageDepthDTO> depth() {
+        return ResponseEntity.ok().body(triageService.depth());
+    }
+}
@@ -0,0 +1,160 @@
+package com.patientmanagement.demo.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Connection pools to the PostgreSQL read replicas, one per replica. Each replica's replay lag is
+ * checked every {@code patient.datasource.replica-check-interval-ms}. A replica serves reads only
+ * while it answers and is at most {@code patient.datasource.replica-max-lag-ms} behind the
+ * primary; otherwise {@link #connection()} skips it. Lag is exported as
+ * {@code patient.datasource.replica.lag} (NaN while a replica is unreachable or its lag unknown).
+ * <p>
+ * A replica counts as current only once it has replayed the primary's WAL position as read at
+ * the start of the check. Comparing its own received and replayed positions is not enough: a
+ * replica whose WAL receiver has disconnected has replayed everything it received and would
+ * look current forever.
+ */
+public class ReadReplicas {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicas.class);
+
+    private static final String PRIMARY_LSN_SQL = "SELECT pg_current_wal_lsn()::text";
+
+    // Caught up with the primary's position is current, however long ago the last write was;
+    // otherwise the lag is the age of the last transaction replayed (NULL if none has been yet)
+    private static final String LAG_SQL = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_replay_lsn() >= ?::pg_lsn THEN 0
+                        ELSE (EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::bigint END
+            """;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private static final class Replica {
+        final String name;
+        final HikariDataSource dataSource;
+        volatile boolean available;
+        volatile double lagMillis = Double.NaN;
+
+        Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    public ReadReplicas(DataSource primary, List<String> urls, String username, String password, int poolSize,
+                        long maxLagMillis, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLagMillis = maxLagMillis;
+        this.replicas = IntStream.range(0, urls.size())
+                .mapToObj(i -> new Replica("replica-" + (i + 1), pool("replica-" + (i + 1), urls.get(i), username, password, poolSize)))
+                .toList();
+        for (Replica replica : replicas) {
+            Gauge.builder("patient.datasource.replica.lag", replica, r -> r.lagMillis)
+                    .description("Replay lag of a read replica behind the primary")
+                    .baseUnit("milliseconds")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+    }
+
+    private static HikariDataSource pool(String name, String url, String username, String password, int poolSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setReadOnly(true);
+        // The primary can serve any read, so don't queue long for a replica that has gone away
+        dataSource.setConnectionTimeout(1000);
+        // Don't fail startup on a replica that is down; the lag check keeps it out of rotation
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    /**
+     * A connection to the next replica in rotation that is current enough, or null when there
+     * is none and the caller should read from the primary.
+     */
+    public Connection connection() {
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (!replica.available) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.available = false;
+                logger.warn("Read replica {} is unavailable, reading from other replicas or the primary: {}", replica.name, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    // Also once at startup, so replicas that are current serve reads from the first request
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${patient.datasource.replica-check-interval-ms:1000}")
+    public void checkLag() {
+        String primaryLsn;
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet lsn = statement.executeQuery(PRIMARY_LSN_SQL)) {
+            lsn.next();
+            primaryLsn = lsn.getString(1);
+        } catch (SQLException e) {
+            // Nothing to measure against; keep the last verdict rather than guess
+            logger.warn("Could not read the primary's WAL position, replica lag not checked: {}", e.getMessage());
+            return;
+        }
+        for (Replica replica : replicas) {
+            boolean wasAvailable = replica.available;
+            try (Connection connection = replica.dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(LAG_SQL)) {
+                statement.setString(1, primaryLsn);
+                try (ResultSet lag = statement.executeQuery()) {
+                    lag.next();
+                    long lagMillis = lag.getLong(1);
+                    boolean known = !lag.wasNull();
+                    replica.lagMillis = known ? lagMillis : Double.NaN;
+                    replica.available = known && lagMillis <= maxLagMillis;
+                }
+            } catch (SQLException e) {
+                replica.lagMillis = Double.NaN;
+                replica.available = false;
+            }
+            if (wasAvailable != replica.available) {
+                logger.info("Read replica {} {} (lag {} ms)", replica.name,
+                        replica.available ? "is back in rotation" : "is out of rotation", replica.lagMillis);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+}
@@ -0,0 +1,63 @@
+package com.patientmanagement.demo.datasource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import com.patientmanagement.common.web.LastWriteCookie;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Pins a client's reads to the primary for a short window after it writes, so it reads its own
+ * update even while the replicas lag. Every write answers with a {@link LastWriteCookie}; reads
+ * that bring one back from within the window are pinned. The client carries the marker, so no
+ * instance has to have seen the write, and patient-service-reactive's writes pin too.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        Cookie lastWrite = WebUtils.getCookie(request, LastWriteCookie.NAME);
+        boolean pinned = lastWrite != null && LastWriteCookie.isRecent(lastWrite.getValue(), now, window);
+        // Set up front: once the handler has written the body the response is committed
+        if (WRITE_METHODS.contains(request.getMethod())) {
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(LastWriteCookie.NAME, String.valueOf(now))
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .maxAge(window)
+                    .build()
+                    .toString());
+        }
+        if (!pinned) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        ReplicaRoutingDataSource.pinToPrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.unpin();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.patientmanagement.demo.datasource;
+
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+import org.springframework.util.function.SingletonSupplier;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Read/write splitting, on when patient.datasource.replica-urls lists one or more replicas.
+ * Boot's primary DataSource is wrapped so that read-only transactions (PatientService's reads
+ * and the repositories' finders) take their connection from a replica, while every other
+ * transaction keeps using the primary pool unchanged.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty("patient.datasource.replica-urls")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReadReplicas readReplicas(DataSource dataSource,
+                                     @Value("${patient.datasource.replica-urls}") String replicaUrls,
+                                     @Value("${spring.datasource.username:}") String username,
+                                     @Value("${spring.datasource.password:}") String password,
+                                     @Value("${patient.datasource.replica-pool-size:10}") int poolSize,
+                                     @Value("${patient.datasource.replica-max-lag-ms:1000}") long maxLagMillis,
+                                     MeterRegistry meterRegistry) {
+        List<String> urls = StringUtils.commaDelimitedListToSet(replicaUrls).stream()
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+        // Outside a read-only transaction the routing DataSource hands out primary connections
+        return new ReadReplicas(dataSource, urls, username, password, poolSize, maxLagMillis, meterRegistry);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(@Value("${patient.datasource.read-your-writes-ms:2000}") long windowMillis) {
+        return new ReadYourWritesFilter(Duration.ofMillis(windowMillis));
+    }
+
+    /**
+     * The lazy proxy defers fetching a connection until the first statement, by which point the
+     * transaction manager has marked it read-only; only then can it choose the replica side. The
+     * replicas are looked up on first use because this post-processor runs before they exist.
+     */
+    @Bean
+    static BeanPostProcessor replicaRoutingDataSourcePostProcessor(ObjectProvider<ReadReplicas> readReplicas) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource primary)) {
+                    return bean;
+                }
+                LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+                routing.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, SingletonSupplier.of(readReplicas::getObject)));
+                return routing;
+            }
+        };
+    }
+}
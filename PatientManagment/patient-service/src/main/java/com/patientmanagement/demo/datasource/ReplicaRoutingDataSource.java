@@ -0,0 +1,55 @@
+package com.patientmanagement.demo.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * The read-only side of the primary's LazyConnectionDataSourceProxy: connections for read-only
+ * transactions come from a replica unless the current thread is pinned to the primary or no
+ * replica is current enough.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final Supplier<ReadReplicas> replicas;
+
+    public ReplicaRoutingDataSource(DataSource primary, Supplier<ReadReplicas> replicas) {
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    /**
+     * Sends this thread's reads to the primary until {@link #unpin()}, so a client sees its own
+     * writes before the replicas have replayed them.
+     */
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED_TO_PRIMARY.remove();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (PINNED_TO_PRIMARY.get() == null) {
+            Connection replica = replicas.get().connection();
+            if (replica != null) {
+                return replica;
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+}
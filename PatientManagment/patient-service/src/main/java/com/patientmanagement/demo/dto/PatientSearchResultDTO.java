@@ -0,0 +1,18 @@
+package com.patientmanagement.demo.dto;
+
+import java.util.List;
+
+import com.patientmanagement.common.dto.PatientResponseDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientSearchResultDTO {
+    private List<PatientResponseDTO> patients;
+    // null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,16 @@
+package com.patientmanagement.demo.dto;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TriageDepthDTO {
+    private long waiting;
+    // Waiting patients per priority (1 is claimed first)
+    private Map<Integer, Long> byPriority;
+}
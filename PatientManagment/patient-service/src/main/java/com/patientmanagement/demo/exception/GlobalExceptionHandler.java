@@ -1,7 +1,9 @@
 package com.patientmanagement.demo.exception;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -12,6 +14,11 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.patientmanagement.common.exception.EmailAlreadyExistException;
+import com.patientmanagement.common.exception.InvalidCursorException;
+import com.patientmanagement.common.exception.PatientNotFoundException;
+import com.patientmanagement.demo.model.Patient;
+
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
@@ -36,10 +43,27 @@ public class GlobalExceptionHandler {
         errors.put("message","Email address already exists");
         return ResponseEntity.badRequest().body(errors);
     }
+    // Writes rely on the unique index instead of checking the email first
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String,String>> handleDataIntegrityViolationException(DataIntegrityViolationException ex){
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && Patient.EMAIL_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName())) {
+                return handleEmailAlreadyExistException(new EmailAlreadyExistException(violation.getMessage()));
+            }
+        }
+        throw ex;
+    }
     @ExceptionHandler(PatientNotFoundException.class)
      public ResponseEntity<Map<String,String>> handlePatientNotFoundException(PatientNotFoundException ex){
         Map<String,String> errors=new HashMap<>();
         errors.put("message","Patient not found");
           return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errors);
      }
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String,String>> handleInvalidCursorException(InvalidCursorException ex){
+        Map<String,String> errors=new HashMap<>();
+        errors.put("message",ex.getMessage());
+        return ResponseEntity.badRequest().body(errors);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.patientmanagement.demo.grpc;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the billing accounts recorded in {@code pending_billing} and deletes each row once
+ * billing-service has confirmed its account. Rows are claimed with a lease rather than held
+ * locked: claiming pushes {@code next_attempt_at} out by a backoff that doubles with every attempt
+ * (from {@code patient.billing.retry-initial-backoff-ms} up to
+ * {@code patient.billing.retry-max-backoff-ms}), so no transaction stays open while billing is
+ * called, and a failed call, a full request queue or an instance that dies mid-batch just leaves
+ * the row to be retried once the lease runs out. Several instances can relay side by side; an
+ * account created twice is harmless because CreateBillingAccount is idempotent per patient id.
+ */
+@Component
+public class BillingRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(BillingRelay.class);
+
+    private static final String CLAIM_SQL = """
+            UPDATE pending_billing b
+               SET attempts = b.attempts + 1,
+                   next_attempt_at = now() + least(? * power(2, least(b.attempts, 20)), ?) * interval '1 millisecond'
+              FROM patient p
+             WHERE p.id = b.patient_id
+               AND b.patient_id IN (SELECT patient_id FROM pending_billing
+                                     WHERE next_attempt_at <= now()
+                                     ORDER BY next_attempt_at
+                                     LIMIT ?
+                                     FOR UPDATE SKIP LOCKED)
+            RETURNING b.patient_id, p.name, p.email""";
+    private static final String DELETE_SQL = "DELETE FROM pending_billing WHERE patient_id = ANY(?::bigint[])";
+
+    private record PendingAccount(long patientId, String name, String email) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BillingServiceClient billingServiceClient;
+    private final int batchSize;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public BillingRelay(JdbcTemplate jdbcTemplate,
+                        BillingServiceClient billingServiceClient,
+                        @Value("${patient.billing.batch-size:500}") int batchSize,
+                        @Value("${patient.billing.retry-initial-backoff-ms:10000}") long initialBackoffMillis,
+                        @Value("${patient.billing.retry-max-backoff-ms:600000}") long maxBackoffMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.billingServiceClient = billingServiceClient;
+        this.batchSize = batchSize;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${patient.billing.poll-interval-ms:200}")
+    public void relay() {
+        int created;
+        do {
+            created = relayBatch();
+        } while (created == batchSize);
+    }
+
+    // The claim commits on its own, so the calls below run outside any transaction
+    private int relayBatch() {
+        List<PendingAccount> claimed;
+        try {
+            claimed = jdbcTemplate.query(CLAIM_SQL,
+                    (rs, rowNum) -> new PendingAccount(rs.getLong("patient_id"), rs.getString("name"), rs.getString("email")),
+                    initialBackoffMillis, maxBackoffMillis, batchSize);
+        } catch (RuntimeException e) {
+            logger.warn("Could not claim pending billing accounts: {}", e.getMessage());
+            return 0;
+        }
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        // Queued one by one so the client's batcher coalesces them into its own batch calls
+        List<CompletableFuture<Long>> calls = claimed.stream()
+                .map(account -> billingServiceClient
+                        .createBillingAccountAsync(String.valueOf(account.patientId()), account.name(), account.email())
+                        .handle((accountId, ex) -> ex == null ? account.patientId() : null))
+                .toList();
+        List<Long> created = calls.stream().map(CompletableFuture::join).filter(Objects::nonNull).toList();
+
+        if (created.size() < claimed.size()) {
+            logger.warn("{} of {} billing accounts could not be created and will be retried", claimed.size() - created.size(), claimed.size());
+        }
+        if (!created.isEmpty()) {
+            try {
+                jdbcTemplate.update(con -> {
+                    PreparedStatement ps = con.prepareStatement(DELETE_SQL);
+                    ps.setArray(1, con.createArrayOf("int8", created.toArray()));
+                    return ps;
+                });
+            } catch (RuntimeException e) {
+                // The accounts exist; the rows are retried after their lease and billing answers with the same accounts
+                logger.warn("Could not clear {} created billing accounts: {}", created.size(), e.getMessage());
+                return 0;
+            }
+        }
+        return created.size();
+    }
+}
@@ -1,48 +1,305 @@
 package com.patientmanagement.demo.grpc;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
 import jakarta.annotation.PreDestroy;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import billing.BillingAccountLookup;
+import billing.BillingAccountsRequest;
+import billing.BillingAccountsResponse;
 import billing.BillingRequest;
 import billing.BillingResponse;
 import billing.BillingServiceGrpc;
+import billing.ExportBillingAccountsRequest;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.grpc.ObservationGrpcClientInterceptor;
+import io.micrometer.observation.ObservationRegistry;
 
+/**
+ * gRPC client for the billing service. Single-account requests made through
+ * {@link #createBillingAccountAsync} are queued and coalesced by a background batcher into
+ * CreateBillingAccounts calls of up to {@code billing.client.batch-size} accounts, waiting at
+ * most {@code billing.client.linger-ms} for a batch to fill. At most
+ * {@code billing.client.max-in-flight} batches are outstanding at once; beyond that the queue
+ * absorbs the backlog and new requests are rejected once it is full. A batch call's deadline is
+ * {@code billing.client.deadline-ms} plus {@code billing.client.deadline-per-account-ms} for each
+ * account, so a full batch is not cut off by the deadline meant for one.
+ * With {@code spring.threads.virtual.enabled} the batcher, the channel and the batch callbacks
+ * run on virtual threads instead of platform threads.
+ * <p>
+ * Reconciliation reads use the streaming RPCs: {@link #getBillingAccounts} and
+ * {@link #exportBillingAccounts} are one call each however many accounts they return, bounded
+ * by {@code billing.client.stream-deadline-ms} rather than the per-request deadline.
+ * <p>
+ * Every call is timed as {@code grpc.client} and carries the caller's trace context in its
+ * metadata. Queued requests are also timed from enqueue to completion as
+ * {@code billing.client.requests}, and {@code billing.client.queue.size} reports the backlog.
+ */
 @Service
 public class BillingServiceClient {
 
+    private static final Logger logger = LoggerFactory.getLogger(BillingServiceClient.class);
+
     private final ManagedChannel channel;
     private final BillingServiceGrpc.BillingServiceBlockingStub blockingStub;
+    private final BillingServiceGrpc.BillingServiceFutureStub futureStub;
+    private final BillingServiceGrpc.BillingServiceStub asyncStub;
+    private final long deadlineMillis;
+    private final long deadlinePerAccountMillis;
+    private final long streamDeadlineMillis;
+    private final int batchSize;
+    private final long lingerMillis;
+    private final Semaphore inFlight;
+    private final BlockingQueue<PendingRequest> pending;
+    private final Thread batcher;
+    private final Executor callbackExecutor;
+    private final MeterRegistry meterRegistry;
+    private volatile boolean running = true;
+
+    private record PendingRequest(BillingRequest request, CompletableFuture<String> accountId) {
+    }
 
-    public BillingServiceClient(@Value("${billing.service.address:localhost:9001}") String address) {
+    public BillingServiceClient(@Value("${billing.service.address:localhost:9001}") String address,
+                                @Value("${billing.client.deadline-ms:2000}") long deadlineMillis,
+                                @Value("${billing.client.deadline-per-account-ms:20}") long deadlinePerAccountMillis,
+                                @Value("${billing.client.stream-deadline-ms:600000}") long streamDeadlineMillis,
+                                @Value("${billing.client.batch-size:100}") int batchSize,
+                                @Value("${billing.client.linger-ms:5}") long lingerMillis,
+                                @Value("${billing.client.max-in-flight:16}") int maxInFlight,
+                                @Value("${billing.client.queue-capacity:10000}") int queueCapacity,
+                                @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                ObservationRegistry observationRegistry,
+                                MeterRegistry meterRegistry) {
         String[] parts = address.split(":");
         String host = parts[0];
         int port = parts.length > 1 ? Integer.parseInt(parts[1]) : 9001;
         
-        this.channel = ManagedChannelBuilder.forAddress(host, port)
+        this.callbackExecutor = virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : MoreExecutors.directExecutor();
+        ManagedChannelBuilder<?> channelBuilder = ManagedChannelBuilder.forAddress(host, port)
                 .usePlaintext()
-                .build();
+                .intercept(new ObservationGrpcClientInterceptor(observationRegistry));
+        if (virtualThreads) {
+            channelBuilder.executor(callbackExecutor);
+        }
+        this.channel = channelBuilder.build();
         this.blockingStub = BillingServiceGrpc.newBlockingStub(channel);
+        this.futureStub = BillingServiceGrpc.newFutureStub(channel);
+        this.asyncStub = BillingServiceGrpc.newStub(channel);
+        this.deadlineMillis = deadlineMillis;
+        this.deadlinePerAccountMillis = deadlinePerAccountMillis;
+        this.streamDeadlineMillis = streamDeadlineMillis;
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("billing.client.queue.size", pending, BlockingQueue::size)
+                .description("Billing account requests waiting for a batch")
+                .register(meterRegistry);
+        Thread.Builder batcherThread = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+        this.batcher = batcherThread.name("billing-batcher").start(this::runBatcher);
     }
 
     @PreDestroy
     public void shutdown() {
+        running = false;
+        batcher.interrupt();
         if (channel != null && !channel.isShutdown()) {
             channel.shutdown();
         }
+        if (callbackExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
     }
 
     public String createBillingAccount(String patientId, String name, String email) {
-        BillingRequest request = BillingRequest.newBuilder()
+        BillingResponse response = blockingStub.withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS)
+                .createBillingAccount(billingRequest(patientId, name, email));
+        return response.getAccountId();
+    }
+
+    /**
+     * Queues the account for the next micro-batch and returns immediately; the future completes
+     * with the account id, or exceptionally if the queue is full or the batch call fails.
+     */
+    public CompletableFuture<String> createBillingAccountAsync(String patientId, String name, String email) {
+        CompletableFuture<String> accountId = new CompletableFuture<>();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        if (!pending.offer(new PendingRequest(billingRequest(patientId, name, email), accountId))) {
+            accountId.completeExceptionally(new RejectedExecutionException("Billing request queue is full"));
+        }
+        return accountId.whenComplete((id, ex) -> sample.stop(Timer.builder("billing.client.requests")
+                .description("Time from queueing a billing account request to its batch completing")
+                .tag("outcome", ex == null ? "success" : ex instanceof RejectedExecutionException ? "rejected" : "error")
+                .publishPercentileHistogram()
+                .register(meterRegistry)));
+    }
+
+    /**
+     * Looks up the accounts of many patients over one GetBillingAccounts stream and blocks until
+     * every id has been answered. {@code consumer} receives one response per id, in the order of
+     * {@code patientIds}, with status "NotFound" for patients without an account. Ids are only
+     * sent while the transport can take them and the next response is only read once
+     * {@code consumer} returns, so neither side buffers the whole list.
+     */
+    public void getBillingAccounts(Iterable<String> patientIds, Consumer<BillingResponse> consumer) {
+        Iterator<String> ids = patientIds.iterator();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        asyncStub.withDeadlineAfter(streamDeadlineMillis, TimeUnit.MILLISECONDS)
+                .getBillingAccounts(new ClientResponseObserver<BillingAccountLookup, BillingResponse>() {
+                    private boolean halfClosed;
+
+                    @Override
+                    public void beforeStart(ClientCallStreamObserver<BillingAccountLookup> requests) {
+                        // Called whenever the transport can take more; gRPC serializes these calls
+                        requests.setOnReadyHandler(() -> {
+                            while (requests.isReady() && ids.hasNext()) {
+                                requests.onNext(BillingAccountLookup.newBuilder().setPatientId(ids.next()).build());
+                            }
+                            if (!ids.hasNext() && !halfClosed) {
+                                halfClosed = true;
+                                requests.onCompleted();
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void onNext(BillingResponse response) {
+                        consumer.accept(response);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        done.completeExceptionally(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        done.complete(null);
+                    }
+                });
+        awaitStream(done);
+    }
+
+    /**
+     * Streams every billing account with a patient id after {@code afterPatientId} (empty for all)
+     * to {@code consumer}, in patient id order. The next account is only read once
+     * {@code consumer} returns; to resume a failed export, pass the last patient id received.
+     */
+    public void exportBillingAccounts(String afterPatientId, Consumer<BillingResponse> consumer) {
+        blockingStub.withDeadlineAfter(streamDeadlineMillis, TimeUnit.MILLISECONDS)
+                .exportBillingAccounts(ExportBillingAccountsRequest.newBuilder().setAfterPatientId(afterPatientId).build())
+                .forEachRemaining(consumer);
+    }
+
+    private static void awaitStream(CompletableFuture<Void> done) {
+        try {
+            done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    static BillingRequest billingRequest(String patientId, String name, String email) {
+        return BillingRequest.newBuilder()
                 .setPatientId(patientId)
                 .setName(name)
                 .setEmail(email)
                 .build();
+    }
 
-        BillingResponse response = blockingStub.createBillingAccount(request);
-        return response.getAccountId();
+    private void runBatcher() {
+        List<PendingRequest> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(pending.take());
+                long lingerDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < batchSize) {
+                    long remaining = lingerDeadline - System.nanoTime();
+                    PendingRequest next = remaining > 0 ? pending.poll(remaining, TimeUnit.NANOSECONDS) : pending.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                inFlight.acquire();
+                try {
+                    send(List.copyOf(batch));
+                } catch (RuntimeException e) {
+                    // The call never started, so no callback will release the permit or complete the batch
+                    inFlight.release();
+                    logger.error("Billing batch of {} accounts could not be sent: {}", batch.size(), e.getMessage());
+                    batch.forEach(p -> p.accountId().completeExceptionally(e));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(p -> p.accountId().completeExceptionally(e));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<PendingRequest> batch) {
+        BillingAccountsRequest.Builder request = BillingAccountsRequest.newBuilder();
+        batch.forEach(p -> request.addRequests(p.request()));
+
+        Futures.addCallback(
+                futureStub.withDeadlineAfter(deadlineMillis + deadlinePerAccountMillis * batch.size(), TimeUnit.MILLISECONDS)
+                        .createBillingAccounts(request.build()),
+                new FutureCallback<BillingAccountsResponse>() {
+                    @Override
+                    public void onSuccess(BillingAccountsResponse response) {
+                        inFlight.release();
+                        for (int i = 0; i < batch.size(); i++) {
+                            if (i < response.getResponsesCount()) {
+                                batch.get(i).accountId().complete(response.getResponses(i).getAccountId());
+                            } else {
+                                batch.get(i).accountId().completeExceptionally(
+                                        new IllegalStateException("No billing response for patient " + batch.get(i).request().getPatientId()));
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        inFlight.release();
+                        logger.error("Billing batch of {} accounts failed: {}", batch.size(), t.getMessage());
+                        batch.forEach(p -> p.accountId().completeExceptionally(t));
+                    }
+                },
+                callbackExecutor);
     }
 }
@@ -1,6 +1,7 @@
 package com.patientmanagement.demo.kafka;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
@@ -10,11 +11,13 @@ public class KafkaConfig {
 
     public static final String PATIENT_EVENTS_TOPIC = "patient-events";
 
+    // Partitions bound how many analytics consumers can share the topic; events are keyed by patient id.
     @Bean
-    public NewTopic patientEventsTopic() {
+    public NewTopic patientEventsTopic(@Value("${patient.events.partitions:6}") int partitions,
+                                       @Value("${patient.events.replicas:1}") int replicas) {
         return TopicBuilder.name(PATIENT_EVENTS_TOPIC)
-                .partitions(1)
-                .replicas(1)
+                .partitions(partitions)
+                .replicas(replicas)
                 .build();
     }
 }
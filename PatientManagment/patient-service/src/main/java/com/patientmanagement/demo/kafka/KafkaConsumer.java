@@ -1,21 +1,40 @@
 package com.patientmanagement.demo.kafka;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import com.patientmanagement.demo.service.PatientService;
+
 @Component
 public class KafkaConsumer {
 
     private static final Logger logger = LoggerFactory.getLogger(KafkaConsumer.class);
 
-    @KafkaListener(topics = KafkaConfig.PATIENT_EVENTS_TOPIC, groupId = "patient-service-group")
-    public void consumePatientEvent(String key, byte[] message) {
-        logger.info("Received Kafka message with key: {}", key);
-        logger.info("Message payload: {}", new String(message));
-        
-        // Process the patient event here
-        // You can deserialize the message and perform actions
+    private final Cache patientCache;
+
+    public KafkaConsumer(CacheManager cacheManager) {
+        this.patientCache = cacheManager.getCache(PatientService.PATIENT_CACHE);
+    }
+
+    // Every replica joins its own group so each one sees every change and evicts it locally;
+    // records are keyed by patient id, so the payload does not need decoding.
+    @KafkaListener(topics = KafkaConfig.PATIENT_EVENTS_TOPIC,
+            groupId = "patient-service-cache-${random.uuid}",
+            properties = "auto.offset.reset=latest")
+    public void consumePatientEvent(ConsumerRecord<String, byte[]> record) {
+        if (record.key() == null) {
+            return;
+        }
+        try {
+            patientCache.evict(Long.valueOf(record.key()));
+            logger.debug("Evicted patient {} from cache", record.key());
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring patient event with non-numeric key {}", record.key());
+        }
     }
 }
@@ -1,31 +1,69 @@
 package com.patientmanagement.demo.kafka;
 
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import jakarta.annotation.PreDestroy;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import com.patientmanagement.common.kafka.PatientEvents;
+
 @Component
 public class KafkaProducer {
 
     private static final Logger logger = LoggerFactory.getLogger(KafkaProducer.class);
     private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    // Keeps send callbacks (and whatever is chained onto the returned future) off the producer I/O thread
+    private final Executor callbackExecutor;
 
-    public KafkaProducer(KafkaTemplate<String, byte[]> kafkaTemplate) {
+    public KafkaProducer(KafkaTemplate<String, byte[]> kafkaTemplate,
+                         @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
         this.kafkaTemplate = kafkaTemplate;
+        this.callbackExecutor = virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : Runnable::run;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (callbackExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    public CompletableFuture<SendResult<String, byte[]>> sendMessage(String topic, String key, byte[] message) {
+        return send(new ProducerRecord<>(topic, key, message));
+    }
+
+    public CompletableFuture<SendResult<String, byte[]>> sendMessage(String topic, String key, byte[] message, String contentType) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, key, message);
+        record.headers()
+            .add(PatientEvents.CONTENT_TYPE_HEADER, contentType.getBytes(StandardCharsets.UTF_8))
+            .add(PatientEvents.VERSION_HEADER, PatientEvents.version(contentType).getBytes(StandardCharsets.UTF_8));
+        return send(record);
     }
 
-    public void sendMessage(String topic, String key, byte[] message) {
-        kafkaTemplate.send(topic, key, message)
-            .whenComplete((result, ex) -> {
+    private CompletableFuture<SendResult<String, byte[]>> send(ProducerRecord<String, byte[]> record) {
+        String topic = record.topic();
+        return kafkaTemplate.send(record)
+            .whenCompleteAsync((result, ex) -> {
                 if (ex != null) {
                     logger.error("Failed to send message to topic {}: {}", topic, ex.getMessage());
                 } else {
-                    logger.info("Message sent successfully to topic {} partition {} offset {}", 
+                    logger.debug("Message sent successfully to topic {} partition {} offset {}", 
                         topic, 
                         result.getRecordMetadata().partition(), 
                         result.getRecordMetadata().offset());
                 }
-            });
+            }, callbackExecutor);
     }
 }
@@ -0,0 +1,111 @@
+package com.patientmanagement.demo.kafka;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.patientmanagement.common.observation.TraceParents;
+import com.patientmanagement.demo.model.OutboxEvent;
+import com.patientmanagement.demo.repository.OutboxEventRepository;
+
+import io.micrometer.tracing.CurrentTraceContext;
+import io.micrometer.tracing.Tracer;
+
+/**
+ * Drains the outbox to Kafka in batches. Only the relay holding the {@link OutboxRelayLease}
+ * publishes, so however many patient services run, events leave in id order and each patient's
+ * events in the order they were written. A batch is read in a short transaction, handed to the
+ * producer in one go so the records share producer batches, and deleted only after every send is
+ * acknowledged; no transaction or row lock is held while the acknowledgements are awaited. If any
+ * send fails the whole batch is retried on the next poll.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxRelayLease lease;
+    private final KafkaProducer kafkaProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final Tracer tracer;
+    private final int batchSize;
+    private final long sendTimeoutMillis;
+    private final long leaseMillis;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxRelayLease lease,
+                       KafkaProducer kafkaProducer,
+                       TransactionTemplate transactionTemplate,
+                       Tracer tracer,
+                       @Value("${patient.outbox.batch-size:500}") int batchSize,
+                       @Value("${patient.outbox.send-timeout-ms:10000}") long sendTimeoutMillis,
+                       @Value("${patient.outbox.lease-ms:30000}") long leaseMillis) {
+        // A batch must finish inside the lease, or a second relay could start publishing alongside it
+        if (leaseMillis <= sendTimeoutMillis) {
+            throw new IllegalArgumentException("patient.outbox.lease-ms must be longer than patient.outbox.send-timeout-ms");
+        }
+        this.outboxEventRepository = outboxEventRepository;
+        this.lease = lease;
+        this.kafkaProducer = kafkaProducer;
+        this.transactionTemplate = transactionTemplate;
+        this.tracer = tracer;
+        this.batchSize = batchSize;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.leaseMillis = leaseMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${patient.outbox.poll-interval-ms:100}")
+    public void relay() {
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == batchSize);
+    }
+
+    private int relayBatch() {
+        try {
+            if (!lease.acquire(leaseMillis)) {
+                return 0;
+            }
+            // Read-write so it is served by the primary
+            List<OutboxEvent> events = transactionTemplate.execute(status -> outboxEventRepository.findNextBatch(batchSize));
+            if (events == null || events.isEmpty()) {
+                return 0;
+            }
+            CompletableFuture<?>[] sends = events.stream()
+                    .map(this::send)
+                    .toArray(CompletableFuture[]::new);
+            try {
+                CompletableFuture.allOf(sends).get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while publishing outbox batch", e);
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to publish outbox batch", e);
+            }
+            outboxEventRepository.deleteAllByIdInBatch(events.stream().map(OutboxEvent::getId).toList());
+            return events.size();
+        } catch (RuntimeException e) {
+            logger.warn("Outbox relay failed, batch will be retried: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    // The send's span, and the traceparent header it writes, continue the trace that wrote the event
+    private CompletableFuture<?> send(OutboxEvent event) {
+        CurrentTraceContext.Scope scope = TraceParents.restore(tracer, event.getTraceParent());
+        try {
+            return kafkaProducer.sendMessage(event.getTopic(), event.getAggregateId(), event.getPayload(), event.getContentType());
+        } finally {
+            scope.close();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.patientmanagement.demo.kafka;
+
+import java.util.UUID;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * The lease on {@code outbox_relay_lease} that makes this instance's {@link OutboxRelay} the only
+ * one publishing, across every patient service sharing the database. Each call is one statement,
+ * so nothing is held between polls; the holder keeps the lease by renewing it before every batch
+ * and hands it over on shutdown, and a holder that dies loses it once it expires.
+ */
+@Component
+public class OutboxRelayLease {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelayLease.class);
+
+    private static final String ACQUIRE_SQL = """
+            UPDATE outbox_relay_lease
+               SET holder = ?, expires_at = now() + ? * interval '1 millisecond'
+             WHERE id = 1 AND (holder = ? OR expires_at <= now())""";
+    private static final String RELEASE_SQL = "UPDATE outbox_relay_lease SET expires_at = now() WHERE id = 1 AND holder = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String holder = UUID.randomUUID().toString();
+
+    public OutboxRelayLease(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Takes the lease if it is free or expired, or renews it if this instance already holds it
+    public boolean acquire(long leaseMillis) {
+        return jdbcTemplate.update(ACQUIRE_SQL, holder, leaseMillis, holder) == 1;
+    }
+
+    @PreDestroy
+    public void release() {
+        try {
+            jdbcTemplate.update(RELEASE_SQL, holder);
+        } catch (RuntimeException e) {
+            logger.warn("Could not release the outbox relay lease, another relay takes over once it expires: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.patientmanagement.demo.kafka;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import com.patientmanagement.common.kafka.PatientEvents;
+import com.patientmanagement.demo.service.TriageService;
+
+/**
+ * Keeps this instance's triage queue current. Like the cache listener, every instance joins its
+ * own group and so sees every change. On its first assignment it rewinds to shortly before the
+ * startup rebuild read the database, so nothing written between that read and the listener
+ * starting is missed; replaying changes the rebuild already saw is harmless.
+ */
+@Component
+public class TriageEventListener implements ConsumerSeekAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(TriageEventListener.class);
+
+    private final TriageService triageService;
+    private final long replayMarginMillis;
+    private final AtomicBoolean rewound = new AtomicBoolean();
+
+    public TriageEventListener(TriageService triageService,
+                               @Value("${patient.triage.replay-margin-ms:5000}") long replayMarginMillis) {
+        this.triageService = triageService;
+        this.replayMarginMillis = replayMarginMillis;
+    }
+
+    @KafkaListener(topics = KafkaConfig.PATIENT_EVENTS_TOPIC,
+            groupId = "patient-service-triage-${random.uuid}",
+            properties = "auto.offset.reset=latest")
+    public void consumePatientEvent(ConsumerRecord<String, byte[]> record) {
+        Header contentType = record.headers().lastHeader(PatientEvents.CONTENT_TYPE_HEADER);
+        try {
+            triageService.apply(PatientEvents.decode(
+                    contentType == null ? PatientEvents.JSON : new String(contentType.value(), StandardCharsets.UTF_8),
+                    record.value()));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable patient event {} for triage: {}", record.key(), e.getMessage());
+        }
+    }
+
+    // Record timestamps are send times, after the change committed; the margin covers clock skew between instances
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        if (rewound.compareAndSet(false, true)) {
+            callback.seekToTimestamp(assignments.keySet(), triageService.rebuiltAt().toEpochMilli() - replayMarginMillis);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.patientmanagement.demo.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A patient-event waiting to be published. Rows are written in the same transaction as the
+ * patient change and removed by the outbox relay once Kafka has acknowledged them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String aggregateId;
+    @Column(nullable = false)
+    private String eventType;
+    @Column(nullable = false)
+    private String topic;
+    @Column(nullable = false)
+    private byte[] payload;
+    @Column(nullable = false)
+    private String contentType;
+    @Column(nullable = false)
+    private Instant createdAt;
+    // W3C traceparent of the request that wrote the row; the relay publishes within this trace
+    private String traceParent;
+}
@@ -2,6 +2,10 @@ package com.patientmanagement.demo.model;
 
 import java.time.LocalDate;
 
+import org.hibernate.annotations.DynamicUpdate;
+
+import com.patientmanagement.common.model.PatientDetails;
+
 import jakarta.persistence.Id;
 
 import jakarta.persistence.Column;
@@ -20,7 +24,11 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Builder
 @Entity
-public class Patient{
+@DynamicUpdate
+public class Patient implements PatientDetails{
+
+    // Unique index behind @Column(unique=true); duplicate emails are detected by this name
+    public static final String EMAIL_CONSTRAINT = "uk_patient_email";
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,51 @@
+package com.patientmanagement.demo.observation;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.function.SingletonSupplier;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.annotation.Observed;
+
+@Configuration(proxyBeanMethods = false)
+public class ObservationConfig {
+
+    /**
+     * Observes every public method of an {@link Observed} class under the annotation's name, tagged
+     * with class and method like Micrometer's ObservedAspect. Unlike the aspect this advice runs
+     * outermost, so the timers and spans include cache lookups and the transaction commit (where
+     * dirty-checked UPDATEs are flushed) rather than just the method body.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor observedClassAdvisor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        SingletonSupplier<ObservationRegistry> registry =
+                SingletonSupplier.of(() -> observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+        MethodInterceptor interceptor = invocation -> {
+            Class<?> type = ClassUtils.getUserClass(invocation.getThis());
+            Observed observed = AnnotationUtils.findAnnotation(type, Observed.class);
+            String method = invocation.getMethod().getName();
+            return Observation.createNotStarted(observed.name(), registry.obtain())
+                    .contextualName(observed.contextualName().isEmpty()
+                            ? type.getSimpleName() + "#" + method
+                            : observed.contextualName() + "#" + method)
+                    .lowCardinalityKeyValue("class", type.getSimpleName())
+                    .lowCardinalityKeyValue("method", method)
+                    .observeChecked(invocation::proceed);
+        };
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Observed.class, true), interceptor);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
@@ -0,0 +1,58 @@
+package com.patientmanagement.demo.repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// COPY ... TO STDOUT: PostgreSQL formats the CSV itself and the driver hands each row to the
+// OutputStream as it arrives, so nothing is hydrated or held in memory on this side.
+@Repository
+public class PatientExportRepository {
+
+    // Header names match PatientCsvMapper's, so an export can be re-imported through POST /patient/bulk
+    private static final String SELECT = """
+            SELECT id, name, email, phone_number AS "phoneNumber", priority,
+                   date_of_birth AS "dateOfBirth", register_date AS "registerDate"
+            FROM patient""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PatientExportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Writes the patients registered within the (inclusive, each optional) range to {@code out}
+     * as CSV with a header row, in id order, and returns the number of rows written.
+     */
+    public long exportCsv(LocalDate registeredFrom, LocalDate registeredTo, OutputStream out) {
+        String sql = "COPY (" + buildQuery(registeredFrom, registeredTo) + ") TO STDOUT WITH (FORMAT csv, HEADER)";
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // COPY takes no bind parameters; LocalDate.toString() is always an ISO yyyy-MM-dd literal
+    static String buildQuery(LocalDate registeredFrom, LocalDate registeredTo) {
+        List<String> where = new ArrayList<>();
+        if (registeredFrom != null) {
+            where.add("register_date >= DATE '" + registeredFrom + "'");
+        }
+        if (registeredTo != null) {
+            where.add("register_date <= DATE '" + registeredTo + "'");
+        }
+        return SELECT + (where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where)) + " ORDER BY id";
+    }
+}
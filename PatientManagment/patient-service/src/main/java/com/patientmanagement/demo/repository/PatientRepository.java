@@ -1,13 +1,32 @@
 package com.patientmanagement.demo.repository;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.patientmanagement.demo.model.Patient;
 
+import jakarta.persistence.QueryHint;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
 public interface PatientRepository extends JpaRepository<Patient,Long>{
-    
-boolean existsByEmail(String email);
-boolean existsByEmailAndIdNot(String email,Long id);
+
+// Keyset page: everything after the given id, in id order, at most `limit` rows.
+List<Patient> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+// Server-side cursor over the whole table; must be consumed inside a read-only transaction.
+@QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+})
+@Query("select p from Patient p order by p.id")
+Stream<Patient> streamAllOrderById();
 
 }
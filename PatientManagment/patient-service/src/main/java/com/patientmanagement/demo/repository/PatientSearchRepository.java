@@ -0,0 +1,151 @@
+package com.patientmanagement.demo.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.patientmanagement.common.dto.PatientSearchCriteria;
+import com.patientmanagement.common.exception.InvalidCursorException;
+import com.patientmanagement.demo.model.Patient;
+
+// Plain SQL rather than a JPA Specification: the keyset predicate is a row comparison
+// ((register_date, id) > (?, ?)) so it stays a single index range scan.
+@Repository
+public class PatientSearchRepository {
+
+    private static final String SELECT =
+            "SELECT id, name, email, phone_number, priority, date_of_birth, register_date FROM patient";
+
+    private static final RowMapper<Patient> PATIENT_ROW_MAPPER = (rs, rowNum) -> Patient.builder()
+            .id(rs.getLong("id"))
+            .name(rs.getString("name"))
+            .email(rs.getString("email"))
+            .phoneNumber(rs.getString("phone_number"))
+            .priority(rs.getInt("priority"))
+            .dateOfBirth(rs.getObject("date_of_birth", LocalDate.class))
+            .registerDate(rs.getObject("register_date", LocalDate.class))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public PatientSearchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Patient> search(PatientSearchCriteria criteria, int limit) {
+        SearchQuery query = buildQuery(criteria, limit);
+        return jdbcTemplate.query(query.sql(), query.params(), PATIENT_ROW_MAPPER);
+    }
+
+    public static String nextCursor(PatientSearchCriteria criteria, Patient last) {
+        String value = isRegisterDateSort(criteria)
+                ? last.getRegisterDate() + ":" + last.getId()
+                : String.valueOf(last.getId());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    record SearchQuery(String sql, MapSqlParameterSource params) {
+    }
+
+    static SearchQuery buildQuery(PatientSearchCriteria criteria, int limit) {
+        List<String> where = new ArrayList<>();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+
+        if (criteria.getName() != null && !criteria.getName().isBlank()) {
+            where.add("lower(name) LIKE :name ESCAPE '\\'");
+            params.addValue("name", escapeLike(criteria.getName().trim().toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (criteria.getPriority() != null) {
+            where.add("priority = :priority");
+            params.addValue("priority", criteria.getPriority());
+        }
+        if (criteria.getRegisteredFrom() != null) {
+            where.add("register_date >= :registeredFrom");
+            params.addValue("registeredFrom", criteria.getRegisteredFrom());
+        }
+        if (criteria.getRegisteredTo() != null) {
+            where.add("register_date <= :registeredTo");
+            params.addValue("registeredTo", criteria.getRegisteredTo());
+        }
+        if (criteria.getBornFrom() != null) {
+            where.add("date_of_birth >= :bornFrom");
+            params.addValue("bornFrom", criteria.getBornFrom());
+        }
+        if (criteria.getBornTo() != null) {
+            where.add("date_of_birth <= :bornTo");
+            params.addValue("bornTo", criteria.getBornTo());
+        }
+
+        boolean descending = "desc".equals(criteria.getDirection());
+        String comparison = descending ? "<" : ">";
+        String direction = descending ? "DESC" : "ASC";
+        String orderBy;
+        if (isRegisterDateSort(criteria)) {
+            orderBy = "register_date " + direction + ", id " + direction;
+            if (criteria.getAfter() != null) {
+                String[] cursor = decodeCursor(criteria.getAfter()).split(":", 2);
+                if (cursor.length != 2) {
+                    throw new InvalidCursorException("Invalid cursor: " + criteria.getAfter());
+                }
+                where.add("(register_date, id) " + comparison + " (:afterDate, :afterId)");
+                params.addValue("afterDate", parseDate(cursor[0], criteria.getAfter()));
+                params.addValue("afterId", parseId(cursor[1], criteria.getAfter()));
+            }
+        } else {
+            orderBy = "id " + direction;
+            if (criteria.getAfter() != null) {
+                where.add("id " + comparison + " :afterId");
+                params.addValue("afterId", parseId(decodeCursor(criteria.getAfter()), criteria.getAfter()));
+            }
+        }
+
+        StringBuilder sql = new StringBuilder(SELECT);
+        if (!where.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", where));
+        }
+        sql.append(" ORDER BY ").append(orderBy).append(" LIMIT :limit");
+        params.addValue("limit", limit);
+        return new SearchQuery(sql.toString(), params);
+    }
+
+    private static boolean isRegisterDateSort(PatientSearchCriteria criteria) {
+        return "registerDate".equals(criteria.getSort());
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static LocalDate parseDate(String value, String cursor) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static long parseId(String value, String cursor) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.patientmanagement.demo.repository;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.patientmanagement.demo.model.Patient;
+
+// triaged_at is not mapped on Patient; only the triage queue reads or writes it.
+@Repository
+public class TriageRepository {
+
+    // The WHERE clause makes a claim that lost a race with another instance update nothing
+    private static final String CLAIM_SQL = """
+            UPDATE patient SET triaged_at = now()
+            WHERE id = ? AND triaged_at IS NULL
+            RETURNING id, name, email, phone_number, priority, date_of_birth, register_date""";
+
+    private static final String WAITING_SQL = """
+            SELECT id, priority, register_date FROM patient
+            WHERE triaged_at IS NULL
+            ORDER BY priority, register_date, id""";
+
+    private static final RowMapper<Patient> PATIENT_ROW_MAPPER = (rs, rowNum) -> Patient.builder()
+            .id(rs.getLong("id"))
+            .name(rs.getString("name"))
+            .email(rs.getString("email"))
+            .phoneNumber(rs.getString("phone_number"))
+            .priority(rs.getInt("priority"))
+            .dateOfBirth(rs.getObject("date_of_birth", LocalDate.class))
+            .registerDate(rs.getObject("register_date", LocalDate.class))
+            .build();
+
+    private static final int WAITING_FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TriageRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Marks the patient triaged and returns it, or returns empty if it has already been claimed
+     * or no longer exists.
+     */
+    public Optional<Patient> claim(long patientId) {
+        return jdbcTemplate.query(CLAIM_SQL, PATIENT_ROW_MAPPER, patientId).stream().findFirst();
+    }
+
+    /**
+     * Hands every waiting patient (id, priority and registerDate only) to {@code sink} in claim
+     * order and returns how many there were.
+     * Runs in a transaction so PostgreSQL streams the rows in fetch-size chunks through a cursor
+     * instead of returning them all at once; read-write so it is served by the primary, not a
+     * replica that may be behind.
+     */
+    @Transactional
+    public long forEachWaiting(Consumer<Patient> sink) {
+        long[] count = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(WAITING_SQL);
+            statement.setFetchSize(WAITING_FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            sink.accept(Patient.builder()
+                    .id(rs.getLong(1))
+                    .priority(rs.getInt(2))
+                    .registerDate(rs.getObject(3, LocalDate.class))
+                    .build());
+            count[0]++;
+        });
+        return count[0];
+    }
+}
@@ -0,0 +1,176 @@
+package com.patientmanagement.demo.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.patientmanagement.common.dto.BulkImportResultDTO;
+import com.patientmanagement.common.dto.BulkImportRowResultDTO;
+import com.patientmanagement.common.dto.PatientRequestDTO;
+import com.patientmanagement.common.dto.validation.CreatePatientValidationgroup;
+import com.patientmanagement.common.mapper.PatientCsvMapper;
+import com.patientmanagement.common.mapper.PatientMapper;
+import com.patientmanagement.demo.model.Patient;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
+
+/**
+ * Imports many patients at once: rows are validated up front, each chunk is inserted with one
+ * statement that skips emails already taken, and the chunk's outbox events go out as a JDBC
+ * batch in the same transaction. The chunk's billing accounts are recorded in that transaction
+ * too and created by BillingRelay, so a created row always gets its account eventually.
+ */
+@Service
+public class PatientBulkImportService {
+
+    // Like single creates, relies on uk_patient_email rather than checking first: a row whose
+    // email is taken, even by a create racing this chunk, is skipped and returns no id
+    private static final String INSERT_SQL = """
+            INSERT INTO patient (name, email, phone_number, priority, date_of_birth, register_date)
+            SELECT * FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::int[], ?::date[], ?::date[])
+            ON CONFLICT (email) DO NOTHING
+            RETURNING id, email""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final PatientEventOutbox patientEventOutbox;
+    private final PendingBillingAccounts pendingBillingAccounts;
+    private final int batchSize;
+
+    public PatientBulkImportService(JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    Validator validator,
+                                    PatientEventOutbox patientEventOutbox,
+                                    PendingBillingAccounts pendingBillingAccounts,
+                                    @Value("${patient.bulk.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.patientEventOutbox = patientEventOutbox;
+        this.pendingBillingAccounts = pendingBillingAccounts;
+        this.batchSize = batchSize;
+    }
+
+    public BulkImportResultDTO importPatients(List<PatientRequestDTO> patients) {
+        List<PatientCsvMapper.Row> rows = new ArrayList<>(patients.size());
+        for (int i = 0; i < patients.size(); i++) {
+            rows.add(new PatientCsvMapper.Row(i + 1, patients.get(i), null));
+        }
+        return importRows(rows);
+    }
+
+    public BulkImportResultDTO importCsv(Reader reader) throws IOException {
+        return importRows(PatientCsvMapper.fromCsv(reader));
+    }
+
+    private BulkImportResultDTO importRows(List<PatientCsvMapper.Row> rows) {
+        BulkImportRowResultDTO[] results = new BulkImportRowResultDTO[rows.size()];
+        Set<String> seenEmails = new HashSet<>();
+        List<Integer> chunk = new ArrayList<>(batchSize);
+
+        for (int i = 0; i < rows.size(); i++) {
+            PatientCsvMapper.Row row = rows.get(i);
+            String error = row.error() != null ? row.error() : validate(row.patient());
+            if (error != null) {
+                results[i] = new BulkImportRowResultDTO(row.number(), BulkImportRowResultDTO.INVALID, null, error);
+            } else if (!seenEmails.add(row.patient().getEmail())) {
+                results[i] = new BulkImportRowResultDTO(row.number(), BulkImportRowResultDTO.DUPLICATE, null,
+                        "Email appears earlier in this import");
+            } else {
+                chunk.add(i);
+                if (chunk.size() == batchSize) {
+                    importChunk(rows, chunk, results);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(rows, chunk, results);
+        }
+
+        int created = 0;
+        for (BulkImportRowResultDTO result : results) {
+            if (BulkImportRowResultDTO.CREATED.equals(result.getStatus())) {
+                created++;
+            }
+        }
+        return new BulkImportResultDTO(rows.size(), created, rows.size() - created, List.of(results));
+    }
+
+    private void importChunk(List<PatientCsvMapper.Row> rows, List<Integer> chunk, BulkImportRowResultDTO[] results) {
+        List<Patient> candidates = chunk.stream().map(i -> PatientMapper.toModel(rows.get(i).patient(), new Patient())).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Patient> inserted = insertSkippingTakenEmails(candidates);
+            if (!inserted.isEmpty()) {
+                pendingBillingAccounts.recordAll(inserted);
+                patientEventOutbox.recordAll(inserted, "CREATE");
+            }
+        });
+
+        for (int n = 0; n < chunk.size(); n++) {
+            int i = chunk.get(n);
+            Patient patient = candidates.get(n);
+            results[i] = patient.getId() != null
+                    ? new BulkImportRowResultDTO(rows.get(i).number(), BulkImportRowResultDTO.CREATED, patient.getId().toString(), null)
+                    : new BulkImportRowResultDTO(rows.get(i).number(), BulkImportRowResultDTO.DUPLICATE, null, "Email address already exists");
+        }
+    }
+
+    // Sets the id of every patient that was inserted and returns them; emails are unique within a chunk
+    private List<Patient> insertSkippingTakenEmails(List<Patient> patients) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_SQL);
+            ps.setArray(1, con.createArrayOf("varchar", patients.stream().map(Patient::getName).toArray()));
+            ps.setArray(2, con.createArrayOf("varchar", patients.stream().map(Patient::getEmail).toArray()));
+            ps.setArray(3, con.createArrayOf("varchar", patients.stream().map(Patient::getPhoneNumber).toArray()));
+            ps.setArray(4, con.createArrayOf("int4", patients.stream().map(Patient::getPriority).toArray()));
+            ps.setArray(5, con.createArrayOf("date", patients.stream().map(p -> Date.valueOf(p.getDateOfBirth())).toArray()));
+            ps.setArray(6, con.createArrayOf("date", patients.stream().map(p -> Date.valueOf(p.getRegisterDate())).toArray()));
+            return ps;
+        }, rs -> {
+            ids.put(rs.getString("email"), rs.getLong("id"));
+        });
+
+        List<Patient> inserted = new ArrayList<>(ids.size());
+        for (Patient patient : patients) {
+            Long id = ids.get(patient.getEmail());
+            if (id != null) {
+                patient.setId(id);
+                inserted.add(patient);
+            }
+        }
+        return inserted;
+    }
+
+    private String validate(PatientRequestDTO patient) {
+        if (patient == null) {
+            return "Row is empty";
+        }
+        Set<ConstraintViolation<PatientRequestDTO>> violations =
+                validator.validate(patient, Default.class, CreatePatientValidationgroup.class);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
@@ -0,0 +1,96 @@
+package com.patientmanagement.demo.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.patientmanagement.common.kafka.PatientEvents;
+import com.patientmanagement.common.observation.TraceParents;
+import com.patientmanagement.demo.kafka.KafkaConfig;
+import com.patientmanagement.demo.model.OutboxEvent;
+import com.patientmanagement.demo.model.Patient;
+import com.patientmanagement.demo.repository.OutboxEventRepository;
+
+import io.micrometer.tracing.Tracer;
+
+/**
+ * Records patient-events in the outbox. Every method requires the caller's transaction so the
+ * event commits or rolls back together with the patient change it describes. Payloads are
+ * encoded as {@code patient.events.format} (protobuf by default; set it to json while
+ * consumers that only understand the legacy payload are still deployed). Each row keeps the
+ * writer's trace context so the relay's Kafka send, and the consumers, join the same trace.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class PatientEventOutbox {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_event (aggregate_id, event_type, topic, payload, content_type, created_at, trace_parent) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Tracer tracer;
+    private final String contentType;
+
+    public PatientEventOutbox(OutboxEventRepository outboxEventRepository,
+                              JdbcTemplate jdbcTemplate,
+                              Tracer tracer,
+                              @Value("${patient.events.format:protobuf}") String format) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tracer = tracer;
+        this.contentType = "json".equalsIgnoreCase(format) ? PatientEvents.JSON : PatientEvents.PROTOBUF;
+    }
+
+    public void record(Patient patient, String eventType) {
+        save(patient.getId().toString(), eventType, PatientEvents.encode(contentType, patient, eventType));
+    }
+
+    public void recordDelete(Long id) {
+        save(id.toString(), "DELETE", PatientEvents.encodeDelete(contentType, id));
+    }
+
+    public void recordAll(List<Patient> patients, String eventType) {
+        Timestamp now = Timestamp.from(Instant.now());
+        String traceParent = TraceParents.current(tracer);
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Patient patient = patients.get(i);
+                ps.setString(1, patient.getId().toString());
+                ps.setString(2, eventType);
+                ps.setString(3, KafkaConfig.PATIENT_EVENTS_TOPIC);
+                ps.setBytes(4, PatientEvents.encode(contentType, patient, eventType));
+                ps.setString(5, contentType);
+                ps.setTimestamp(6, now);
+                ps.setString(7, traceParent);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return patients.size();
+            }
+        });
+    }
+
+    private void save(String patientId, String eventType, byte[] payload) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateId(patientId)
+                .eventType(eventType)
+                .topic(KafkaConfig.PATIENT_EVENTS_TOPIC)
+                .payload(payload)
+                .contentType(contentType)
+                .createdAt(Instant.now())
+                .traceParent(TraceParents.current(tracer))
+                .build());
+    }
+}
@@ -1,93 +1,129 @@
 package com.patientmanagement.demo.service;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import com.patientmanagement.demo.dto.PatientRequestDTO;
-import com.patientmanagement.demo.dto.PatientResponseDTO;
-import com.patientmanagement.demo.exception.EmailAlreadyExistException;
-import com.patientmanagement.demo.exception.PatientNotFoundException;
-import com.patientmanagement.demo.grpc.BillingServiceClient;
-import com.patientmanagement.demo.kafka.KafkaConfig;
-import com.patientmanagement.demo.kafka.KafkaProducer;
-import com.patientmanagement.demo.mapper.PatientMapper;
+import org.springframework.transaction.annotation.Transactional;
+import com.patientmanagement.common.dto.PatientRequestDTO;
+import com.patientmanagement.common.dto.PatientResponseDTO;
+import com.patientmanagement.common.dto.PatientSearchCriteria;
+import com.patientmanagement.common.exception.PatientNotFoundException;
+import com.patientmanagement.common.mapper.PatientMapper;
+import com.patientmanagement.demo.dto.PatientSearchResultDTO;
 import com.patientmanagement.demo.model.Patient;
+import com.patientmanagement.demo.repository.PatientExportRepository;
 import com.patientmanagement.demo.repository.PatientRepository;
+import com.patientmanagement.demo.repository.PatientSearchRepository;
 
-import billing.BillingServiceGrpc;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
 
+// Timed per method as patient.service, including the transaction commit (see ObservationConfig)
 @Service
+@Observed(name = "patient.service", contextualName = "patient-service")
 public class PatientService {
 
-    private final BillingServiceClient billingServiceClient;
+    public static final String PATIENT_CACHE = "patients";
+
     private final PatientRepository patientRepository;
-    private final KafkaProducer kafkaProducer;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PatientSearchRepository patientSearchRepository;
+    private final PatientExportRepository patientExportRepository;
+    private final PatientEventOutbox patientEventOutbox;
+    private final PendingBillingAccounts pendingBillingAccounts;
+    private final EntityManager entityManager;
 
     public PatientService(PatientRepository patientRepository, 
-                          BillingServiceClient billingServiceClient, 
-                          KafkaProducer kafkaProducer) {
+                          PatientSearchRepository patientSearchRepository,
+                          PatientExportRepository patientExportRepository,
+                          PatientEventOutbox patientEventOutbox,
+                          PendingBillingAccounts pendingBillingAccounts,
+                          EntityManager entityManager) {
         this.patientRepository = patientRepository;
-        this.billingServiceClient = billingServiceClient;
-        this.kafkaProducer = kafkaProducer;
+        this.patientSearchRepository = patientSearchRepository;
+        this.patientExportRepository = patientExportRepository;
+        this.patientEventOutbox = patientEventOutbox;
+        this.pendingBillingAccounts = pendingBillingAccounts;
+        this.entityManager = entityManager;
     }
 
-    public List<PatientResponseDTO> getAllPatient() {
-        List<Patient> patients = patientRepository.findAll();
-        List<PatientResponseDTO> patientResponseDTOs = patients.stream()
-                .map(patient -> PatientMapper.toDto(patient))
+    @Transactional(readOnly = true)
+    public List<PatientResponseDTO> getPatientPage(Long afterId, int size) {
+        return patientRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size)).stream()
+                .map(PatientMapper::toDto)
                 .toList();
-        return patientResponseDTOs;
     }
 
+    @Transactional(readOnly = true)
+    public PatientSearchResultDTO searchPatients(PatientSearchCriteria criteria, int size) {
+        List<Patient> patients = patientSearchRepository.search(criteria, size);
+        String nextCursor = patients.size() == size
+                ? PatientSearchRepository.nextCursor(criteria, patients.get(patients.size() - 1))
+                : null;
+        return new PatientSearchResultDTO(patients.stream().map(PatientMapper::toDto).toList(), nextCursor);
+    }
+
+    // Entities are detached once mapped so the persistence context never grows past one row.
+    @Transactional(readOnly = true)
+    public void streamAllPatients(Consumer<PatientResponseDTO> sink) {
+        try (Stream<Patient> patients = patientRepository.streamAllOrderById()) {
+            patients.forEach(patient -> {
+                PatientResponseDTO dto = PatientMapper.toDto(patient);
+                entityManager.detach(patient);
+                sink.accept(dto);
+            });
+        }
+    }
+
+    // One COPY statement, so the export is a consistent snapshot however long it streams for.
+    @Transactional(readOnly = true)
+    public long exportPatientsCsv(LocalDate registeredFrom, LocalDate registeredTo, OutputStream out) {
+        return patientExportRepository.exportCsv(registeredFrom, registeredTo, out);
+    }
+
+    // Read-write so a miss is read from the primary: a lagging replica could still return the row
+    // an update just evicted, and the cache would then keep it for the whole TTL.
+    @Transactional
+    @Cacheable(cacheNames = PATIENT_CACHE, key = "#id")
     public PatientResponseDTO getPatientById(Long id) {
         Patient patient = patientRepository.findById(id)
                 .orElseThrow(() -> new PatientNotFoundException("Patient not found with id " + id));
         return PatientMapper.toDto(patient);
     }
 
+    // No existence check first: a taken email fails the insert on uk_patient_email, which
+    // GlobalExceptionHandler reports as EmailAlreadyExistException.
+    @Transactional
     public PatientResponseDTO createPatient(PatientRequestDTO patientRequestDTO) {
-        if (patientRepository.existsByEmail(patientRequestDTO.getEmail())) {
-            throw new EmailAlreadyExistException("A patient with this email already exists: " + patientRequestDTO.getEmail());
-        }
-        
-        Patient newPatient = patientRepository.save(PatientMapper.toModel(patientRequestDTO));
+        Patient newPatient = patientRepository.save(PatientMapper.toModel(patientRequestDTO, new Patient()));
         
-        // Call billing service to create billing account
-        billingServiceClient.createBillingAccount(newPatient.getId().toString(), newPatient.getName(), newPatient.getEmail());
-        
-        // Send Kafka event with patient data as JSON
-        try {
-            String jsonMessage = objectMapper.writeValueAsString(new HashMap<String, Object>() {{
-                put("patientId", newPatient.getId().toString());
-                put("name", newPatient.getName());
-                put("email", newPatient.getEmail());
-                put("eventType", "CREATE");
-            }});
-            kafkaProducer.sendMessage(KafkaConfig.PATIENT_EVENTS_TOPIC, newPatient.getId().toString(), jsonMessage.getBytes());
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        // Both recorded in this transaction: BillingRelay creates the account and the outbox
+        // relay publishes the event after commit, retrying until each succeeds
+        pendingBillingAccounts.record(newPatient);
+        patientEventOutbox.record(newPatient, "CREATE");
         
         return PatientMapper.toDto(newPatient);
     }
 
     public PatientResponseDTO dummy_data(PatientRequestDTO patientRequestDTO) {
-        if (patientRepository.existsByEmail(patientRequestDTO.getEmail())) {
-            throw new EmailAlreadyExistException("A patient with this email already exists: " + patientRequestDTO.getEmail());
-        }
-        Patient newPatient = patientRepository.save(PatientMapper.toModel(patientRequestDTO));
+        Patient newPatient = patientRepository.save(PatientMapper.toModel(patientRequestDTO, new Patient()));
         return PatientMapper.toDto(newPatient);
     }
 
+    // Evicting here can race a concurrent read that re-caches the old row before commit;
+    // the patient-events listener evicts again once the change is published.
+    // The UPDATE flushed at commit sets only the changed columns (@DynamicUpdate), and an email
+    // taken by another patient fails it on uk_patient_email.
+    @Transactional
+    @CacheEvict(cacheNames = PATIENT_CACHE, key = "#id")
     public PatientResponseDTO updatePatient(Long id, PatientRequestDTO patientRequestDTO) {
         Patient patient = patientRepository.findById(id)
                 .orElseThrow(() -> new PatientNotFoundException("Patient not found with id " + id));
-        
-        if (patientRepository.existsByEmailAndIdNot(patientRequestDTO.getEmail(), id)) {
-            throw new EmailAlreadyExistException("A patient with this email already exists: " + patientRequestDTO.getEmail());
-        }
 
         patient.setName(patientRequestDTO.getName());
         patient.setEmail(patientRequestDTO.getEmail());
@@ -98,37 +134,19 @@ public class PatientService {
         
         Patient updatePatient = patientRepository.save(patient);
         
-        // Send Kafka event for update
-        try {
-            String jsonMessage = objectMapper.writeValueAsString(new HashMap<String, Object>() {{
-                put("patientId", patient.getId().toString());
-                put("name", patient.getName());
-                put("email", patient.getEmail());
-                put("eventType", "UPDATE");
-            }});
-            kafkaProducer.sendMessage(KafkaConfig.PATIENT_EVENTS_TOPIC, patient.getId().toString(), jsonMessage.getBytes());
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        patientEventOutbox.record(updatePatient, "UPDATE");
         
         return PatientMapper.toDto(updatePatient);
     }
 
+    @Transactional
+    @CacheEvict(cacheNames = PATIENT_CACHE, key = "#id")
     public void deletePatient(Long id) {
         if (!patientRepository.existsById(id)) {
             throw new PatientNotFoundException("Patient not found with id " + id);
         }
         
-        // Send Kafka event for delete
-        try {
-            String jsonMessage = objectMapper.writeValueAsString(new HashMap<String, Object>() {{
-                put("patientId", id.toString());
-                put("eventType", "DELETE");
-            }});
-            kafkaProducer.sendMessage(KafkaConfig.PATIENT_EVENTS_TOPIC, id.toString(), jsonMessage.getBytes());
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        patientEventOutbox.recordDelete(id);
         
         patientRepository.deleteById(id);
     }
@@ -0,0 +1,43 @@
+package com.patientmanagement.demo.service;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.patientmanagement.demo.grpc.BillingRelay;
+import com.patientmanagement.demo.model.Patient;
+
+/**
+ * Records that a patient still needs a billing account. Like {@link PatientEventOutbox}, every
+ * method requires the caller's transaction, so the intent commits or rolls back together with the
+ * patient; {@link BillingRelay} creates the account and removes the row.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class PendingBillingAccounts {
+
+    private static final String INSERT_SQL = "INSERT INTO pending_billing (patient_id) VALUES (?)";
+    private static final String INSERT_ALL_SQL = "INSERT INTO pending_billing (patient_id) SELECT unnest(?::bigint[])";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PendingBillingAccounts(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void record(Patient patient) {
+        jdbcTemplate.update(INSERT_SQL, patient.getId());
+    }
+
+    public void recordAll(List<Patient> patients) {
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_ALL_SQL);
+            ps.setArray(1, con.createArrayOf("int8", patients.stream().map(Patient::getId).toArray()));
+            return ps;
+        });
+    }
+}
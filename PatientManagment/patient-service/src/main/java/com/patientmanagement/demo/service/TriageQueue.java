@@ -0,0 +1,124 @@
+package com.patientmanagement.demo.service;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Waiting patients in claim order: priority 1 first, then earliest registerDate, then id.
+ * <p>
+ * The order lives in a lock-free skip list, so {@link #poll()} is O(log n) and claimers only
+ * contend on the head node. A map from patient id to its current entry makes re-prioritising
+ * and removal O(log n) as well; changes to one patient are serialised by that map's per-key
+ * locking, never by a lock over the whole queue. An entry taken from the skip list only counts
+ * as claimed if it is still the patient's current entry, so a claimer racing an update or a
+ * removal skips the superseded entry instead of claiming it twice.
+ */
+public class TriageQueue {
+
+    public record Entry(long patientId, int priority, LocalDate registerDate) {
+    }
+
+    public static final Comparator<Entry> CLAIM_ORDER = Comparator.comparingInt(Entry::priority)
+            .thenComparing(Entry::registerDate)
+            .thenComparingLong(Entry::patientId);
+
+    private final ConcurrentSkipListSet<Entry> waiting = new ConcurrentSkipListSet<>(CLAIM_ORDER);
+    private final ConcurrentHashMap<Long, Entry> current = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, LongAdder> depthByPriority = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the patient, or moves it if its priority or registerDate changed.
+     */
+    public void offer(Entry entry) {
+        current.compute(entry.patientId(), (id, previous) -> {
+            if (entry.equals(previous)) {
+                return previous;
+            }
+            if (previous != null) {
+                waiting.remove(previous);
+                depth(previous.priority()).decrement();
+            }
+            waiting.add(entry);
+            depth(entry.priority()).increment();
+            return entry;
+        });
+    }
+
+    /**
+     * Moves the patient if it is still waiting; does nothing once it has been claimed or removed.
+     */
+    public void update(Entry entry) {
+        current.computeIfPresent(entry.patientId(), (id, previous) -> {
+            if (entry.equals(previous)) {
+                return previous;
+            }
+            waiting.remove(previous);
+            depth(previous.priority()).decrement();
+            waiting.add(entry);
+            depth(entry.priority()).increment();
+            return entry;
+        });
+    }
+
+    /**
+     * Puts back an entry that was polled but could not be claimed, unless the patient has been
+     * queued again (with newer data) in the meantime.
+     */
+    public void requeue(Entry entry) {
+        current.computeIfAbsent(entry.patientId(), id -> {
+            waiting.add(entry);
+            depth(entry.priority()).increment();
+            return entry;
+        });
+    }
+
+    public void remove(long patientId) {
+        current.computeIfPresent(patientId, (id, previous) -> {
+            waiting.remove(previous);
+            depth(previous.priority()).decrement();
+            return null;
+        });
+    }
+
+    /**
+     * Takes the first waiting patient, or returns null when none is waiting.
+     */
+    public Entry poll() {
+        Entry head;
+        while ((head = waiting.pollFirst()) != null) {
+            if (current.remove(head.patientId(), head)) {
+                depth(head.priority()).decrement();
+                return head;
+            }
+            // Superseded by an update or removed while we took it; its replacement, if any, is still queued
+        }
+        return null;
+    }
+
+    public long size() {
+        return current.mappingCount();
+    }
+
+    /**
+     * Waiting patients per priority, in priority order.
+     */
+    public Map<Integer, Long> sizeByPriority() {
+        Map<Integer, Long> sizes = new TreeMap<>();
+        depthByPriority.forEach((priority, depth) -> {
+            long size = depth.sum();
+            if (size > 0) {
+                sizes.put(priority, size);
+            }
+        });
+        return sizes;
+    }
+
+    private LongAdder depth(int priority) {
+        return depthByPriority.computeIfAbsent(priority, p -> new LongAdder());
+    }
+}
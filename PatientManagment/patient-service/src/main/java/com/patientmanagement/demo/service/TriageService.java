@@ -0,0 +1,127 @@
+package com.patientmanagement.demo.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.patientmanagement.common.dto.PatientResponseDTO;
+import com.patientmanagement.common.mapper.PatientMapper;
+import com.patientmanagement.demo.dto.TriageDepthDTO;
+import com.patientmanagement.demo.model.Patient;
+import com.patientmanagement.demo.repository.TriageRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import patient.events.PatientEvent;
+
+/**
+ * Hands out waiting patients in triage order. Each instance keeps its own {@link TriageQueue},
+ * rebuilt from the database at startup and kept current from patient-events, so it also sees
+ * patients written by other instances and by patient-service-reactive. The database decides
+ * claims: an entry another instance has already claimed fails its conditional UPDATE and is
+ * skipped, so a patient is never handed out twice. Each claim also publishes a TRIAGED event, so
+ * the other instances drop the patient from their queues instead of finding out on their own
+ * claim.
+ */
+@Service
+public class TriageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TriageService.class);
+
+    private final TriageQueue queue = new TriageQueue();
+    private final TriageRepository triageRepository;
+    private final PatientEventOutbox patientEventOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private volatile Instant rebuiltAt;
+
+    public TriageService(TriageRepository triageRepository,
+                         PatientEventOutbox patientEventOutbox,
+                         TransactionTemplate transactionTemplate,
+                         MeterRegistry meterRegistry) {
+        this.triageRepository = triageRepository;
+        this.patientEventOutbox = patientEventOutbox;
+        this.transactionTemplate = transactionTemplate;
+        Gauge.builder("patient.triage.waiting", queue, TriageQueue::size)
+                .description("Patients waiting in this instance's triage queue")
+                .register(meterRegistry);
+    }
+
+    // Before the web server starts, so no claim sees a half-built queue
+    @PostConstruct
+    public void rebuild() {
+        Instant started = Instant.now();
+        long waiting = triageRepository.forEachWaiting(this::offer);
+        rebuiltAt = started;
+        logger.info("Triage queue rebuilt with {} waiting patients in {} ms", waiting,
+                Duration.between(started, Instant.now()).toMillis());
+    }
+
+    /**
+     * When the last rebuild read the database. patient-events from then on must be applied to
+     * catch changes the rebuild missed.
+     */
+    public Instant rebuiltAt() {
+        return rebuiltAt;
+    }
+
+    public Optional<PatientResponseDTO> claimNext() {
+        TriageQueue.Entry next;
+        while ((next = queue.poll()) != null) {
+            Optional<Patient> claimed;
+            try {
+                claimed = claim(next.patientId());
+            } catch (RuntimeException e) {
+                queue.requeue(next);
+                throw e;
+            }
+            if (claimed.isPresent()) {
+                return claimed.map(PatientMapper::toDto);
+            }
+            logger.debug("Patient {} was claimed elsewhere or deleted; skipping", next.patientId());
+        }
+        return Optional.empty();
+    }
+
+    public TriageDepthDTO depth() {
+        return new TriageDepthDTO(queue.size(), queue.sizeByPriority());
+    }
+
+    /**
+     * Applies a patient-event. Every waiting patient is already queued, from the rebuild or its
+     * CREATE, so an update only re-prioritises a queued entry; one for a patient that is not
+     * queued has been claimed and must not put it back.
+     */
+    public void apply(PatientEvent event) {
+        long patientId = Long.parseLong(event.getPatientid());
+        switch (event.getEventType()) {
+            case "CREATE" -> queue.offer(entry(patientId, event));
+            case "UPDATE" -> queue.update(entry(patientId, event));
+            case "DELETE", "TRIAGED" -> queue.remove(patientId);
+            default -> logger.debug("Ignoring {} event for patient {}", event.getEventType(), patientId);
+        }
+    }
+
+    // The TRIAGED event commits with the claim, so it is published exactly when the claim holds
+    private Optional<Patient> claim(long patientId) {
+        return transactionTemplate.execute(status -> {
+            Optional<Patient> claimed = triageRepository.claim(patientId);
+            claimed.ifPresent(patient -> patientEventOutbox.record(patient, "TRIAGED"));
+            return claimed;
+        });
+    }
+
+    private static TriageQueue.Entry entry(long patientId, PatientEvent event) {
+        return new TriageQueue.Entry(patientId, event.getPriority(), LocalDate.parse(event.getRegisterDate()));
+    }
+
+    private void offer(Patient patient) {
+        queue.offer(new TriageQueue.Entry(patient.getId(), patient.getPriority(), patient.getRegisterDate()));
+    }
+}
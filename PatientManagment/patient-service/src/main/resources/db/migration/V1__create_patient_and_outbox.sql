@@ -0,0 +1,19 @@
+-- Idempotent so databases previously created by Hibernate can be baselined below it.
+CREATE TABLE IF NOT EXISTS patient (
+    id             BIGSERIAL PRIMARY KEY,
+    name           VARCHAR(255) NOT NULL,
+    email          VARCHAR(255) NOT NULL CONSTRAINT uk_patient_email UNIQUE,
+    phone_number   VARCHAR(255) NOT NULL,
+    priority       INTEGER      NOT NULL,
+    date_of_birth  DATE         NOT NULL,
+    register_date  DATE         NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS outbox_event (
+    id            BIGSERIAL PRIMARY KEY,
+    aggregate_id  VARCHAR(64)  NOT NULL,
+    event_type    VARCHAR(32)  NOT NULL,
+    topic         VARCHAR(255) NOT NULL,
+    payload       BYTEA        NOT NULL,
+    created_at    TIMESTAMP WITH TIME ZONE NOT NULL
+);
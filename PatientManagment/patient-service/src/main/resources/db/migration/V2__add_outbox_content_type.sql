@@ -0,0 +1,2 @@
+-- Rows written before the protobuf switch keep the JSON content type they were encoded with.
+ALTER TABLE outbox_event ADD COLUMN IF NOT EXISTS content_type VARCHAR(64) NOT NULL DEFAULT 'application/json';
@@ -0,0 +1,7 @@
+-- Backs GET /patient/search: every filter and both keyset sort orders have an index path.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_patient_priority_register_date ON patient (priority, register_date, id);
+CREATE INDEX IF NOT EXISTS idx_patient_register_date ON patient (register_date, id);
+CREATE INDEX IF NOT EXISTS idx_patient_date_of_birth ON patient (date_of_birth);
+CREATE INDEX IF NOT EXISTS idx_patient_name_trgm ON patient USING gin (lower(name) gin_trgm_ops);
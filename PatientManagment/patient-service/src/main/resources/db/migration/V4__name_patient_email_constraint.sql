@@ -0,0 +1,19 @@
+-- Duplicate emails are detected by constraint name; tables created by Hibernate got a generated one.
+DO $$
+DECLARE
+    existing TEXT;
+BEGIN
+    SELECT c.conname INTO existing
+    FROM pg_constraint c
+    JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+    WHERE c.conrelid = 'patient'::regclass
+      AND c.contype = 'u'
+      AND array_length(c.conkey, 1) = 1
+      AND a.attname = 'email';
+
+    IF existing IS NULL THEN
+        ALTER TABLE patient ADD CONSTRAINT uk_patient_email UNIQUE (email);
+    ELSIF existing <> 'uk_patient_email' THEN
+        EXECUTE format('ALTER TABLE patient RENAME CONSTRAINT %I TO uk_patient_email', existing);
+    END IF;
+END $$;
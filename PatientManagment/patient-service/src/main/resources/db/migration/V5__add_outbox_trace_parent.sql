@@ -0,0 +1,2 @@
+-- W3C traceparent of the writing request; rows written before tracing have none and start a new trace.
+ALTER TABLE outbox_event ADD COLUMN IF NOT EXISTS trace_parent VARCHAR(55);
@@ -0,0 +1,8 @@
+-- When the patient was claimed from the triage queue; NULL while waiting. Patients registered before the
+-- queue existed are not waiting for it, so the default marks them triaged when the column is added
+-- (PostgreSQL stores it without rewriting the table); dropping it then leaves new patients waiting.
+ALTER TABLE patient ADD COLUMN IF NOT EXISTS triaged_at TIMESTAMP WITH TIME ZONE DEFAULT now();
+ALTER TABLE patient ALTER COLUMN triaged_at DROP DEFAULT;
+
+-- Only the waiting patients, in claim order: rebuilding the queue on startup reads just this index.
+CREATE INDEX IF NOT EXISTS idx_patient_waiting ON patient (priority, register_date, id) WHERE triaged_at IS NULL;
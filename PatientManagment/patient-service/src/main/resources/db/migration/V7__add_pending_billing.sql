@@ -0,0 +1,10 @@
+-- Billing accounts still to be created. A row is written in the same transaction as its patient and
+-- deleted once billing-service has the account; until then the billing relay keeps retrying, which is
+-- safe because CreateBillingAccount is idempotent per patient id. Deleting the patient drops the row.
+CREATE TABLE IF NOT EXISTS pending_billing (
+    patient_id       BIGINT  PRIMARY KEY REFERENCES patient (id) ON DELETE CASCADE,
+    attempts         INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at  TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_pending_billing_next_attempt_at ON pending_billing (next_attempt_at);
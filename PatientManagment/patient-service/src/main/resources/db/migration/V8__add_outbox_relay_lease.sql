@@ -0,0 +1,10 @@
+-- Names the one outbox relay allowed to publish. Relays in every patient service compete for this
+-- row and only the holder of an unexpired lease reads and sends events, so they leave in id order.
+-- An expired lease goes to whichever relay polls next.
+CREATE TABLE IF NOT EXISTS outbox_relay_lease (
+    id          INTEGER     PRIMARY KEY CHECK (id = 1),
+    holder      VARCHAR(64),
+    expires_at  TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+INSERT INTO outbox_relay_lease (id) VALUES (1) ON CONFLICT DO NOTHING;
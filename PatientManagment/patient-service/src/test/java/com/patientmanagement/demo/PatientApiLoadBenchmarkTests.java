@@ -0,0 +1,329 @@
+package com.patientmanagement.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.account.BillingAccountReader;
+import com.example.demo.account.BillingAccountWriter;
+import com.example.demo.grpc.BillingGrpcService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Offline load test of the whole patient API: the application runs against an embedded
+ * PostgreSQL, an in-process KRaft Kafka broker and billing-service's own BillingGrpcService (on
+ * the billing schema of the same database), so creates go through billing and every change is
+ * relayed from the outbox to Kafka as in production.
+ * <p>
+ * Requests are sent open loop at {@code loadtest.rate} per second for
+ * {@code loadtest.duration-seconds}, picked by the weights in {@code loadtest.mix}. Latency is
+ * measured from when a request was due rather than when it was sent, so a stalled server is not
+ * hidden by the harness falling behind. Throughput and p50/p99/p99.9 per endpoint are printed and
+ * written as JSON to {@code loadtest.report}. Run with:
+ * mvn test -Pbenchmark -pl patient-service -am -Dtest=PatientApiLoadBenchmarkTests -Dsurefire.failIfNoSpecifiedTests=false -Dloadtest.rate=500
+ */
+@Tag("benchmark")
+class PatientApiLoadBenchmarkTests {
+
+    private static final int RATE = Integer.getInteger("loadtest.rate", 100);
+    private static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration-seconds", 30);
+    private static final String MIX = System.getProperty("loadtest.mix", "create:20,read:60,update:15,delete:5");
+    private static final Path REPORT = Path.of(System.getProperty("loadtest.report", "target/loadtest-report.json"));
+    // Reads and updates go to these; deletes only take patients created during the run
+    private static final int SEED_PATIENTS = 500;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+    private static EmbeddedPostgres postgres;
+    private static EmbeddedKafkaKraftBroker kafka;
+    private static HikariDataSource billingDataSource;
+    private static BillingAccountWriter billingWriter;
+    private static Server billingServer;
+    private static ConfigurableApplicationContext context;
+    private static URI patients;
+
+    enum Operation {
+        CREATE("POST /patient"),
+        READ("GET /patient/{id}"),
+        UPDATE("PUT /patient/{id}"),
+        DELETE("DELETE /patient/{id}");
+
+        final String endpoint;
+
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    @BeforeAll
+    static void start() throws IOException {
+        postgres = EmbeddedPostgres.builder().setServerConfig("max_connections", "100").start();
+
+        billingDataSource = new HikariDataSource();
+        billingDataSource.setJdbcUrl(postgres.getJdbcUrl("postgres", "postgres") + "&currentSchema=billing");
+        billingDataSource.setMaximumPoolSize(4);
+        Flyway.configure()
+                .dataSource(billingDataSource)
+                .schemas("billing")
+                .locations("classpath:db/billing/migration")
+                .load()
+                .migrate();
+        JdbcTemplate billingJdbc = new JdbcTemplate(billingDataSource);
+        billingWriter = new BillingAccountWriter(billingJdbc,
+                new TransactionTemplate(new JdbcTransactionManager(billingDataSource)), 500, 0, 10_000);
+        billingServer = ServerBuilder.forPort(0)
+                .addService(new BillingGrpcService(billingWriter, new BillingAccountReader(billingJdbc), 500))
+                .build()
+                .start();
+
+        kafka = new EmbeddedKafkaKraftBroker(1, 6, "patient-events");
+        kafka.afterPropertiesSet();
+
+        context = new SpringApplicationBuilder(PatientManagementApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.hikari.maximum-pool-size=20",
+                        "--billing.service.address=localhost:" + billingServer.getPort(),
+                        "--spring.kafka.bootstrap-servers=" + kafka.getBrokersAsString(),
+                        "--logging.level.root=WARN");
+        patients = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/patient");
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        context.close();
+        billingServer.shutdownNow();
+        billingWriter.shutdown();
+        billingDataSource.close();
+        kafka.destroy();
+        postgres.close();
+    }
+
+    @Test
+    void mixedWorkload() throws Exception {
+        List<Long> seeded = new ArrayList<>();
+        for (int i = 0; i < SEED_PATIENTS; i++) {
+            HttpResponse<String> created = send(HttpRequest.newBuilder(patients).POST(body("seed-" + i, i)));
+            assertThat(created.statusCode()).isEqualTo(201);
+            seeded.add(objectMapper.readTree(created.body()).get("id").asLong());
+        }
+
+        Map<Operation, Queue<Long>> latencies = new EnumMap<>(Operation.class);
+        Map<Operation, AtomicInteger> errors = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentLinkedQueue<>());
+            errors.put(operation, new AtomicInteger());
+        }
+        Deque<Long> deletable = new ConcurrentLinkedDeque<>();
+        AtomicInteger skippedDeletes = new AtomicInteger();
+
+        List<Operation> schedule = schedule(RATE * DURATION_SECONDS);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE;
+        CountDownLatch done = new CountDownLatch(schedule.size());
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < schedule.size(); i++) {
+                long due = start + i * intervalNanos;
+                LockSupport.parkNanos(due - System.nanoTime());
+                Operation operation = schedule.get(i);
+                int seed = i % seeded.size();
+                long patientId = seeded.get(seed);
+                int request = i;
+                executor.execute(() -> {
+                    try {
+                        Integer status = execute(operation, request, seed, patientId, deletable);
+                        if (status == null) {
+                            skippedDeletes.incrementAndGet();
+                            return;
+                        }
+                        if (status != expectedStatus(operation)) {
+                            errors.get(operation).incrementAndGet();
+                        }
+                        latencies.get(operation).add(System.nanoTime() - due);
+                    } catch (Exception e) {
+                        errors.get(operation).incrementAndGet();
+                        latencies.get(operation).add(System.nanoTime() - due);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            assertThat(done.await(DURATION_SECONDS + 120L, TimeUnit.SECONDS)).isTrue();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // Every change has been relayed once the outbox is empty
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        long drainStart = System.nanoTime();
+        while (jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_event", Long.class) > 0
+                && System.nanoTime() - drainStart < TimeUnit.SECONDS.toNanos(60)) {
+            Thread.sleep(50);
+        }
+        long outboxDrainMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - drainStart);
+
+        Map<String, Object> report = report(latencies, errors, skippedDeletes.get(), seconds, outboxDrainMillis);
+        Files.createDirectories(REPORT.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(REPORT.toFile(), report);
+        System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+
+        assertThat(errors.values()).allSatisfy(count -> assertThat(count.get()).isZero());
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_event", Long.class)).isZero();
+    }
+
+    // Returns the response status, or null for a delete with nothing left to delete
+    private static Integer execute(Operation operation, int request, int seed, long patientId, Deque<Long> deletable) throws Exception {
+        switch (operation) {
+            case CREATE -> {
+                HttpResponse<String> response = send(HttpRequest.newBuilder(patients).POST(body("load-" + request, request)));
+                if (response.statusCode() == 201) {
+                    deletable.add(objectMapper.readTree(response.body()).get("id").asLong());
+                }
+                return response.statusCode();
+            }
+            case READ -> {
+                return send(HttpRequest.newBuilder(patients.resolve("/patient/" + patientId)).GET()).statusCode();
+            }
+            case UPDATE -> {
+                // Keeps the seeded patient's own email, so updates never collide on the unique index
+                return send(HttpRequest.newBuilder(patients.resolve("/patient/" + patientId))
+                        .PUT(body("seed-" + seed, request))).statusCode();
+            }
+            case DELETE -> {
+                Long id = deletable.pollFirst();
+                if (id == null) {
+                    return null;
+                }
+                return send(HttpRequest.newBuilder(patients.resolve("/patient/" + id)).DELETE()).statusCode();
+            }
+            default -> throw new IllegalArgumentException(operation.name());
+        }
+    }
+
+    private static int expectedStatus(Operation operation) {
+        return switch (operation) {
+            case CREATE -> 201;
+            case READ, UPDATE -> 200;
+            case DELETE -> 204;
+        };
+    }
+
+    // The operation for every request slot, drawn by weight with a fixed seed so runs are comparable
+    private static List<Operation> schedule(int requests) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : MIX.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        Random random = new Random(42);
+        List<Operation> schedule = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            int pick = random.nextInt(total);
+            for (Map.Entry<Operation, Integer> weight : weights.entrySet()) {
+                pick -= weight.getValue();
+                if (pick < 0) {
+                    schedule.add(weight.getKey());
+                    break;
+                }
+            }
+        }
+        return schedule;
+    }
+
+    private static Map<String, Object> report(Map<Operation, Queue<Long>> latencies, Map<Operation, AtomicInteger> errors,
+                                              int skippedDeletes, double seconds, long outboxDrainMillis) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long requests = 0;
+        for (Operation operation : Operation.values()) {
+            List<Long> sorted = new ArrayList<>(latencies.get(operation));
+            if (sorted.isEmpty()) {
+                continue;
+            }
+            Collections.sort(sorted);
+            requests += sorted.size();
+            Map<String, Object> endpoint = new LinkedHashMap<>();
+            endpoint.put("requests", sorted.size());
+            endpoint.put("errors", errors.get(operation).get());
+            endpoint.put("throughputPerSecond", round(sorted.size() / seconds));
+            endpoint.put("p50Millis", percentileMillis(sorted, 0.50));
+            endpoint.put("p99Millis", percentileMillis(sorted, 0.99));
+            endpoint.put("p999Millis", percentileMillis(sorted, 0.999));
+            endpoint.put("maxMillis", round(sorted.getLast() / 1e6));
+            endpoints.put(operation.endpoint, endpoint);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("targetRatePerSecond", RATE);
+        report.put("durationSeconds", DURATION_SECONDS);
+        report.put("mix", MIX);
+        report.put("seedPatients", SEED_PATIENTS);
+        report.put("requests", requests);
+        report.put("throughputPerSecond", round(requests / seconds));
+        report.put("skippedDeletes", skippedDeletes);
+        report.put("outboxDrainMillis", outboxDrainMillis);
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    private static double percentileMillis(List<Long> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return round(sorted.get(Math.max(index, 0)) / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static HttpRequest.BodyPublisher body(String name, int request) {
+        return HttpRequest.BodyPublishers.ofString("""
+                {"name":"%1$s","email":"%1$s@example.com","phoneNumber":"555-%2$d","priority":%3$d,\
+                "dateOfBirth":"1990-05-15","registerDate":"2026-02-15"}""".formatted(name, request, 1 + request % 3));
+    }
+
+    private static HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.header("Content-Type", "application/json").timeout(Duration.ofSeconds(30)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
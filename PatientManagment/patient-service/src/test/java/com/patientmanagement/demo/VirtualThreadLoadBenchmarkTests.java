@@ -0,0 +1,215 @@
+package com.patientmanagement.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import billing.BillingAccountsRequest;
+import billing.BillingAccountsResponse;
+import billing.BillingResponse;
+import billing.BillingServiceGrpc;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Drives concurrent POST /patient against the full application on an embedded PostgreSQL and a
+ * local billing stub, once on platform threads and once with spring.threads.virtual.enabled, and
+ * prints p50/p99 latency, throughput and the peak number of creates in flight. JFR
+ * VirtualThreadPinned events recorded during the virtual run are reported and must not come from
+ * this service's own code. Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class VirtualThreadLoadBenchmarkTests {
+
+    private static final int CLIENTS = 400;
+    private static final int REQUESTS = 4_000;
+    // Platform run only; the virtual run leaves Tomcat unbounded
+    private static final int TOMCAT_THREADS = 100;
+    private static final int DB_POOL_SIZE = 20;
+
+    private static EmbeddedPostgres postgres;
+    private static Server billingServer;
+
+    @BeforeAll
+    static void startDependencies() throws IOException {
+        postgres = EmbeddedPostgres.builder().setServerConfig("max_connections", "100").start();
+        billingServer = ServerBuilder.forPort(0).addService(new BillingServiceGrpc.BillingServiceImplBase() {
+            @Override
+            public void createBillingAccounts(BillingAccountsRequest request, StreamObserver<BillingAccountsResponse> responseObserver) {
+                BillingAccountsResponse.Builder response = BillingAccountsResponse.newBuilder();
+                request.getRequestsList().forEach(r -> response.addResponses(BillingResponse.newBuilder()
+                        .setAccountId("acc-" + r.getPatientId()).setStatus("Active").setPatientId(r.getPatientId())));
+                responseObserver.onNext(response.build());
+                responseObserver.onCompleted();
+            }
+        }).build().start();
+    }
+
+    @AfterAll
+    static void stopDependencies() throws IOException {
+        billingServer.shutdownNow();
+        postgres.close();
+    }
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        Result platform = run("platform", false);
+        Result virtual = run("virtual", true);
+
+        System.out.println(platform);
+        System.out.println(virtual);
+        virtual.pinnedFrames().forEach(frame -> System.out.println("  pinned at " + frame));
+
+        assertThat(platform.failures()).isZero();
+        assertThat(virtual.failures()).isZero();
+        assertThat(platform.maxConcurrentCreates()).isLessThanOrEqualTo(TOMCAT_THREADS);
+        assertThat(virtual.pinnedFrames()).noneMatch(frame -> frame.startsWith("com.patientmanagement."));
+    }
+
+    private Result run(String mode, boolean virtualThreads) throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        OncePerRequestFilter concurrencyProbe = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(jakarta.servlet.http.HttpServletRequest request,
+                                            jakarta.servlet.http.HttpServletResponse response,
+                                            jakarta.servlet.FilterChain chain) throws jakarta.servlet.ServletException, IOException {
+                if (!"POST".equals(request.getMethod())) {
+                    chain.doFilter(request, response);
+                    return;
+                }
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        };
+
+        List<String> pinnedFrames = Collections.synchronizedList(new ArrayList<>());
+        try (RecordingStream pinning = new RecordingStream();
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(PatientManagementApplication.class)
+                     .initializers(ctx -> ctx.getBeanFactory().registerSingleton("concurrencyProbe", concurrencyProbe))
+                     .properties(
+                             "server.port=0",
+                             "spring.threads.virtual.enabled=" + virtualThreads,
+                             "server.tomcat.threads.max=" + (virtualThreads ? Integer.MAX_VALUE : TOMCAT_THREADS),
+                             "spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                             "spring.datasource.hikari.maximum-pool-size=" + DB_POOL_SIZE,
+                             "billing.service.address=localhost:" + billingServer.getPort(),
+                             "spring.kafka.bootstrap-servers=localhost:1",
+                             "spring.kafka.admin.auto-create=false",
+                             "spring.kafka.listener.auto-startup=false",
+                             "patient.outbox.poll-interval-ms=3600000",
+                             "logging.level.root=WARN")
+                     .run()) {
+            pinning.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            pinning.onEvent("jdk.VirtualThreadPinned", event -> {
+                if (event.getStackTrace() != null) {
+                    event.getStackTrace().getFrames().stream()
+                            .filter(RecordedFrame::isJavaFrame)
+                            .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+                            .filter(frame -> !frame.startsWith("java.") && !frame.startsWith("jdk."))
+                            .findFirst()
+                            .ifPresent(pinnedFrames::add);
+                }
+            });
+            pinning.startAsync();
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            Result result = drive(mode, URI.create("http://localhost:" + port + "/patient"), maxInFlight);
+            pinning.stop();
+            return new Result(result.mode(), result.requests(), result.failures(), result.p50Millis(), result.p99Millis(),
+                    result.throughput(), result.maxConcurrentCreates(), pinnedFrames.stream().distinct().toList());
+        }
+    }
+
+    private Result drive(String mode, URI uri, AtomicInteger maxInFlight) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger failures = new AtomicInteger();
+        Semaphore clients = new Semaphore(CLIENTS);
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                clients.acquire();
+                String body = """
+                        {"name":"Load %2$d","email":"%1$s-%2$d@example.com","phoneNumber":"555-%2$d","priority":%3$d,\
+                        "dateOfBirth":"1990-05-15","registerDate":"2026-02-15"}""".formatted(mode, i, 1 + i % 3);
+                executor.execute(() -> {
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri)
+                                        .header("Content-Type", "application/json")
+                                        .timeout(Duration.ofSeconds(60))
+                                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                                        .build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 201) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        latencies.add(System.nanoTime() - sent);
+                        clients.release();
+                        done.countDown();
+                    }
+                });
+            }
+            done.await(5, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return new Result(mode, REQUESTS, failures.get(),
+                percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99),
+                REQUESTS / seconds, maxInFlight.get(), List.of());
+    }
+
+    private static double percentileMillis(List<Long> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)) / 1e6;
+    }
+
+    record Result(String mode, int requests, int failures, double p50Millis, double p99Millis,
+                  double throughput, int maxConcurrentCreates, List<String> pinnedFrames) {
+        @Override
+        public String toString() {
+            return "%-8s %d creates, %d failed, p50 %.1f ms, p99 %.1f ms, %.0f creates/s, max %d concurrent creates, %d pinning sites"
+                    .formatted(mode, requests, failures, p50Millis, p99Millis, throughput, maxConcurrentCreates, pinnedFrames.size());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.patientmanagement.demo.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.patientmanagement.demo.service.PatientBulkImportService;
+import com.patientmanagement.demo.service.PatientService;
+
+class PatientExportControllerTests {
+
+    private static final String CSV = "id,name\n1,Ada\n";
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        PatientService patientService = mock(PatientService.class);
+        when(patientService.exportPatientsCsv(eq(LocalDate.of(2026, 1, 1)), isNull(), any())).thenAnswer(invocation -> {
+            invocation.getArgument(2, OutputStream.class).write(CSV.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new PatientController(patientService, mock(PatientBulkImportService.class), 100, 1000)).build();
+    }
+
+    @Test
+    void gzipsTheExportWhenTheClientAcceptsIt() throws Exception {
+        MockHttpServletResponse response = export("deflate, gzip;q=0.8");
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getContentType()).startsWith("text/csv");
+        try (GZIPInputStream gunzipped = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertThat(new String(gunzipped.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(CSV);
+        }
+    }
+
+    @Test
+    void sendsPlainCsvOtherwise() throws Exception {
+        for (String acceptEncoding : new String[] {null, "identity", "gzip;q=0"}) {
+            MockHttpServletResponse response = export(acceptEncoding);
+
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+            assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(CSV);
+        }
+    }
+
+    private MockHttpServletResponse export(String acceptEncoding) throws Exception {
+        var request = get("/patient/export").param("registeredFrom", "2026-01-01");
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        MockHttpServletResponse response = mockMvc.perform(request).andReturn().getResponse();
+        assertThat(response.getStatus()).isEqualTo(200);
+        return response;
+    }
+}
@@ -0,0 +1,164 @@
+package com.patientmanagement.demo.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.patientmanagement.common.web.LastWriteCookie;
+import com.patientmanagement.demo.PatientManagementApplication;
+
+import billing.BillingAccountsRequest;
+import billing.BillingAccountsResponse;
+import billing.BillingResponse;
+import billing.BillingServiceGrpc;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+// The replica is a separate database rather than a streaming standby, so a row that exists on
+// only one side shows which one served a read.
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReadReplicaRoutingTests {
+
+    private static final long REPLICA_ONLY_ID = 900_001L;
+
+    private static EmbeddedPostgres primary;
+    private static EmbeddedPostgres replica;
+    private static Server billingServer;
+    private static ConfigurableApplicationContext context;
+    private static URI patients;
+    private static final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+    @BeforeAll
+    static void start() throws IOException {
+        primary = EmbeddedPostgres.start();
+        replica = EmbeddedPostgres.start();
+        Flyway.configure().dataSource(replica.getPostgresDatabase()).locations("classpath:db/migration").load().migrate();
+        new JdbcTemplate(replica.getPostgresDatabase()).update("""
+                INSERT INTO patient (id, name, email, phone_number, priority, date_of_birth, register_date)
+                VALUES (?, 'Replica Only', 'replica-only@example.com', '555-0100', 2, DATE '1990-05-15', DATE '2026-02-15')""",
+                REPLICA_ONLY_ID);
+
+        billingServer = ServerBuilder.forPort(0).addService(new BillingServiceGrpc.BillingServiceImplBase() {
+            @Override
+            public void createBillingAccounts(BillingAccountsRequest request, StreamObserver<BillingAccountsResponse> responseObserver) {
+                BillingAccountsResponse.Builder response = BillingAccountsResponse.newBuilder();
+                request.getRequestsList().forEach(r -> response.addResponses(BillingResponse.newBuilder()
+                        .setAccountId("acc-" + r.getPatientId()).setStatus("Active").setPatientId(r.getPatientId())));
+                responseObserver.onNext(response.build());
+                responseObserver.onCompleted();
+            }
+        }).build().start();
+
+        context = new SpringApplicationBuilder(PatientManagementApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + primary.getJdbcUrl("postgres", "postgres"),
+                        "--patient.datasource.replica-urls=" + replica.getJdbcUrl("postgres", "postgres"),
+                        "--patient.datasource.replica-check-interval-ms=3600000",
+                        "--billing.service.address=localhost:" + billingServer.getPort(),
+                        "--spring.kafka.bootstrap-servers=localhost:1",
+                        "--spring.kafka.admin.auto-create=false",
+                        "--spring.kafka.listener.auto-startup=false",
+                        "--patient.outbox.poll-interval-ms=3600000",
+                        "--logging.level.root=WARN");
+        patients = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/patient");
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        context.close();
+        billingServer.shutdownNow();
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    @Order(1)
+    void readsAreServedByTheReplica() throws Exception {
+        assertThat(get("/search?name=replica", null).body()).contains("Replica Only");
+        assertThat(get("/export", null).body()).contains("replica-only@example.com");
+    }
+
+    @Test
+    @Order(1)
+    void cachedReadsAreServedByThePrimary() throws Exception {
+        assertThat(get("/" + REPLICA_ONLY_ID, null).statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    @Order(2)
+    void writesGoToThePrimaryAndOnlyTheWriterReadsThemBeforeReplication() throws Exception {
+        HttpResponse<String> created = client.send(HttpRequest.newBuilder(patients)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("""
+                        {"name":"Written","email":"written@example.com","phoneNumber":"555-0101","priority":1,\
+                        "dateOfBirth":"1990-05-15","registerDate":"2026-02-15"}"""))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(created.statusCode()).isEqualTo(201);
+        String lastWrite = created.headers().firstValue("Set-Cookie").orElseThrow();
+        assertThat(lastWrite).startsWith(LastWriteCookie.NAME + "=").contains("HttpOnly");
+
+        Long id = new JdbcTemplate(primary.getPostgresDatabase())
+                .queryForObject("SELECT id FROM patient WHERE email = 'written@example.com'", Long.class);
+        assertThat(new JdbcTemplate(replica.getPostgresDatabase())
+                .queryForObject("SELECT count(*) FROM patient WHERE email = 'written@example.com'", Integer.class)).isZero();
+
+        // Someone else reads the replica, which hasn't seen the write; the writer's cookie pins it to the primary
+        assertThat(get("/search?name=written", null).body()).doesNotContain("written@example.com");
+        assertThat(get("/search?name=written", lastWrite.substring(0, lastWrite.indexOf(';'))).body())
+                .contains("written@example.com");
+        // The cache is only ever filled from the primary, so everyone gets the new row by id
+        assertThat(get("/" + id, null).body()).contains("written@example.com");
+    }
+
+    @Test
+    @Order(2)
+    void aRecentWriteOnAnotherInstancePinsReadsButAnOldOneDoesNot() throws Exception {
+        // As set by another patient-service instance or by patient-service-reactive
+        String justNow = LastWriteCookie.NAME + "=" + System.currentTimeMillis();
+        String longAgo = LastWriteCookie.NAME + "=" + (System.currentTimeMillis() - 60_000);
+
+        assertThat(get("/search?name=replica", justNow).body()).doesNotContain("Replica Only");
+        assertThat(get("/search?name=replica", longAgo).body()).contains("Replica Only");
+        assertThat(get("/search?name=replica", LastWriteCookie.NAME + "=garbage").body()).contains("Replica Only");
+    }
+
+    @Test
+    @Order(3)
+    void readsFallBackToThePrimaryWhenTheReplicaIsDown() throws Exception {
+        replica.close();
+        context.getBean(ReadReplicas.class).checkLag();
+
+        HttpResponse<String> search = get("/search?name=written", null);
+        assertThat(search.statusCode()).isEqualTo(200);
+        assertThat(search.body()).contains("Written");
+    }
+
+    private static HttpResponse<String> get(String path, String cookie) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(patients + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+        if (cookie != null) {
+            request.header("Cookie", cookie);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
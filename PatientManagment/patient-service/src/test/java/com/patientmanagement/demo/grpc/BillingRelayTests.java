@@ -0,0 +1,143 @@
+package com.patientmanagement.demo.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import billing.BillingAccountsRequest;
+import billing.BillingAccountsResponse;
+import billing.BillingResponse;
+import billing.BillingServiceGrpc;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+class BillingRelayTests {
+
+    private static final Queue<String> created = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean failBilling = new AtomicBoolean();
+
+    private static EmbeddedPostgres postgres;
+    private static HikariDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+    private static Server server;
+    private static BillingServiceClient client;
+    private static BillingRelay relay;
+
+    @BeforeAll
+    static void start() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl("postgres", "postgres"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        server = ServerBuilder.forPort(0).addService(new BillingServiceGrpc.BillingServiceImplBase() {
+            @Override
+            public void createBillingAccounts(BillingAccountsRequest request, StreamObserver<BillingAccountsResponse> responseObserver) {
+                if (failBilling.get()) {
+                    responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+                    return;
+                }
+                BillingAccountsResponse.Builder response = BillingAccountsResponse.newBuilder();
+                request.getRequestsList().forEach(r -> {
+                    created.add(r.getPatientId());
+                    response.addResponses(BillingResponse.newBuilder()
+                            .setAccountId("acc-" + r.getPatientId()).setStatus("Active").setPatientId(r.getPatientId()));
+                });
+                responseObserver.onNext(response.build());
+                responseObserver.onCompleted();
+            }
+        }).build().start();
+        client = new BillingServiceClient("localhost:" + server.getPort(), 2000, 20, 30_000, 100, 5, 16, 10_000, false,
+                ObservationRegistry.NOOP, new SimpleMeterRegistry());
+        // No backoff, so a failed account is due again on the next run
+        relay = new BillingRelay(jdbcTemplate, client, 2, 0, 0);
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        client.shutdown();
+        server.shutdownNow();
+        dataSource.close();
+        postgres.close();
+    }
+
+    @BeforeEach
+    void clearPatients() {
+        jdbcTemplate.execute("TRUNCATE patient, pending_billing RESTART IDENTITY");
+        created.clear();
+        failBilling.set(false);
+    }
+
+    @Test
+    void pendingAccountsAreCreatedInBatchesAndCleared() {
+        List<Long> ids = List.of(insert("a@example.com"), insert("b@example.com"), insert("c@example.com"));
+
+        relay.relay();
+
+        assertThat(created).containsExactlyInAnyOrderElementsOf(ids.stream().map(String::valueOf).toList());
+        assertThat(pending()).isEmpty();
+    }
+
+    @Test
+    void failedAccountsStayPendingUntilBillingAcceptsThem() {
+        long id = insert("retry@example.com");
+        failBilling.set(true);
+
+        relay.relay();
+
+        assertThat(created).isEmpty();
+        assertThat(pending()).containsExactly(id);
+        assertThat(jdbcTemplate.queryForObject("SELECT attempts FROM pending_billing", Integer.class)).isEqualTo(1);
+
+        failBilling.set(false);
+        relay.relay();
+
+        assertThat(created).containsExactly(String.valueOf(id));
+        assertThat(pending()).isEmpty();
+    }
+
+    @Test
+    void claimedAccountsWaitOutTheirBackoff() {
+        long id = insert("leased@example.com");
+        failBilling.set(true);
+        BillingRelay backingOff = new BillingRelay(jdbcTemplate, client, 2, 60_000, 60_000);
+
+        backingOff.relay();
+        failBilling.set(false);
+        backingOff.relay();
+
+        assertThat(created).isEmpty();
+        assertThat(pending()).containsExactly(id);
+    }
+
+    private static long insert(String email) {
+        long id = jdbcTemplate.queryForObject("""
+                INSERT INTO patient (name, email, phone_number, priority, date_of_birth, register_date)
+                VALUES ('Pending', ?, '555-0100', 2, DATE '1990-05-15', DATE '2026-02-15') RETURNING id""", Long.class, email);
+        jdbcTemplate.update("INSERT INTO pending_billing (patient_id) VALUES (?)", id);
+        return id;
+    }
+
+    private static List<Long> pending() {
+        return jdbcTemplate.queryForList("SELECT patient_id FROM pending_billing ORDER BY patient_id", Long.class);
+    }
+}
@@ -0,0 +1,140 @@
+package com.patientmanagement.demo.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import billing.BillingAccountLookup;
+import billing.BillingResponse;
+import billing.BillingServiceGrpc;
+import billing.ExportBillingAccountsRequest;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+
+class BillingServiceClientTests {
+
+    private static final int ACCOUNTS = 20_000;
+
+    private static Server server;
+    private static BillingServiceClient client;
+
+    @BeforeAll
+    static void start() throws IOException {
+        server = ServerBuilder.forPort(0).addService(new BillingServiceGrpc.BillingServiceImplBase() {
+            @Override
+            public StreamObserver<BillingAccountLookup> getBillingAccounts(StreamObserver<BillingResponse> responseObserver) {
+                return new StreamObserver<>() {
+                    @Override
+                    public void onNext(BillingAccountLookup lookup) {
+                        if (lookup.getPatientId().equals("fail")) {
+                            responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+                            return;
+                        }
+                        responseObserver.onNext(account(lookup.getPatientId()));
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        responseObserver.onCompleted();
+                    }
+                };
+            }
+
+            @Override
+            public void exportBillingAccounts(ExportBillingAccountsRequest request, StreamObserver<BillingResponse> responseObserver) {
+                int after = request.getAfterPatientId().isEmpty() ? 0 : Integer.parseInt(request.getAfterPatientId());
+                IntStream.rangeClosed(after + 1, 100).forEach(i -> responseObserver.onNext(account(String.valueOf(i))));
+                responseObserver.onCompleted();
+            }
+        }).build().start();
+        client = new BillingServiceClient("localhost:" + server.getPort(), 2000, 20, 30_000, 100, 5, 16, 10_000, false,
+                ObservationRegistry.NOOP, new SimpleMeterRegistry());
+    }
+
+    @AfterAll
+    static void stop() {
+        client.shutdown();
+        server.shutdownNow();
+    }
+
+    @Test
+    void lookupStreamsOneResponsePerIdInOrder() {
+        List<String> ids = IntStream.range(0, ACCOUNTS).mapToObj(i -> "patient-" + i).toList();
+        List<String> answered = new ArrayList<>();
+
+        client.getBillingAccounts(ids, response -> answered.add(response.getPatientId()));
+
+        assertThat(answered).isEqualTo(ids);
+    }
+
+    @Test
+    void lookupFailureIsThrownToTheCaller() {
+        assertThatThrownBy(() -> client.getBillingAccounts(List.of("a", "fail", "b"), response -> { }))
+                .isInstanceOf(StatusRuntimeException.class)
+                .hasMessageContaining("UNAVAILABLE");
+    }
+
+    @Test
+    void exportResumesAfterTheLastPatientReceived() {
+        List<String> exported = new ArrayList<>();
+
+        client.exportBillingAccounts("40", response -> exported.add(response.getPatientId()));
+
+        assertThat(exported).hasSize(60).first().isEqualTo("41");
+    }
+
+    @Test
+    void batchThatCannotBeSentFailsItsRequestsAndKeepsTheBatcherRunning() throws Exception {
+        ObservationRegistry failing = ObservationRegistry.create();
+        failing.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStart(Observation.Context context) {
+                throw new IllegalStateException("interceptor failed");
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+        // One permit: if a failed send kept it, the second request would never be sent
+        BillingServiceClient broken = new BillingServiceClient("localhost:" + server.getPort(), 2000, 20, 30_000, 100, 5, 1, 10_000,
+                false, failing, new SimpleMeterRegistry());
+        try {
+            for (int i = 0; i < 2; i++) {
+                CompletableFuture<String> accountId = broken.createBillingAccountAsync("p" + i, "Name", "p" + i + "@example.com");
+                assertThatThrownBy(() -> accountId.get(5, TimeUnit.SECONDS))
+                        .isInstanceOf(ExecutionException.class)
+                        .hasMessageContaining("interceptor failed");
+            }
+        } finally {
+            broken.shutdown();
+        }
+    }
+
+    private static BillingResponse account(String patientId) {
+        return BillingResponse.newBuilder().setPatientId(patientId).setAccountId("acc-" + patientId).setStatus("Active").build();
+    }
+}
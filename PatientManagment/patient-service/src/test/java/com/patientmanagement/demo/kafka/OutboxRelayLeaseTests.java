@@ -0,0 +1,76 @@
+package com.patientmanagement.demo.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+class OutboxRelayLeaseTests {
+
+    private static final long LEASE_MILLIS = 60_000;
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void start() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void freeLease() {
+        jdbcTemplate.update("UPDATE outbox_relay_lease SET holder = NULL, expires_at = now()");
+    }
+
+    @Test
+    void onlyTheHolderRelaysUntilItReleasesTheLease() {
+        OutboxRelayLease first = new OutboxRelayLease(jdbcTemplate);
+        OutboxRelayLease second = new OutboxRelayLease(jdbcTemplate);
+
+        assertThat(first.acquire(LEASE_MILLIS)).isTrue();
+        assertThat(second.acquire(LEASE_MILLIS)).isFalse();
+        assertThat(first.acquire(LEASE_MILLIS)).isTrue();
+
+        first.release();
+
+        assertThat(second.acquire(LEASE_MILLIS)).isTrue();
+        assertThat(first.acquire(LEASE_MILLIS)).isFalse();
+    }
+
+    @Test
+    void anExpiredLeaseIsTakenOver() {
+        OutboxRelayLease stalled = new OutboxRelayLease(jdbcTemplate);
+        OutboxRelayLease standby = new OutboxRelayLease(jdbcTemplate);
+
+        assertThat(stalled.acquire(0)).isTrue();
+
+        assertThat(standby.acquire(LEASE_MILLIS)).isTrue();
+        assertThat(stalled.acquire(LEASE_MILLIS)).isFalse();
+    }
+
+    @Test
+    void releasingALeaseHeldByAnotherRelayLeavesItAlone() {
+        OutboxRelayLease holder = new OutboxRelayLease(jdbcTemplate);
+        OutboxRelayLease other = new OutboxRelayLease(jdbcTemplate);
+        assertThat(holder.acquire(LEASE_MILLIS)).isTrue();
+
+        other.release();
+
+        assertThat(other.acquire(LEASE_MILLIS)).isFalse();
+    }
+}
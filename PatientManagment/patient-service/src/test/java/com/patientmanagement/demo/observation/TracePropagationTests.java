@@ -0,0 +1,186 @@
+package com.patientmanagement.demo.observation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.ProducerFactory;
+
+import com.patientmanagement.demo.PatientManagementApplication;
+import com.patientmanagement.demo.grpc.BillingRelay;
+import com.patientmanagement.demo.kafka.OutboxRelay;
+
+import billing.BillingAccountsRequest;
+import billing.BillingAccountsResponse;
+import billing.BillingResponse;
+import billing.BillingServiceGrpc;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.stub.StreamObserver;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+class TracePropagationTests {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final Metadata.Key<String> TRACEPARENT = Metadata.Key.of("traceparent", Metadata.ASCII_STRING_MARSHALLER);
+
+    // Stands in for the broker: sends complete as soon as they are made. KafkaTemplate closes its
+    // producer after every send, so closing must not end this one.
+    private static final MockProducer<String, byte[]> producer =
+            new MockProducer<>(true, null, new StringSerializer(), new ByteArraySerializer()) {
+                @Override
+                public void close(Duration timeout) {
+                }
+            };
+    private static final Queue<String> billingTraceParents = new ConcurrentLinkedQueue<>();
+
+    private static EmbeddedPostgres postgres;
+    private static Server billingServer;
+    private static ConfigurableApplicationContext context;
+    private static URI baseUri;
+    private static final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+    @BeforeAll
+    static void start() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        ServerInterceptor recordTraceParent = new ServerInterceptor() {
+            @Override
+            public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers, ServerCallHandler<Q, R> next) {
+                billingTraceParents.add(String.valueOf(headers.get(TRACEPARENT)));
+                return next.startCall(call, headers);
+            }
+        };
+        billingServer = ServerBuilder.forPort(0).addService(ServerInterceptors.intercept(new BillingServiceGrpc.BillingServiceImplBase() {
+            @Override
+            public void createBillingAccounts(BillingAccountsRequest request, StreamObserver<BillingAccountsResponse> responseObserver) {
+                BillingAccountsResponse.Builder response = BillingAccountsResponse.newBuilder();
+                request.getRequestsList().forEach(r -> response.addResponses(BillingResponse.newBuilder()
+                        .setAccountId("acc-" + r.getPatientId()).setStatus("Active").setPatientId(r.getPatientId())));
+                responseObserver.onNext(response.build());
+                responseObserver.onCompleted();
+            }
+        }, recordTraceParent)).build().start();
+
+        // Typed like Boot's own factory so the auto-configured KafkaTemplate picks it up
+        ProducerFactory<Object, Object> producerFactory = new ProducerFactory<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Producer<Object, Object> createProducer() {
+                return (Producer<Object, Object>) (Producer<?, ?>) producer;
+            }
+
+            @Override
+            public Map<String, Object> getConfigurationProperties() {
+                return Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:1");
+            }
+        };
+        // A known cluster id keeps the send observation from asking the (absent) broker for it
+        KafkaAdmin kafkaAdmin = new KafkaAdmin(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:1"));
+        kafkaAdmin.setAutoCreate(false);
+        kafkaAdmin.setClusterId("test-cluster");
+        context = new SpringApplicationBuilder(PatientManagementApplication.class)
+                .initializers(ctx -> {
+                    ctx.getBeanFactory().registerSingleton("mockProducerFactory", producerFactory);
+                    ctx.getBeanFactory().registerSingleton("kafkaAdmin", kafkaAdmin);
+                })
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--billing.service.address=localhost:" + billingServer.getPort(),
+                        "--spring.kafka.bootstrap-servers=localhost:1",
+                        "--spring.kafka.listener.auto-startup=false",
+                        "--patient.outbox.poll-interval-ms=3600000",
+                        "--management.tracing.sampling.probability=1.0",
+                        "--logging.level.root=WARN");
+        baseUri = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        context.close();
+        billingServer.shutdownNow();
+        postgres.close();
+    }
+
+    @Test
+    void patientEventsContinueTheTraceOfTheRequestThatWroteThem() throws Exception {
+        HttpResponse<String> created = send(HttpRequest.newBuilder(baseUri.resolve("/patient"))
+                .header("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01")
+                .POST(HttpRequest.BodyPublishers.ofString(patient("traced@example.com"))));
+        assertThat(created.statusCode()).isEqualTo(201);
+
+        String stored = context.getBean(JdbcTemplate.class).queryForObject(
+                "SELECT trace_parent FROM outbox_event WHERE aggregate_id = (SELECT id::text FROM patient WHERE email = 'traced@example.com')",
+                String.class);
+        assertThat(stored).startsWith("00-" + TRACE_ID + "-").endsWith("-01").doesNotContain("00f067aa0ba902b7");
+
+        context.getBean(OutboxRelay.class).relay();
+
+        ProducerRecord<String, byte[]> published = producer.history().getLast();
+        String header = new String(published.headers().lastHeader("traceparent").value(), StandardCharsets.UTF_8);
+        // Same trace, child of the span that wrote the outbox row
+        assertThat(header).startsWith("00-" + TRACE_ID + "-").isNotEqualTo(stored);
+    }
+
+    @Test
+    void billingCallsCarryTraceContextAndEveryHopIsOnTheScrapeEndpoint() throws Exception {
+        assertThat(send(HttpRequest.newBuilder(baseUri.resolve("/patient"))
+                .POST(HttpRequest.BodyPublishers.ofString(patient("scraped@example.com")))).statusCode()).isEqualTo(201);
+        context.getBean(BillingRelay.class).relay();
+        context.getBean(OutboxRelay.class).relay();
+
+        String scrape = "";
+        for (int attempt = 0; attempt < 50 && !scrape.contains("billing_client_requests_seconds_count"); attempt++) {
+            Thread.sleep(100);
+            scrape = send(HttpRequest.newBuilder(baseUri.resolve("/actuator/prometheus")).GET()).body();
+        }
+
+        assertThat(billingTraceParents).isNotEmpty().allSatisfy(traceParent -> assertThat(traceParent).matches("00-\\p{XDigit}{32}-\\p{XDigit}{16}-0[01]"));
+        assertThat(scrape)
+                .contains("patient_service_seconds_bucket{class=\"PatientService\"", "method=\"createPatient\"")
+                .contains("grpc_client_seconds_bucket{")
+                .contains("billing_client_requests_seconds_bucket{")
+                .contains("billing_client_queue_size")
+                .contains("spring_kafka_template_seconds_bucket{")
+                .contains("http_server_requests_seconds_bucket{");
+    }
+
+    private static String patient(String email) {
+        return """
+                {"name":"Traced","email":"%s","phoneNumber":"555-0100","priority":2,\
+                "dateOfBirth":"1990-05-15","registerDate":"2026-02-15"}""".formatted(email);
+    }
+
+    private static HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.header("Content-Type", "application/json").timeout(Duration.ofSeconds(30)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,99 @@
+package com.patientmanagement.demo.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.patientmanagement.common.mapper.PatientCsvMapper;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+class PatientExportRepositoryTests {
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+    private static PatientExportRepository repository;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbcTemplate.execute("""
+                INSERT INTO patient (name, email, phone_number, priority, date_of_birth, register_date)
+                SELECT 'Patient ' || g, 'patient' || g || '@example.com', '555-' || g, 1 + g % 3,
+                       DATE '1950-01-01' + (g % 20000), DATE '2024-01-01' + (g % 700)
+                FROM generate_series(1, 5000) g
+                """);
+        jdbcTemplate.execute("INSERT INTO patient (name, email, phone_number, priority, date_of_birth, register_date) "
+                + "VALUES ('Smith, \"Jr\"', 'quoted@example.com', '555-0', 1, DATE '1990-05-01', DATE '2025-01-01')");
+        repository = new PatientExportRepository(jdbcTemplate);
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void exportsEveryPatientInIdOrderUnderAHeaderRow() {
+        List<String> lines = export(null, null);
+
+        assertThat(lines.get(0)).isEqualTo("id,name,email,phoneNumber,priority,dateOfBirth,registerDate");
+        assertThat(lines).hasSize(5002);
+        assertThat(lines.get(1)).startsWith("1,Patient 1,patient1@example.com,555-1,2,");
+        List<Long> ids = lines.stream().skip(1).map(line -> Long.parseLong(line.substring(0, line.indexOf(',')))).toList();
+        assertThat(ids).isSorted();
+    }
+
+    @Test
+    void exportsOnlyPatientsRegisteredWithinTheRange() {
+        LocalDate from = LocalDate.of(2024, 6, 1);
+        LocalDate to = LocalDate.of(2024, 6, 30);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = repository.exportCsv(from, to, out);
+
+        Long expected = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM patient WHERE register_date BETWEEN DATE '2024-06-01' AND DATE '2024-06-30'", Long.class);
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().skip(1).toList();
+        assertThat(rows).isEqualTo(expected).isEqualTo((long) lines.size());
+        assertThat(lines).allSatisfy(line -> {
+            LocalDate registered = LocalDate.parse(line.substring(line.lastIndexOf(',') + 1));
+            assertThat(registered).isBetween(from, to);
+        });
+        assertThat(export(LocalDate.of(2025, 1, 1), null)).hasSizeGreaterThan(1).hasSizeLessThan(5002);
+    }
+
+    @Test
+    void exportCanBeReimportedThroughTheCsvMapper() throws IOException {
+        String csv = String.join("\n", export(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 1)));
+
+        List<PatientCsvMapper.Row> rows = PatientCsvMapper.fromCsv(new StringReader(csv));
+
+        assertThat(rows).anySatisfy(row -> {
+            assertThat(row.error()).isNull();
+            assertThat(row.patient().getName()).isEqualTo("Smith, \"Jr\"");
+            assertThat(row.patient().getEmail()).isEqualTo("quoted@example.com");
+            assertThat(row.patient().getRegisterDate()).isEqualTo(LocalDate.of(2025, 1, 1));
+        });
+    }
+
+    private static List<String> export(LocalDate registeredFrom, LocalDate registeredTo) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        repository.exportCsv(registeredFrom, registeredTo, out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+}
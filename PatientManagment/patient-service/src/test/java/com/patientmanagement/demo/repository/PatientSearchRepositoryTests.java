@@ -0,0 +1,143 @@
+package com.patientmanagement.demo.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.patientmanagement.common.dto.PatientSearchCriteria;
+import com.patientmanagement.common.exception.InvalidCursorException;
+import com.patientmanagement.demo.model.Patient;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+class PatientSearchRepositoryTests {
+
+    private static EmbeddedPostgres postgres;
+    private static NamedParameterJdbcTemplate jdbcTemplate;
+    private static PatientSearchRepository repository;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+
+        JdbcTemplate jdbc = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbc.execute("""
+                INSERT INTO patient (name, email, phone_number, priority, date_of_birth, register_date)
+                SELECT 'Patient ' || g, 'patient' || g || '@example.com', '555-' || g, 1 + g % 3,
+                       DATE '1950-01-01' + (g % 20000), DATE '2024-01-01' + (g % 700)
+                FROM generate_series(1, 100000) g
+                """);
+        jdbc.execute("INSERT INTO patient (name, email, phone_number, priority, date_of_birth, register_date) "
+                + "VALUES ('Ann_Smith', 'ann@example.com', '555-0', 1, DATE '1990-05-01', DATE '2025-01-01')");
+        jdbc.execute("ANALYZE patient");
+
+        jdbcTemplate = new NamedParameterJdbcTemplate(postgres.getPostgresDatabase());
+        repository = new PatientSearchRepository(jdbcTemplate);
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    // Each search and the V3 index the planner should pick for it, under default planner settings
+    // on an analyzed table large enough that a full scan would lose.
+    static Stream<Arguments> searches() {
+        LocalDate from = LocalDate.of(2024, 6, 1);
+        return Stream.of(
+                Arguments.of(PatientSearchCriteria.builder().sort("registerDate").direction("desc").build(),
+                        "idx_patient_register_date"),
+                Arguments.of(PatientSearchCriteria.builder().registeredFrom(from).sort("registerDate")
+                                .after(PatientSearchRepository.nextCursor(PatientSearchCriteria.builder().sort("registerDate").build(),
+                                        Patient.builder().id(42L).registerDate(from).build()))
+                                .build(),
+                        "idx_patient_register_date"),
+                Arguments.of(PatientSearchCriteria.builder().priority(2).sort("registerDate").build(),
+                        "idx_patient_priority_register_date"),
+                Arguments.of(PatientSearchCriteria.builder().priority(3).registeredFrom(from)
+                                .registeredTo(LocalDate.of(2024, 6, 30)).sort("registerDate").build(),
+                        "idx_patient_priority_register_date"),
+                Arguments.of(PatientSearchCriteria.builder().bornFrom(LocalDate.of(1980, 1, 1)).bornTo(LocalDate.of(1980, 1, 31)).build(),
+                        "idx_patient_date_of_birth"),
+                Arguments.of(PatientSearchCriteria.builder().name("patient 12345").build(),
+                        "idx_patient_name_trgm"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("searches")
+    void everySearchUsesItsIndex(PatientSearchCriteria criteria, String index) {
+        PatientSearchRepository.SearchQuery query = PatientSearchRepository.buildQuery(criteria, 50);
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + query.sql(), query.params(), String.class);
+
+        // "Index Scan using <index>" or "Bitmap Index Scan on <index>"
+        assertThat(plan).as(String.join("\n", plan))
+                .anyMatch(line -> line.matches(".*(using|Scan on) " + index + "\\b.*"));
+    }
+
+    @Test
+    void pagesThroughRegisterDateOrderWithoutGapsOrDuplicates() {
+        PatientSearchCriteria criteria = PatientSearchCriteria.builder()
+                .priority(1)
+                .registeredFrom(LocalDate.of(2024, 3, 1))
+                .registeredTo(LocalDate.of(2024, 3, 31))
+                .sort("registerDate")
+                .build();
+        List<Long> expected = jdbcTemplate.getJdbcTemplate().queryForList(
+                "SELECT id FROM patient WHERE priority = 1 AND register_date BETWEEN '2024-03-01' AND '2024-03-31' "
+                        + "ORDER BY register_date, id", Long.class);
+
+        List<Long> seen = new ArrayList<>();
+        List<Patient> page;
+        do {
+            page = repository.search(criteria, 7);
+            page.forEach(patient -> seen.add(patient.getId()));
+            if (!page.isEmpty()) {
+                criteria.setAfter(PatientSearchRepository.nextCursor(criteria, page.get(page.size() - 1)));
+            }
+        } while (page.size() == 7);
+
+        assertThat(expected).isNotEmpty();
+        assertThat(seen).isEqualTo(expected);
+    }
+
+    @Test
+    void nameIsAnEscapedCaseInsensitivePrefix() {
+        assertThat(repository.search(PatientSearchCriteria.builder().name("ANN_").build(), 10))
+                .extracting(Patient::getEmail)
+                .containsExactly("ann@example.com");
+        assertThat(repository.search(PatientSearchCriteria.builder().name("ann%").build(), 10)).isEmpty();
+    }
+
+    @Test
+    void descendingIdSortContinuesBelowTheCursor() {
+        PatientSearchCriteria criteria = PatientSearchCriteria.builder().direction("desc").build();
+        List<Patient> first = repository.search(criteria, 3);
+        criteria.setAfter(PatientSearchRepository.nextCursor(criteria, first.get(2)));
+        List<Patient> second = repository.search(criteria, 3);
+
+        assertThat(second.get(0).getId()).isEqualTo(first.get(2).getId() - 1);
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThatThrownBy(() -> PatientSearchRepository.buildQuery(
+                PatientSearchCriteria.builder().sort("registerDate").after("not-a-cursor").build(), 10))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+}
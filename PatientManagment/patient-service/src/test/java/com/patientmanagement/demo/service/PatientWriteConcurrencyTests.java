@@ -0,0 +1,266 @@
+package com.patientmanagement.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.patientmanagement.demo.PatientManagementApplication;
+
+import billing.BillingAccountsRequest;
+import billing.BillingAccountsResponse;
+import billing.BillingResponse;
+import billing.BillingServiceGrpc;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+class PatientWriteConcurrencyTests {
+
+    private static final int CLIENTS = 32;
+
+    // Every SQL statement Hibernate prepares, in order
+    private static final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+    // Emails the stub billing service has been asked to open an account for
+    private static final List<String> billed = Collections.synchronizedList(new ArrayList<>());
+
+    private static EmbeddedPostgres postgres;
+    private static Server billingServer;
+    private static ConfigurableApplicationContext context;
+    private static JdbcTemplate jdbcTemplate;
+    private static URI patients;
+    private static final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+    @BeforeAll
+    static void start() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        billingServer = ServerBuilder.forPort(0).addService(new BillingServiceGrpc.BillingServiceImplBase() {
+            @Override
+            public void createBillingAccounts(BillingAccountsRequest request, StreamObserver<BillingAccountsResponse> responseObserver) {
+                BillingAccountsResponse.Builder response = BillingAccountsResponse.newBuilder();
+                request.getRequestsList().forEach(r -> {
+                    billed.add(r.getEmail());
+                    response.addResponses(BillingResponse.newBuilder()
+                            .setAccountId("acc-" + r.getPatientId()).setStatus("Active").setPatientId(r.getPatientId()));
+                });
+                responseObserver.onNext(response.build());
+                responseObserver.onCompleted();
+            }
+        }).build().start();
+
+        StatementInspector recorder = sql -> {
+            statements.add(sql);
+            return sql;
+        };
+        context = new SpringApplicationBuilder(PatientManagementApplication.class)
+                .initializers(ctx -> ctx.getBeanFactory().registerSingleton("statementRecorder",
+                        (HibernatePropertiesCustomizer) properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, recorder)))
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--billing.service.address=localhost:" + billingServer.getPort(),
+                        "--spring.kafka.bootstrap-servers=localhost:1",
+                        "--spring.kafka.admin.auto-create=false",
+                        "--spring.kafka.listener.auto-startup=false",
+                        "--patient.outbox.poll-interval-ms=3600000",
+                        "--logging.level.root=WARN");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        patients = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/patient");
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        context.close();
+        billingServer.shutdownNow();
+        postgres.close();
+    }
+
+    @BeforeEach
+    void clearStatements() {
+        statements.clear();
+    }
+
+    @Test
+    void concurrentCreatesWithOneEmailStoreOnePatient() throws Exception {
+        List<HttpResponse<String>> responses = concurrently(i -> send("POST", patients, patient("race@example.com", "555-" + i)));
+
+        assertThat(responses).filteredOn(r -> r.statusCode() == 201).hasSize(1);
+        assertThat(responses).filteredOn(r -> r.statusCode() == 400)
+                .hasSize(CLIENTS - 1)
+                .allSatisfy(r -> assertThat(r.body()).contains("Email address already exists"));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM patient WHERE email = 'race@example.com'", Integer.class))
+                .isEqualTo(1);
+        // One INSERT per request, plus the outbox INSERT for the one that won; no existence checks
+        assertThat(statements).noneMatch(sql -> sql.startsWith("select"));
+        assertThat(statements).filteredOn(sql -> sql.startsWith("insert into patient")).hasSize(CLIENTS);
+    }
+
+    @Test
+    void concurrentUpdatesToOneEmailLeaveItWithOnePatient() throws Exception {
+        List<Long> ids = IntStream.range(0, CLIENTS)
+                .mapToObj(i -> createPatient("update-" + i + "@example.com"))
+                .toList();
+        statements.clear();
+
+        List<HttpResponse<String>> responses = concurrently(i ->
+                send("PUT", patients.resolve("/patient/" + ids.get(i)), patient("taken@example.com", "555-0")));
+
+        assertThat(responses).filteredOn(r -> r.statusCode() == 200).hasSize(1);
+        assertThat(responses).filteredOn(r -> r.statusCode() == 400).hasSize(CLIENTS - 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM patient WHERE email = 'taken@example.com'", Integer.class))
+                .isEqualTo(1);
+        // The row lookup and one UPDATE per request, nothing else before the write
+        assertThat(statements).filteredOn(sql -> sql.startsWith("select")).hasSize(CLIENTS);
+        assertThat(statements).filteredOn(sql -> sql.startsWith("update patient")).hasSize(CLIENTS);
+    }
+
+    @Test
+    void updateSendsOnlyTheChangedColumns() throws Exception {
+        long id = createPatient("columns@example.com");
+        statements.clear();
+
+        HttpResponse<String> response = send("PUT", patients.resolve("/patient/" + id), patient("columns@example.com", "555-9999"));
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(statements).filteredOn(sql -> sql.startsWith("update patient"))
+                .singleElement()
+                .satisfies(sql -> assertThat(sql).contains("phone_number").doesNotContain("email").doesNotContain("name"));
+        // findById, the UPDATE and the outbox INSERT
+        assertThat(statements).hasSize(3);
+    }
+
+    @Test
+    void concurrentBulkImportsOfOneListCreateEachPatientOnce() throws Exception {
+        createPatient("bulk-0@example.com");
+        String body = IntStream.range(0, 50)
+                .mapToObj(i -> patient("bulk-" + i + "@example.com", "555-" + i))
+                .collect(Collectors.joining(",", "[", "]"));
+
+        List<HttpResponse<String>> responses = concurrently(i -> send("POST", patients.resolve("/patient/bulk"), body));
+
+        // Every request reports every row; between them each new email is created exactly once
+        assertThat(responses).allSatisfy(r -> assertThat(r.statusCode()).isEqualTo(200));
+        int created = responses.stream()
+                .mapToInt(r -> Integer.parseInt(r.body().replaceAll(".*\"created\":(\\d+).*", "$1")))
+                .sum();
+        assertThat(created).isEqualTo(49);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM patient WHERE email LIKE 'bulk-%'", Integer.class))
+                .isEqualTo(50);
+
+        // The billing relay creates an account for every imported patient
+        List<String> emails = IntStream.range(0, 50).mapToObj(i -> "bulk-" + i + "@example.com").toList();
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!billed.containsAll(emails) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(billed).containsAll(emails);
+    }
+
+    @Test
+    void billingIsOnlyAskedForPatientsThatCommitted() throws Exception {
+        // Fails the outbox INSERT, and with it the create, after the patient row has been written
+        jdbcTemplate.execute("""
+                CREATE FUNCTION reject_rollback_patient() RETURNS trigger AS $$
+                BEGIN
+                    IF EXISTS (SELECT 1 FROM patient WHERE id = NEW.aggregate_id::bigint AND email = 'rollback@example.com') THEN
+                        RAISE EXCEPTION 'outbox unavailable';
+                    END IF;
+                    RETURN NEW;
+                END $$ LANGUAGE plpgsql""");
+        jdbcTemplate.execute("CREATE TRIGGER reject_rollback_patient BEFORE INSERT ON outbox_event "
+                + "FOR EACH ROW EXECUTE FUNCTION reject_rollback_patient()");
+        try {
+            assertThat(send("POST", patients, patient("rollback@example.com", "555-1")).statusCode()).isNotEqualTo(201);
+            createPatient("committed@example.com");
+
+            // Billing requests go out in creation order, so once the committed one has been billed
+            // the rolled-back one would have been too
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (!billed.contains("committed@example.com") && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertThat(billed).contains("committed@example.com").doesNotContain("rollback@example.com");
+            assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM patient WHERE email = 'rollback@example.com'", Integer.class))
+                    .isZero();
+        } finally {
+            jdbcTemplate.execute("DROP TRIGGER reject_rollback_patient ON outbox_event");
+            jdbcTemplate.execute("DROP FUNCTION reject_rollback_patient()");
+        }
+    }
+
+    private long createPatient(String email) {
+        try {
+            HttpResponse<String> response = send("POST", patients, patient(email, "555-1"));
+            assertThat(response.statusCode()).isEqualTo(201);
+            return jdbcTemplate.queryForObject("SELECT id FROM patient WHERE email = ?", Long.class, email);
+        } catch (IOException | InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String patient(String email, String phoneNumber) {
+        return """
+                {"name":"Race","email":"%s","phoneNumber":"%s","priority":2,\
+                "dateOfBirth":"1990-05-15","registerDate":"2026-02-15"}""".formatted(email, phoneNumber);
+    }
+
+    private static HttpResponse<String> send(String method, URI uri, String body) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri)
+                        .header("Content-Type", "application/json")
+                        .timeout(Duration.ofSeconds(30))
+                        .method(method, HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Runs one request per client, all released at once
+    private static List<HttpResponse<String>> concurrently(Request request) throws Exception {
+        CountDownLatch go = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(CLIENTS)) {
+            List<Future<HttpResponse<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                int client = i;
+                futures.add(executor.submit((Callable<HttpResponse<String>>) () -> {
+                    go.await();
+                    return request.send(client);
+                }));
+            }
+            go.countDown();
+            List<HttpResponse<String>> responses = new ArrayList<>();
+            for (Future<HttpResponse<String>> future : futures) {
+                responses.add(future.get());
+            }
+            return responses;
+        }
+    }
+
+    interface Request {
+        HttpResponse<String> send(int client) throws Exception;
+    }
+}
@@ -0,0 +1,183 @@
+package com.patientmanagement.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.patientmanagement.demo.service.TriageQueue.Entry;
+
+class TriageQueueTests {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 2, 15);
+
+    @Test
+    void claimsByPriorityThenRegisterDateThenId() {
+        TriageQueue queue = new TriageQueue();
+        queue.offer(new Entry(1, 3, DAY.minusDays(10)));
+        queue.offer(new Entry(2, 1, DAY));
+        queue.offer(new Entry(3, 2, DAY));
+        queue.offer(new Entry(4, 1, DAY.minusDays(1)));
+        queue.offer(new Entry(5, 1, DAY));
+
+        List<Long> claimed = new ArrayList<>();
+        for (Entry next; (next = queue.poll()) != null; ) {
+            claimed.add(next.patientId());
+        }
+
+        assertThat(claimed).containsExactly(4L, 2L, 5L, 3L, 1L);
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void updatesMoveAPatientAndRemovalsDropIt() {
+        TriageQueue queue = new TriageQueue();
+        queue.offer(new Entry(1, 2, DAY));
+        queue.offer(new Entry(2, 3, DAY));
+        queue.offer(new Entry(3, 3, DAY));
+
+        queue.offer(new Entry(2, 1, DAY));
+        queue.offer(new Entry(1, 2, DAY));
+        queue.remove(3);
+
+        assertThat(queue.size()).isEqualTo(2);
+        assertThat(queue.sizeByPriority()).containsExactly(Map.entry(1, 1L), Map.entry(2, 1L));
+        assertThat(queue.poll().patientId()).isEqualTo(2);
+        assertThat(queue.poll().patientId()).isEqualTo(1);
+        assertThat(queue.poll()).isNull();
+    }
+
+    @Test
+    void updateOnlyMovesAPatientThatIsStillWaiting() {
+        TriageQueue queue = new TriageQueue();
+        queue.offer(new Entry(1, 3, DAY));
+        queue.offer(new Entry(2, 3, DAY));
+        queue.poll();
+
+        queue.update(new Entry(1, 1, DAY));
+        queue.update(new Entry(2, 1, DAY));
+
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.sizeByPriority()).containsExactly(Map.entry(1, 1L));
+        assertThat(queue.poll()).isEqualTo(new Entry(2, 1, DAY));
+        assertThat(queue.poll()).isNull();
+    }
+
+    @Test
+    void requeueDoesNotOverrideANewerEntry() {
+        TriageQueue queue = new TriageQueue();
+        queue.offer(new Entry(1, 3, DAY));
+        Entry polled = queue.poll();
+        queue.offer(new Entry(1, 1, DAY));
+
+        queue.requeue(polled);
+
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.poll()).isEqualTo(new Entry(1, 1, DAY));
+    }
+
+    @Test
+    void concurrentClaimersClaimEveryPatientExactlyOnce() throws Exception {
+        int patients = 50_000;
+        TriageQueue queue = new TriageQueue();
+        for (long id = 1; id <= patients; id++) {
+            queue.offer(new Entry(id, 1 + (int) (id % 3), DAY.minusDays(id % 365)));
+        }
+        Map<Long, AtomicInteger> claims = new ConcurrentHashMap<>();
+
+        Runnable claimer = () -> {
+            for (Entry next; (next = queue.poll()) != null; ) {
+                claims.computeIfAbsent(next.patientId(), id -> new AtomicInteger()).incrementAndGet();
+            }
+        };
+        runConcurrently(Collections.nCopies(8, claimer));
+
+        assertThat(claims).hasSize(patients);
+        assertThat(claims.values()).allSatisfy(count -> assertThat(count.get()).isEqualTo(1));
+        assertThat(queue.size()).isZero();
+    }
+
+    // A writer keeps re-prioritising and removing patients while they are claimed. A patient
+    // can be claimed again only after being offered again, as an update to a claimed patient is
+    // (TriageService's conditional UPDATE rejects that claim), and the counts must end at zero.
+    @Test
+    void claimersRacingUpdatesAndRemovalsKeepTheQueueConsistent() throws Exception {
+        int patients = 20_000;
+        TriageQueue queue = new TriageQueue();
+        Map<Long, AtomicInteger> offers = new ConcurrentHashMap<>();
+        Map<Long, AtomicInteger> claims = new ConcurrentHashMap<>();
+        Set<Long> removed = ConcurrentHashMap.newKeySet();
+        for (long id = 1; id <= patients; id++) {
+            queue.offer(new Entry(id, 3, DAY));
+            offers.put(id, new AtomicInteger(1));
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Runnable writer = () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < patients; i++) {
+                long id = 1 + random.nextInt(patients);
+                if (i % 10 == 0) {
+                    removed.add(id);
+                    queue.remove(id);
+                } else {
+                    offers.get(id).incrementAndGet();
+                    queue.offer(new Entry(id, 1 + random.nextInt(3), DAY.minusDays(random.nextInt(30))));
+                }
+            }
+            writing.set(false);
+        };
+        Runnable claimer = () -> {
+            for (Entry next; (next = queue.poll()) != null || writing.get(); ) {
+                if (next != null) {
+                    claims.computeIfAbsent(next.patientId(), id -> new AtomicInteger()).incrementAndGet();
+                }
+            }
+        };
+        List<Runnable> tasks = new ArrayList<>(Collections.nCopies(8, claimer));
+        tasks.add(writer);
+        runConcurrently(tasks);
+
+        assertThat(queue.size()).isZero();
+        assertThat(queue.sizeByPriority()).isEmpty();
+        for (long id = 1; id <= patients; id++) {
+            int claimed = claims.getOrDefault(id, new AtomicInteger()).get();
+            assertThat(claimed).as("claims of patient %d", id).isLessThanOrEqualTo(offers.get(id).get());
+            assertThat(claimed > 0 || removed.contains(id)).as("patient %d claimed or removed", id).isTrue();
+        }
+    }
+
+    private static void runConcurrently(List<Runnable> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (Runnable task : tasks) {
+                running.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.patientmanagement.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.patientmanagement.common.dto.PatientResponseDTO;
+import com.patientmanagement.common.kafka.PatientEvents;
+import com.patientmanagement.demo.model.OutboxEvent;
+import com.patientmanagement.demo.model.Patient;
+import com.patientmanagement.demo.repository.OutboxEventRepository;
+import com.patientmanagement.demo.repository.TriageRepository;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+class TriageServiceTests {
+
+    private static EmbeddedPostgres postgres;
+    private static HikariDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+    private static PatientEventOutbox outbox;
+
+    // Outbox rows the claims recorded; saving one fails while failOutbox is set
+    private static final List<OutboxEvent> recorded = Collections.synchronizedList(new ArrayList<>());
+    private static final AtomicBoolean failOutbox = new AtomicBoolean();
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+        // Pooled as in the service; claims are one statement each, so a fresh connection per claim would dominate
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl("postgres", "postgres"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new JdbcTransactionManager(dataSource));
+        OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+        when(outboxEventRepository.save(any())).thenAnswer(invocation -> {
+            if (failOutbox.get()) {
+                throw new IllegalStateException("outbox unavailable");
+            }
+            recorded.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        outbox = new PatientEventOutbox(outboxEventRepository, jdbcTemplate, Tracer.NOOP, "protobuf");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        dataSource.close();
+        postgres.close();
+    }
+
+    @BeforeEach
+    void clearPatients() {
+        jdbcTemplate.execute("TRUNCATE patient, pending_billing RESTART IDENTITY");
+        recorded.clear();
+        failOutbox.set(false);
+    }
+
+    @Test
+    void rebuildQueuesTheWaitingPatientsInClaimOrder() {
+        long late = insert("Late", 1, LocalDate.of(2026, 3, 1));
+        long low = insert("Low", 3, LocalDate.of(2026, 1, 1));
+        long early = insert("Early", 1, LocalDate.of(2026, 2, 1));
+        long seen = insert("Seen", 1, LocalDate.of(2025, 1, 1));
+        jdbcTemplate.update("UPDATE patient SET triaged_at = now() WHERE id = ?", seen);
+
+        TriageService triage = rebuiltService();
+
+        assertThat(triage.depth().getWaiting()).isEqualTo(3);
+        assertThat(triage.depth().getByPriority()).containsExactly(Map.entry(1, 2L), Map.entry(3, 1L));
+        assertThat(claimAll(triage)).containsExactly(early, late, low);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM patient WHERE triaged_at IS NULL", Integer.class)).isZero();
+        assertThat(rebuiltService().depth().getWaiting()).isZero();
+    }
+
+    @Test
+    void patientsFromBeforeTheQueueExistedAreNotWaiting() {
+        Flyway.configure().dataSource(dataSource).schemas("upgrade").target("5").load().migrate();
+        JdbcTemplate upgrade = new JdbcTemplate(dataSource);
+        upgrade.update("""
+                INSERT INTO upgrade.patient (name, email, phone_number, priority, date_of_birth, register_date)
+                VALUES ('Old', 'old@example.com', '555-0100', 1, DATE '1990-05-15', DATE '2025-01-01')""");
+
+        Flyway.configure().dataSource(dataSource).schemas("upgrade").load().migrate();
+        upgrade.update("""
+                INSERT INTO upgrade.patient (name, email, phone_number, priority, date_of_birth, register_date)
+                VALUES ('New', 'new@example.com', '555-0101', 1, DATE '1990-05-15', DATE '2026-01-01')""");
+
+        assertThat(upgrade.queryForList("SELECT name FROM upgrade.patient WHERE triaged_at IS NULL", String.class))
+                .containsExactly("New");
+    }
+
+    @Test
+    void patientEventsKeepTheQueueCurrent() throws IOException {
+        TriageService triage = rebuiltService();
+        long first = insert("First", 3, LocalDate.of(2026, 1, 1));
+        long second = insert("Second", 3, LocalDate.of(2026, 1, 2));
+        long deleted = insert("Deleted", 1, LocalDate.of(2026, 1, 1));
+
+        triage.apply(PatientEvents.decode(PatientEvents.PROTOBUF, PatientEvents.encode(PatientEvents.PROTOBUF, patient(first, 3), "CREATE")));
+        triage.apply(PatientEvents.decode(PatientEvents.JSON, PatientEvents.encode(PatientEvents.JSON, patient(second, 3), "CREATE")));
+        triage.apply(PatientEvents.decode(PatientEvents.PROTOBUF, PatientEvents.encode(PatientEvents.PROTOBUF, patient(deleted, 1), "CREATE")));
+        triage.apply(PatientEvents.decode(PatientEvents.PROTOBUF, PatientEvents.encode(PatientEvents.PROTOBUF, patient(second, 2), "UPDATE")));
+        triage.apply(PatientEvents.decode(PatientEvents.PROTOBUF, PatientEvents.encodeDelete(PatientEvents.PROTOBUF, deleted)));
+
+        assertThat(claimAll(triage)).containsExactly(second, first);
+    }
+
+    @Test
+    void patientsClaimedByAnotherInstanceAreSkipped() {
+        long first = insert("First", 1, LocalDate.of(2026, 1, 1));
+        long second = insert("Second", 2, LocalDate.of(2026, 1, 1));
+        TriageService triage = rebuiltService();
+
+        jdbcTemplate.update("UPDATE patient SET triaged_at = now() WHERE id = ?", first);
+
+        assertThat(claimAll(triage)).containsExactly(second);
+        assertThat(recorded).extracting(OutboxEvent::getAggregateId).containsExactly(String.valueOf(second));
+    }
+
+    @Test
+    void claimsAreAnnouncedToTheOtherInstances() throws IOException {
+        long first = insert("First", 1, LocalDate.of(2026, 1, 1));
+        long second = insert("Second", 2, LocalDate.of(2026, 1, 1));
+        TriageService claimer = rebuiltService();
+        TriageService other = rebuiltService();
+
+        assertThat(claimer.claimNext()).map(PatientResponseDTO::getId).contains(String.valueOf(first));
+        assertThat(recorded).singleElement().satisfies(event -> {
+            assertThat(event.getEventType()).isEqualTo("TRIAGED");
+            assertThat(event.getAggregateId()).isEqualTo(String.valueOf(first));
+        });
+        for (OutboxEvent event : recorded) {
+            other.apply(PatientEvents.decode(event.getContentType(), event.getPayload()));
+        }
+        assertThat(other.depth().getWaiting()).isEqualTo(1);
+
+        // An update to a claimed patient must not queue it again
+        other.apply(PatientEvents.decode(PatientEvents.PROTOBUF, PatientEvents.encode(PatientEvents.PROTOBUF, patient(first, 1), "UPDATE")));
+        assertThat(other.depth().getWaiting()).isEqualTo(1);
+        assertThat(claimAll(other)).containsExactly(second);
+    }
+
+    @Test
+    void claimIsUndoneWhenItsEventCannotBeRecorded() {
+        long patient = insert("Patient", 1, LocalDate.of(2026, 1, 1));
+        TriageService triage = rebuiltService();
+
+        failOutbox.set(true);
+        assertThatThrownBy(triage::claimNext).hasMessage("outbox unavailable");
+        assertThat(jdbcTemplate.queryForObject("SELECT triaged_at IS NULL FROM patient WHERE id = ?", Boolean.class, patient)).isTrue();
+
+        failOutbox.set(false);
+        assertThat(claimAll(triage)).containsExactly(patient);
+        assertThat(recorded).hasSize(1);
+    }
+
+    @Test
+    void concurrentClaimsAcrossInstancesHandOutEachPatientOnce() throws Exception {
+        jdbcTemplate.execute("""
+                INSERT INTO patient (name, email, phone_number, priority, date_of_birth, register_date)
+                SELECT 'Patient ' || g, 'patient' || g || '@example.com', '555-' || g, 1 + g % 3,
+                       DATE '1990-01-01', DATE '2026-01-01' + (g % 30)
+                FROM generate_series(1, 2000) g
+                """);
+        List<TriageService> instances = List.of(rebuiltService(), rebuiltService());
+
+        List<Long> claimed = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> claimers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                TriageService instance = instances.get(i % 2);
+                claimers.add(executor.submit(() -> claimed.addAll(claimAll(instance))));
+            }
+            for (Future<?> claimer : claimers) {
+                claimer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(claimed).hasSize(2000).doesNotHaveDuplicates();
+        assertThat(recorded).hasSize(2000);
+    }
+
+    private static TriageService rebuiltService() {
+        TriageService triage = new TriageService(new TriageRepository(jdbcTemplate), outbox, transactionTemplate,
+                new SimpleMeterRegistry());
+        triage.rebuild();
+        return triage;
+    }
+
+    private static List<Long> claimAll(TriageService triage) {
+        List<Long> claimed = new ArrayList<>();
+        for (PatientResponseDTO next; (next = triage.claimNext().orElse(null)) != null; ) {
+            claimed.add(Long.valueOf(next.getId()));
+        }
+        return claimed;
+    }
+
+    private static long insert(String name, int priority, LocalDate registerDate) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO patient (name, email, phone_number, priority, date_of_birth, register_date)
+                VALUES (?, ?, '555-0100', ?, DATE '1990-05-15', ?) RETURNING id""",
+                Long.class, name, name.toLowerCase() + "@example.com", priority, registerDate);
+    }
+
+    private static Patient patient(long id, int priority) {
+        return jdbcTemplate.queryForObject("SELECT name, email, phone_number, register_date FROM patient WHERE id = ?",
+                (rs, rowNum) -> Patient.builder()
+                        .id(id)
+                        .name(rs.getString("name"))
+                        .email(rs.getString("email"))
+                        .phoneNumber(rs.getString("phone_number"))
+                        .priority(priority)
+                        .registerDate(rs.getObject("register_date", LocalDate.class))
+                        .build(),
+                id);
+    }
+}